@@ -3,13 +3,55 @@ import java.util.*;
 /**
  *  This class helps the computer choose the most optimal next move for the normal level.
  *
+ *  The moves come from tables that are built once, when the class is loaded,
+ *  and shared by every game. RULE_MOVES gives the win/block/fork square for
+ *  every board. The "best empty space" fallback used to be a PriorityQueue of
+ *  Squares, and which square it hands out depends on the queue's internal
+ *  order, not just on which squares are in it. So every queue the old code could
+ *  reach is numbered, and QUEUE_REMOVE / QUEUE_POLL say what removing a square
+ *  or taking the top square does to it. A move is then a few array lookups
+ *  with nothing allocated, and it picks exactly what the queue did.
+ *
  *  @author gracejiang
  *  @version May 3, 2021
  */
 public class AI
 {
+    /**
+     * RULE_MOVES[GameState.boardCode(state)] is the square picked by the win/block/fork rules, or 0.
+     */
+    private static final byte[] RULE_MOVES;
+
+    /**
+     * QUEUE_REMOVE[queue * 10 + n] is the queue left after removing square n (n = 0 removes nothing).
+     */
+    private static final short[] QUEUE_REMOVE;
+
+    /**
+     * QUEUE_POLL[queue] is the top square in bits 0 - 3 and the queue left
+     * after taking it above that, or -1 if the queue is empty.
+     */
+    private static final int[] QUEUE_POLL;
+
+    static
+    {
+        RULE_MOVES = buildRuleMoves();
+        List<int[]> queues = new ArrayList<int[]>();
+        List<short[]> removes = new ArrayList<short[]>();
+        List<Integer> polls = new ArrayList<Integer>();
+        buildQueueTables(queues, removes, polls);
+        QUEUE_REMOVE = new short[queues.size() * 10];
+        QUEUE_POLL = new int[queues.size()];
+        for (int q = 0; q < queues.size(); q++)
+        {
+            System.arraycopy(removes.get(q), 0, QUEUE_REMOVE, q * 10, 10);
+            QUEUE_POLL[q] = polls.get(q);
+        }
+    }
+
     private int[] board;
-    private PriorityQueue<Square> pq;
+    private int queue; // number of this game's queue of squares to fall back on; 0 is the full queue
+    private EngineMetrics metrics; // null to record nothing
 
     /**
      * Create a new AI helper
@@ -18,17 +60,24 @@ public class AI
     public AI(int[] brd)
     {
         board = brd;
-        pq = new PriorityQueue<Square>(new SquareComparator());
-
-        pq.add(new Square(1));
-        pq.add(new Square(2));
-        pq.add(new Square(3));
-        pq.add(new Square(4));
-        pq.add(new Square(5));
-        pq.add(new Square(6));
-        pq.add(new Square(7));
-        pq.add(new Square(8));
-        pq.add(new Square(9));
+        queue = 0;
+    }
+
+    /**
+     * Create a new AI helper for a game kept as a GameState, see chooseMove(int, int).
+     */
+    public AI()
+    {
+        this(null);
+    }
+
+    /**
+     * Picks where chooseMove records its time.
+     * @param m totals to add to (EngineMetrics.NORMAL for real games), or null (the default) to record nothing
+     */
+    public void setMetrics(EngineMetrics m)
+    {
+        metrics = m;
     }
 
     /**
@@ -36,19 +85,78 @@ public class AI
      * @param humanChoice human's previous choice,
      *      which is removed from the PQ so the computer can't choose it.
      * @return tile number for computer's move
+     * @throws NoSuchElementException if there is no square left to fall back on
      */
     public int chooseMove(int humanChoice)
     {
-        Square toBeRemoved = null;
-        for (Square s : pq) // find humanChoice and remove it from pq
+        int computerChoice = chooseMove(GameState.fromBoard(board, true), humanChoice);
+        board[computerChoice - 1] = -1;
+        return computerChoice;
+    }
+
+    /**
+     * Chooses most beneficial move for computer without a board array.
+     * @param state the game, as a GameState
+     * @param humanChoice human's previous choice, 0 if the computer moves first
+     * @return tile number for computer's move (it can be a taken square, like chooseMove(int))
+     * @throws NoSuchElementException if there is no square left to fall back on
+     */
+    public int chooseMove(int state, int humanChoice)
+    {
+        EngineMetrics m = metrics;
+        if (m == null)
         {
-            if (s.number == humanChoice)
-            {
-                toBeRemoved = s;
-            }
+            return lookUp(state, humanChoice);
         }
-        pq.remove(toBeRemoved);
+        long start = System.nanoTime();
+        int computerChoice = lookUp(state, humanChoice);
+        m.recordMove(System.nanoTime() - start, 0, 0, 0); // table lookups, nothing is searched
+        return computerChoice;
+    }
+
+    /**
+     * The body of chooseMove, without the metrics.
+     */
+    private int lookUp(int state, int humanChoice)
+    {
+        queue = QUEUE_REMOVE[queue * 10 + humanChoice];
+
+        int computerChoice = RULE_MOVES[GameState.boardCode(state)];
+
+        // last resort is choosing the best empty space from the priority queue
+        if (computerChoice == humanChoice || computerChoice == 0)
+        {
+            computerChoice = poll();
+        }
+        if (GameState.get(state, computerChoice - 1) != 0) // already taken
+        {
+            computerChoice = poll();
+        }
+        return computerChoice;
+    }
+
+    /**
+     * Takes the top square off this game's queue.
+     * @return square number
+     */
+    private int poll()
+    {
+        int entry = QUEUE_POLL[queue];
+        if (entry < 0)
+        {
+            throw new NoSuchElementException();
+        }
+        queue = entry >>> 4;
+        return entry & 15;
+    }
 
+    /**
+     * The win, block and fork rules.
+     * @param board board holding 1 for human, -1 for computer, 0 for empty
+     * @return square picked by the rules, or 0 if none applies
+     */
+    private static int ruleMove(int[] board)
+    {
         int computerChoice = 0;
 
         // first check for possible computer wins
@@ -175,55 +283,125 @@ public class AI
         {
             computerChoice = 7;
         }
+        return computerChoice;
+    }
 
-        // last resort is choosing the best empty space from the priority queue
-        if (computerChoice == humanChoice) // computer cannot choose human move
-        {
-            computerChoice = pq.remove().number;
-        }
-        if (computerChoice == 0) // make sure compChoice is something
+    private static byte[] buildRuleMoves()
+    {
+        byte[] table = new byte[19683];
+        int[] board = new int[9];
+        for (int code = 0; code < table.length; code++)
         {
-            computerChoice = pq.remove().number;
+            for (int i = 0, rest = code; i < 9; i++, rest /= 3)
+            {
+                board[i] = rest % 3 - 1;
+            }
+            table[code] = (byte) ruleMove(board);
         }
+        return table;
+    }
 
-        if (isTaken(computerChoice))
+    /**
+     * Numbers every queue the fallback can reach, starting with the full queue
+     * of Squares ordered by SquareComparator. Each queue is reached by replaying
+     * its operations on a real PriorityQueue, so ties come out the same way.
+     * @param queues filled with the operations leading to each queue (0 = poll, n = remove square n)
+     * @param removes filled with each queue's QUEUE_REMOVE row
+     * @param polls filled with each queue's QUEUE_POLL entry
+     */
+    private static void buildQueueTables(List<int[]> queues, List<short[]> removes, List<Integer> polls)
+    {
+        Map<String, Integer> numbers = new HashMap<String, Integer>();
+        queues.add(new int[0]);
+        numbers.put(queueKey(replay(new int[0])), 0);
+        for (int q = 0; q < queues.size(); q++)
         {
-            Square toBeRemoved2 = null;
-            for (Square s : pq) // find humanChoice and remove it from pq
+            int[] ops = queues.get(q);
+            short[] row = new short[10];
+            for (int op = 0; op <= 9; op++)
             {
-                if (s.number == humanChoice)
+                PriorityQueue<Square> pq = replay(ops);
+                if (op == 0)
                 {
-                    toBeRemoved2 = s;
+                    if (pq.isEmpty())
+                    {
+                        polls.add(-1);
+                        continue;
+                    }
+                    int square = pq.remove().number;
+                    polls.add(square | number(pq, ops, op, queues, numbers) << 4);
+                }
+                else
+                {
+                    removeSquare(pq, op);
+                    row[op] = (short) number(pq, ops, op, queues, numbers);
                 }
             }
-            pq.remove(toBeRemoved2);
-            computerChoice = pq.remove().number;
+            row[0] = (short) q; // removing square 0 (no human move yet) changes nothing
+            removes.add(row);
         }
+    }
 
-        board[computerChoice - 1] = -1;
-        return computerChoice;
+    private static int number(PriorityQueue<Square> pq, int[] ops, int op,
+        List<int[]> queues, Map<String, Integer> numbers)
+    {
+        String key = queueKey(pq);
+        Integer n = numbers.get(key);
+        if (n == null)
+        {
+            n = queues.size();
+            int[] next = Arrays.copyOf(ops, ops.length + 1);
+            next[ops.length] = op;
+            queues.add(next);
+            numbers.put(key, n);
+        }
+        return n;
+    }
+
+    private static PriorityQueue<Square> replay(int[] ops)
+    {
+        PriorityQueue<Square> pq = new PriorityQueue<Square>(new SquareComparator());
+        for (int num = 1; num <= 9; num++)
+        {
+            pq.add(new Square(num));
+        }
+        for (int op : ops)
+        {
+            if (op == 0)
+            {
+                pq.remove();
+            }
+            else
+            {
+                removeSquare(pq, op);
+            }
+        }
+        return pq;
+    }
+
+    private static void removeSquare(PriorityQueue<Square> pq, int number)
+    {
+        Square toBeRemoved = null;
+        for (Square s : pq) // find the square and remove it from pq
+        {
+            if (s.number == number)
+            {
+                toBeRemoved = s;
+            }
+        }
+        pq.remove(toBeRemoved);
     }
 
     /**
-     * Checks if the computer chooses an occupied spot
-     * @param compChoice square to check
-     * @return true if board[compChoice - 1] == 1 or -1, false otherwise
+     * The queue's squares in its internal (heap) order, which is what decides ties.
      */
-    private boolean isTaken(int compChoice)
+    private static String queueKey(PriorityQueue<Square> pq)
     {
-        return board[compChoice - 1] != 0;
+        StringBuilder key = new StringBuilder();
+        for (Square s : pq)
+        {
+            key.append(s.number);
+        }
+        return key.toString();
     }
-
-    /****** FOR TESTING BELOW ******/
-
-//    public static void main(String[] args)
-//    {
-//        AI a = new AI(null);
-//        PriorityQueue<Square> pq = a.pq;
-//
-//        while(!pq.isEmpty())
-//        {
-//            System.out.println(pq.remove());
-//        }
-//    }
-}
\ No newline at end of file
+}
@@ -1,12 +1,27 @@
 /**
  *  AI logic helper for the "unbeatable" level.
  *  This uses the Minimax algorithm, hence the AI"MM".
+ *  The search itself runs on two 9-bit masks (see Bitboard), and carries
+ *  GameRules' line counters along to spot wins;
+ *  the int[][] methods are a thin adapter for GameRunnerMM.
  *
  *  @author gracejiang
  *  @version May 11, 2021
  */
-public class AIMM
+public class AIMM implements MoveEngine
 {
+    /**
+     * Squares (as bits) in the order the alpha-beta search tries them:
+     *      highest Square.getPriority() first, so centre, then corners, then edges.
+     */
+    static final int[] MOVE_ORDER = buildMoveOrder();
+
+    private boolean alphaBeta; // use the pruned search instead of plain minimax
+    private long nodes; // positions visited by the last getBestMove
+    private TranspositionTable table; // null for no table
+    private Tablebase tablebase; // null to always search
+    private EngineMetrics metrics; // null to record nothing
+
     /**
      * Create a new AI helper that uses the minimax algorithm
      * @param board
@@ -16,36 +31,332 @@ public class AIMM
         // nothing
     }
 
+    /**
+     * Turns alpha-beta pruning with priority move ordering on or off.
+     * Both searches return the same value, but ties between equally good
+     * squares go to the first square in the order each search tries them.
+     * @param enabled true for alpha-beta, false for plain minimax
+     */
+    public void setAlphaBeta(boolean enabled)
+    {
+        alphaBeta = enabled;
+    }
+
+    /**
+     * Gives the alpha-beta search a transposition table to read from and fill.
+     * The table is kept across calls to getBestMove, so later moves in the same
+     * game mostly find their positions already solved.
+     * @param tt table to use, or null for none
+     */
+    public void setTranspositionTable(TranspositionTable tt)
+    {
+        table = tt;
+    }
+
+    /**
+     * Answers moves straight from a precomputed Tablebase instead of searching.
+     * If tb is null (e.g. Tablebase.getDefault() found no valid file), AIMM searches as usual.
+     * @param tb table to read moves from, or null
+     */
+    public void setTablebase(Tablebase tb)
+    {
+        tablebase = tb;
+    }
+
+    /**
+     * Picks where getBestMove records its time, node count and cache use.
+     * @param m totals to add to (EngineMetrics.UNBEATABLE for real games), or null (the default) to record nothing
+     */
+    public void setMetrics(EngineMetrics m)
+    {
+        metrics = m;
+    }
+
+    /**
+     * Returns the transposition table in use.
+     * @return the table, or null if there is none
+     */
+    public TranspositionTable getTranspositionTable()
+    {
+        return table;
+    }
+
+    /**
+     * Returns how many positions the last call to getBestMove visited.
+     * @return node count
+     */
+    public long getNodeCount()
+    {
+        return nodes;
+    }
+
     /**
      * Returns best computer move using minimax algorithm.
      * @param brd current state of game
      * @return square number of chosen move
      */
+    @Override
     public int[] getBestMove(int[][] brd)
     {
-        int maxValue = Integer.MIN_VALUE;
         int[] finalMove = {0, 0};
+        int square = getBestMove(Bitboard.fromBoard(brd, 1), Bitboard.fromBoard(brd, -1));
+        if (square >= 0)
+        {
+            finalMove[0] = square / 3;
+            finalMove[1] = square % 3;
+        }
+        return finalMove;
+    }
+
+    /**
+     * Returns best computer move for a game kept as a GameState.
+     * @param state the game, with the computer to move
+     * @return square number (1 - 9) of chosen move, or 0 if the game is over
+     */
+    public int chooseMove(int state)
+    {
+        if (GameState.isOver(state))
+        {
+            return 0;
+        }
+        return getBestMove(GameState.human(state), GameState.computer(state)) + 1;
+    }
+
+    /**
+     * Returns best computer move using minimax algorithm.
+     * Ties go to the first square in row-major order.
+     * @param human human's squares
+     * @param computer computer's squares
+     * @return bit index of chosen move (square number - 1), or -1 if the board is full
+     */
+    public int getBestMove(int human, int computer)
+    {
+        EngineMetrics m = metrics;
+        if (m == null)
+        {
+            return search(human, computer);
+        }
+        TranspositionTable tt = table;
+        long hits = tt == null ? 0 : tt.getHits();
+        long misses = tt == null ? 0 : tt.getMisses();
+        long start = System.nanoTime();
+        int move = search(human, computer);
+        long elapsed = System.nanoTime() - start;
+        if (tablebase != null)
+        {
+            m.recordMove(elapsed, 0, 1, 0); // the tablebase is a cache that always hits
+        }
+        else if (tt != null)
+        {
+            m.recordMove(elapsed, nodes, tt.getHits() - hits, tt.getMisses() - misses);
+        }
+        else
+        {
+            m.recordMove(elapsed, nodes, 0, 0);
+        }
+        return move;
+    }
+
+    /**
+     * The body of getBestMove, without the metrics.
+     */
+    private int search(int human, int computer)
+    {
+        nodes = 0;
+        if (tablebase != null)
+        {
+            return tablebase.bestMove(human, computer, true);
+        }
+        if (alphaBeta)
+        {
+            return getBestMoveAlphaBeta(human, computer);
+        }
+
+        int lines = GameRules.countLines(human, computer);
+        int maxValue = Integer.MIN_VALUE;
+        int finalMove = -1;
+
+        for (int moves = Bitboard.empty(human, computer); moves != 0; moves &= moves - 1)
+        {
+            int bit = moves & -moves;
+            int square = Integer.numberOfTrailingZeros(bit);
+            int hypotheticalBestValue = minimax(human, computer | bit,
+                GameRules.addMove(lines, square, -1), 0, false);
+
+            if (hypotheticalBestValue > maxValue)
+            {
+                maxValue = hypotheticalBestValue;
+                finalMove = square;
+            }
+        }
+        return finalMove;
+    }
+
+    /**
+     * Root of the alpha-beta search. Each root move is searched with the window
+     * (best so far, computer win), so moves that cannot beat the current best
+     * are cut off early, and the loop stops once a win is found.
+     * @param human human's squares
+     * @param computer computer's squares
+     * @return bit index of chosen move, or -1 if the board is full
+     */
+    private int getBestMoveAlphaBeta(int human, int computer)
+    {
+        int empty = Bitboard.empty(human, computer);
+        int lines = GameRules.countLines(human, computer);
+        int maxValue = Integer.MIN_VALUE;
+        int finalMove = -1;
+
+        for (int i = 0; i < MOVE_ORDER.length && maxValue < 10; i++)
+        {
+            int bit = MOVE_ORDER[i];
+            if ((empty & bit) != 0)
+            {
+                int square = Integer.numberOfTrailingZeros(bit);
+                int hypotheticalBestValue = alphaBeta(human, computer | bit,
+                    GameRules.addMove(lines, square, -1), maxValue, 10, false);
+
+                if (hypotheticalBestValue > maxValue)
+                {
+                    maxValue = hypotheticalBestValue;
+                    finalMove = square;
+                }
+            }
+        }
+        return finalMove;
+    }
+
+    /**
+     * Minimax with alpha-beta pruning. Children are tried in MOVE_ORDER,
+     * and results are looked up in / saved to the transposition table if there is one.
+     * @param human human's squares
+     * @param computer computer's squares
+     * @param alpha value the computer is already guaranteed elsewhere
+     * @param beta value the human is already guaranteed elsewhere
+     * @param maximizingPlayer true if it is the computer's turn
+     * @return the minimax value if it lies inside (alpha, beta), otherwise a bound on it
+     */
+    public int alphaBeta(int human, int computer, int alpha, int beta, boolean maximizingPlayer)
+    {
+        return alphaBeta(human, computer, GameRules.countLines(human, computer), alpha, beta, maximizingPlayer);
+    }
+
+    /**
+     * alphaBeta with the position's line counters (see GameRules) carried down the
+     * tree, so each move only adds its own lines and a win needs no rescan.
+     */
+    private int alphaBeta(int human, int computer, int lines, int alpha, int beta, boolean maximizingPlayer)
+    {
+        nodes++;
+        int winner = GameRules.lineWinner(lines);
+
+        if (winner != 0)
+        {
+            return winner == 1 ? -10 : 10; // if someone won already
+        }
+
+        int empty = Bitboard.empty(human, computer);
+        if (empty == 0)
+        {
+            return 0; // tie
+        }
+
+        if (table == null)
+        {
+            return alphaBetaChildren(human, computer, lines, empty, alpha, beta, maximizingPlayer);
+        }
+
+        int key = TranspositionTable.key(human, computer, maximizingPlayer);
+        int entry = table.probe(key);
+        if (entry != 0)
+        {
+            int stored = TranspositionTable.value(entry);
+            int bound = TranspositionTable.bound(entry);
+            if (bound == TranspositionTable.EXACT
+                || (bound == TranspositionTable.LOWER_BOUND && stored >= beta)
+                || (bound == TranspositionTable.UPPER_BOUND && stored <= alpha))
+            {
+                return stored;
+            }
+            else if (bound == TranspositionTable.LOWER_BOUND)
+            {
+                alpha = Math.max(alpha, stored);
+            }
+            else
+            {
+                beta = Math.min(beta, stored);
+            }
+        }
+
+        int result = alphaBetaChildren(human, computer, lines, empty, alpha, beta, maximizingPlayer);
+        if (result <= alpha)
+        {
+            table.store(key, result, TranspositionTable.UPPER_BOUND);
+        }
+        else if (result >= beta)
+        {
+            table.store(key, result, TranspositionTable.LOWER_BOUND);
+        }
+        else
+        {
+            table.store(key, result, TranspositionTable.EXACT);
+        }
+        return result;
+    }
 
-        for (int r = 0; r < 3; r++)
+    /**
+     * Searches the children of a position that is not over yet.
+     * @param human human's squares
+     * @param computer computer's squares
+     * @param lines line counters of the position
+     * @param empty empty squares
+     * @param alpha value the computer is already guaranteed elsewhere
+     * @param beta value the human is already guaranteed elsewhere
+     * @param maximizingPlayer true if it is the computer's turn
+     * @return the best child value, or a bound on it if the window cut the search short
+     */
+    private int alphaBetaChildren(int human, int computer, int lines, int empty,
+        int alpha, int beta, boolean maximizingPlayer)
+    {
+        if (maximizingPlayer)
         {
-            for (int c = 0; c < 3; c++)
+            int currentMax = Integer.MIN_VALUE;
+            for (int i = 0; i < MOVE_ORDER.length; i++)
             {
-                if (brd[r][c] == 0)
+                int bit = MOVE_ORDER[i];
+                if ((empty & bit) != 0)
                 {
-                    brd[r][c] = -1; // do the move
-                    int hypotheticalBestValue = minimax(brd, 0, false);
-                    brd[r][c] = 0; // undo the move
+                    currentMax = Math.max(currentMax, alphaBeta(human, computer | bit,
+                        GameRules.addMove(lines, Integer.numberOfTrailingZeros(bit), -1), alpha, beta, false));
+                    alpha = Math.max(alpha, currentMax);
+                    if (alpha >= beta)
+                    {
+                        break; // the human will never allow this position
+                    }
+                }
+            }
+            return currentMax;
+        }
 
-                    if (hypotheticalBestValue > maxValue)
+        else // if (!maximizingPlayer)
+        {
+            int currentMin = Integer.MAX_VALUE;
+            for (int i = 0; i < MOVE_ORDER.length; i++)
+            {
+                int bit = MOVE_ORDER[i];
+                if ((empty & bit) != 0)
+                {
+                    currentMin = Math.min(currentMin, alphaBeta(human | bit, computer,
+                        GameRules.addMove(lines, Integer.numberOfTrailingZeros(bit), 1), alpha, beta, true));
+                    beta = Math.min(beta, currentMin);
+                    if (alpha >= beta)
                     {
-                        maxValue = hypotheticalBestValue;
-                        finalMove[0] = r;
-                        finalMove[1] = c;
+                        break; // the computer will never allow this position
                     }
                 }
             }
+            return currentMin;
         }
-        return finalMove;
     }
 
     /**
@@ -55,27 +366,22 @@ public class AIMM
      */
     public int value(int[][] brd)
     {
-        if ((brd[0][0] + brd[0][1] + brd[0][2] == 3) || // 123
-            (brd[1][0] + brd[1][1] + brd[1][2] == 3) || // 456
-            (brd[2][0] + brd[2][1] + brd[2][2] == 3) || // 789
-            (brd[0][0] + brd[1][0] + brd[2][0] == 3) || // 147
-            (brd[0][1] + brd[1][1] + brd[2][1] == 3) || // 258
-            (brd[0][2] + brd[1][2] + brd[2][2] == 3) || // 369
-            (brd[0][0] + brd[1][1] + brd[2][2] == 3) || // 159
-            (brd[0][2] + brd[1][1] + brd[2][0] == 3) // 357
-            )
+        return value(Bitboard.fromBoard(brd, 1), Bitboard.fromBoard(brd, -1));
+    }
+
+    /**
+     * Evaluates a specific state of a game and assigns it a value
+     * @param human human's squares
+     * @param computer computer's squares
+     * @return 10 for computer win, -10 for human win, 0 otherwise
+     */
+    public int value(int human, int computer)
+    {
+        if (Bitboard.isWin(human))
         {
             return -10; // negative bc the human won
         }
-        else if ((brd[0][0] + brd[0][1] + brd[0][2] == -3) || // 123
-                (brd[1][0] + brd[1][1] + brd[1][2] == -3) || // 456
-                (brd[2][0] + brd[2][1] + brd[2][2] == -3) || // 789
-                (brd[0][0] + brd[1][0] + brd[2][0] == -3) || // 147
-                (brd[0][1] + brd[1][1] + brd[2][1] == -3) || // 258
-                (brd[0][2] + brd[1][2] + brd[2][2] == -3) || // 369
-                (brd[0][0] + brd[1][1] + brd[2][2] == -3) || // 159
-                (brd[0][2] + brd[1][1] + brd[2][0] == -3) // 357
-            )
+        else if (Bitboard.isWin(computer))
         {
             return 10; // positive bc the computer won
         }
@@ -92,39 +398,51 @@ public class AIMM
      */
     public int minimax(int[][] board1, int depth, boolean maximizingPlayer)
     {
-        int score = value(board1);
+        return minimax(Bitboard.fromBoard(board1, 1), Bitboard.fromBoard(board1, -1),
+            depth, maximizingPlayer);
+    }
+
+    /**
+     * Recursively goes through each possible outcome and chooses best move for computer.
+     * @param human human's squares
+     * @param computer computer's squares
+     * @param depth number of moves made since the root
+     * @param maximizingPlayer true if it is the computer's turn
+     * @return a value that judges each possible outcome
+     */
+    public int minimax(int human, int computer, int depth, boolean maximizingPlayer)
+    {
+        return minimax(human, computer, GameRules.countLines(human, computer), depth, maximizingPlayer);
+    }
 
-        if (score == 10 || score == -10)
-        {
-            return score; // if someone won already
-        }
+    /**
+     * minimax with the position's line counters (see GameRules) carried down the tree.
+     */
+    private int minimax(int human, int computer, int lines, int depth, boolean maximizingPlayer)
+    {
+        nodes++;
+        int winner = GameRules.lineWinner(lines);
 
-        if (!existsMoreMoves(board1))
+        if (winner != 0)
         {
-            return 0; // tie
+            return winner == 1 ? -10 : 10; // if someone won already
         }
 
-        if (depth == 9 /* BOARD IN TERMINAL STATE */)
+        int empty = Bitboard.empty(human, computer);
+        if (empty == 0)
         {
-            return 0;
+            return 0; // tie
         }
 
         if (maximizingPlayer)
         {
             int currentMax = Integer.MIN_VALUE;
-
-            for (int i = 0; i <3; i++)
+            for (int moves = empty; moves != 0; moves &= moves - 1)
             {
-                for (int j = 0; j < 3; j++)
-                {
-                    if (board1[i][j] == 0)
-                    {
-                        board1[i][j] = -1;
-                        int newMax = minimax(board1, depth + 1, false);
-                        currentMax = Math.max(currentMax, newMax);
-                        board1[i][j] = 0;
-                    }
-                }
+                int square = Integer.numberOfTrailingZeros(moves);
+                int newMax = minimax(human, computer | 1 << square,
+                    GameRules.addMove(lines, square, -1), depth + 1, false);
+                currentMax = Math.max(currentMax, newMax);
             }
             return currentMax;
         }
@@ -132,18 +450,12 @@ public class AIMM
         else // if (!maximizingPlayer)
         {
             int currentMin = Integer.MAX_VALUE;
-            for (int i = 0; i <3; i++)
+            for (int moves = empty; moves != 0; moves &= moves - 1)
             {
-                for (int j = 0; j < 3; j++)
-                {
-                    if (board1[i][j] == 0)
-                    {
-                        board1[i][j] = 1;
-                        int newMin = minimax(board1, depth + 1, true);
-                        currentMin = Math.min(currentMin, newMin);
-                        board1[i][j] = 0;
-                    }
-                }
+                int square = Integer.numberOfTrailingZeros(moves);
+                int newMin = minimax(human | 1 << square, computer,
+                    GameRules.addMove(lines, square, 1), depth + 1, true);
+                currentMin = Math.min(currentMin, newMin);
             }
             return currentMin;
         }
@@ -156,16 +468,39 @@ public class AIMM
      */
     public boolean existsMoreMoves(int[][] board1)
     {
-        for (int i = 0; i <3; i++)
+        return existsMoreMoves(Bitboard.fromBoard(board1, 1), Bitboard.fromBoard(board1, -1));
+    }
+
+    /**
+     * Checks if there are any empty spots.
+     * @param human human's squares
+     * @param computer computer's squares
+     * @return true if there is at least one empty spot, false otherwise
+     */
+    public boolean existsMoreMoves(int human, int computer)
+    {
+        return Bitboard.empty(human, computer) != 0;
+    }
+
+    /**
+     * Sorts the squares by Square.getPriority(), highest first.
+     * Squares with the same priority keep their numbering order.
+     * @return square bits in search order
+     */
+    private static int[] buildMoveOrder()
+    {
+        int[] order = new int[9];
+        int n = 0;
+        for (int priority = 4; priority >= 0; priority--)
         {
-            for (int j = 0; j < 3; j++)
+            for (int num = 1; num <= 9; num++)
             {
-                if (board1[i][j] == 0)
+                if (new Square(num).getPriority() == priority)
                 {
-                    return true;
+                    order[n++] = 1 << (num - 1);
                 }
             }
         }
-        return false;
+        return order;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,151 @@
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+
+/**
+ *  Runs the computer's moves for all game windows.
+ *  A move is scheduled after the human's move: the "thinking" pause is a timer,
+ *  the search runs on a shared worker thread, and the result is handed back on
+ *  the Event Dispatch Thread. A search that fails is reported on System.err
+ *  and handed back as a failure, so the window can take input again. Nothing
+ *  runs between moves, and workers that sit idle for a while are stopped.
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public final class AIScheduler
+{
+    private static final ScheduledThreadPoolExecutor WORKERS = createWorkers();
+
+    /**
+     * A scheduled computer move that can be called off.
+     */
+    public static final class Ticket
+    {
+        private volatile boolean cancelled;
+        private volatile Future<?> future;
+
+        /**
+         * Stops the move: it will not start if it has not yet, a running search is
+         * interrupted, and a finished result is never handed to the window.
+         */
+        public void cancel()
+        {
+            cancelled = true;
+            Future<?> f = future;
+            if (f != null)
+            {
+                f.cancel(true);
+            }
+        }
+
+        /**
+         * Checks if cancel() was called.
+         * @return true if cancelled
+         */
+        public boolean isCancelled()
+        {
+            return cancelled;
+        }
+    }
+
+    private AIScheduler()
+    {
+        // only static helpers
+    }
+
+    /**
+     * Schedules a computer move.
+     * @param <T> type of the search result
+     * @param delayMillis how long the computer appears to think before searching
+     * @param search finds the move; runs on a worker thread
+     * @param onEdt receives the move on the Event Dispatch Thread, unless the ticket was cancelled
+     * @param onFailure receives what search threw, on the Event Dispatch Thread, unless the
+     *        ticket was cancelled
+     * @return ticket to cancel the move with, e.g. when the window is closed
+     */
+    public static <T> Ticket schedule(long delayMillis, Callable<T> search, Consumer<T> onEdt,
+        Consumer<Exception> onFailure)
+    {
+        final Ticket ticket = new Ticket();
+        ticket.future = WORKERS.schedule(() ->
+        {
+            if (ticket.cancelled)
+            {
+                return null;
+            }
+            final T result;
+            try
+            {
+                result = search.call();
+            }
+            catch (Exception e)
+            {
+                if (!ticket.cancelled) // a cancelled search may throw when interrupted
+                {
+                    System.err.println("computer move failed: " + e);
+                    SwingUtilities.invokeLater(() ->
+                    {
+                        if (!ticket.cancelled)
+                        {
+                            onFailure.accept(e);
+                        }
+                    });
+                }
+                return null;
+            }
+            SwingUtilities.invokeLater(() ->
+            {
+                if (!ticket.cancelled)
+                {
+                    onEdt.accept(result);
+                }
+            });
+            return null;
+        }, delayMillis, TimeUnit.MILLISECONDS);
+        return ticket;
+    }
+
+    /**
+     * Runs a task on a worker straight away, e.g. a search that reports through its own handle.
+     * If the task throws, that is reported on System.err.
+     * @param task work to run
+     * @return the task, to cancel it before it starts
+     */
+    public static Future<?> submit(Runnable task)
+    {
+        return WORKERS.submit(() ->
+        {
+            try
+            {
+                task.run();
+            }
+            catch (RuntimeException e)
+            {
+                System.err.println("search failed: " + e);
+            }
+        });
+    }
+
+    private static ScheduledThreadPoolExecutor createWorkers()
+    {
+        final AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = (Runnable r) ->
+        {
+            Thread t = new Thread(r, "ai-worker-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(
+            Runtime.getRuntime().availableProcessors(), factory);
+        pool.setKeepAliveTime(30, TimeUnit.SECONDS);
+        pool.allowCoreThreadTimeOut(true);
+        pool.setRemoveOnCancelPolicy(true);
+        return pool;
+    }
+}
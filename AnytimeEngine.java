@@ -0,0 +1,17 @@
+/**
+ *  A MoveEngine that can also search in the background, getting better the
+ *  longer it runs, and report through a SearchHandle.
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public interface AnytimeEngine extends MoveEngine
+{
+    /**
+     * Starts a search in the background.
+     * @param brd current state of game; it is copied, so the caller may change it afterwards
+     * @param budgetMillis how long the search may take, 0 to search until it is done, stopped or cancelled
+     * @return handle to watch, stop or cancel the search with
+     */
+    SearchHandle submit(int[][] brd, long budgetMillis);
+}
@@ -0,0 +1,103 @@
+/**
+ *  Classifies many 3x3 positions at once: human (X) won, computer (O) won,
+ *  tie, or still going. A position is an int holding the human's squares in
+ *  bits 0 - 8 and the computer's in bits 9 - 17, which is the low half of a
+ *  GameState, so an int[] of GameStates can be passed straight in.
+ *
+ *  The batch loop has no branches and no table lookups: each line is tested
+ *  with ((mask &amp; line) ^ line) - 1, whose sign bit is set only when the line
+ *  is full, and the results are combined with shifts and ors. That keeps the
+ *  loop body to plain int arithmetic on one array element, which HotSpot's
+ *  auto-vectorizer turns into SIMD code on its own. classify(int) is the
+ *  scalar version, built on GameState.outcome.
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public final class BatchEvaluator
+{
+    public static final int ONGOING = 0;
+    public static final int HUMAN_WINS = 1;
+    public static final int COMPUTER_WINS = 2;
+    public static final int TIE = 3;
+
+    private static final int COMPUTER_SHIFT = 9;
+
+    private BatchEvaluator()
+    {
+        // only static helpers
+    }
+
+    /**
+     * Packs a board the way the batch methods read it.
+     * @param human human's squares
+     * @param computer computer's squares
+     * @return human | computer &lt;&lt; 9
+     */
+    public static int pack(int human, int computer)
+    {
+        return human | computer << COMPUTER_SHIFT;
+    }
+
+    /**
+     * Classifies every position in an array.
+     * @param positions packed boards or GameStates
+     * @param out gets one result per position, at the same index
+     */
+    public static void classify(int[] positions, int[] out)
+    {
+        classify(positions, 0, positions.length, out);
+    }
+
+    /**
+     * Classifies positions [from, to) of an array. The human's lines are
+     * checked first, like GameState.outcome.
+     * @param positions packed boards or GameStates
+     * @param from first index
+     * @param to index after the last
+     * @param out gets one result per position, at the same index
+     */
+    public static void classify(int[] positions, int from, int to, int[] out)
+    {
+        for (int i = from; i < to; i++)
+        {
+            int p = positions[i];
+            int h = p & Bitboard.FULL;
+            int c = p >>> COMPUTER_SHIFT & Bitboard.FULL;
+            int humanWon = lines(h);
+            int computerWon = lines(c) & ~humanWon;
+            int full = (((h | c) ^ Bitboard.FULL) - 1) >>> 31 & ~(humanWon | computerWon);
+            out[i] = humanWon | computerWon << 1 | full * TIE;
+        }
+    }
+
+    /**
+     * Classifies one position.
+     * @param position packed board or GameState
+     * @return ONGOING, HUMAN_WINS, COMPUTER_WINS or TIE
+     */
+    public static int classify(int position)
+    {
+        int result = GameState.outcome(position & Bitboard.FULL, position >>> COMPUTER_SHIFT & Bitboard.FULL);
+        if (GameRules.status(result) == GameRules.WIN)
+        {
+            return GameRules.winner(result) == 1 ? HUMAN_WINS : COMPUTER_WINS;
+        }
+        return GameRules.status(result) == GameRules.TIE ? TIE : ONGOING;
+    }
+
+    /**
+     * Returns 1 if a mask covers one of the 8 winning lines, else 0.
+     */
+    private static int lines(int mask)
+    {
+        return (((mask & Bitboard.ROW_123) ^ Bitboard.ROW_123) - 1
+            | ((mask & Bitboard.ROW_456) ^ Bitboard.ROW_456) - 1
+            | ((mask & Bitboard.ROW_789) ^ Bitboard.ROW_789) - 1
+            | ((mask & Bitboard.COL_147) ^ Bitboard.COL_147) - 1
+            | ((mask & Bitboard.COL_258) ^ Bitboard.COL_258) - 1
+            | ((mask & Bitboard.COL_369) ^ Bitboard.COL_369) - 1
+            | ((mask & Bitboard.DIAG_159) ^ Bitboard.DIAG_159) - 1
+            | ((mask & Bitboard.DIAG_357) ^ Bitboard.DIAG_357) - 1) >>> 31;
+    }
+}
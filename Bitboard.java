@@ -0,0 +1,109 @@
+/**
+ *  Bitboard helpers for the 3x3 board.
+ *  Each player is stored as a 9-bit mask where bit (r * 3 + c) is set if that
+ *  player owns the square at row r, column c. This is the square number minus one:
+ *
+ *  <br>[0] [1] [2]
+ *  <br>[3] [4] [5]
+ *  <br>[6] [7] [8]
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public final class Bitboard
+{
+    /** All nine squares. */
+    public static final int FULL = 0x1FF;
+
+    public static final int ROW_123 = 0x007;
+    public static final int ROW_456 = 0x038;
+    public static final int ROW_789 = 0x1C0;
+    public static final int COL_147 = 0x049;
+    public static final int COL_258 = 0x092;
+    public static final int COL_369 = 0x124;
+    public static final int DIAG_159 = 0x111;
+    public static final int DIAG_357 = 0x054;
+
+    /**
+     * The 8 winning lines, in the same order the game runners check them.
+     */
+    public static final int[] WIN_MASKS = {
+        ROW_123, ROW_456, ROW_789,
+        COL_147, COL_258, COL_369,
+        DIAG_159, DIAG_357
+    };
+
+    private Bitboard()
+    {
+        // only static helpers
+    }
+
+    /**
+     * Checks if a player's mask contains a full line.
+     * @param mask 9-bit mask of one player's squares
+     * @return true if the mask covers at least one of the 8 winning lines
+     */
+    public static boolean isWin(int mask)
+    {
+        return (mask & ROW_123) == ROW_123
+            || (mask & ROW_456) == ROW_456
+            || (mask & ROW_789) == ROW_789
+            || (mask & COL_147) == COL_147
+            || (mask & COL_258) == COL_258
+            || (mask & COL_369) == COL_369
+            || (mask & DIAG_159) == DIAG_159
+            || (mask & DIAG_357) == DIAG_357;
+    }
+
+    /**
+     * Returns the empty squares.
+     * @param human human's mask
+     * @param computer computer's mask
+     * @return mask of all unoccupied squares
+     */
+    public static int empty(int human, int computer)
+    {
+        return ~(human | computer) & FULL;
+    }
+
+    /**
+     * Builds one player's mask from the 2D board used by GameRunnerMM.
+     * @param brd board holding 1 for human, -1 for computer, 0 for empty
+     * @param player 1 or -1
+     * @return mask of the squares owned by player
+     */
+    public static int fromBoard(int[][] brd, int player)
+    {
+        int mask = 0;
+        for (int r = 0; r < 3; r++)
+        {
+            for (int c = 0; c < 3; c++)
+            {
+                if (brd[r][c] == player)
+                {
+                    mask |= 1 << (r * 3 + c);
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Builds one player's mask from the 1D board used by GameRunnerNormal.
+     * @param brd board holding 1 for human, -1 for computer, 0 for empty
+     * @param player 1 or -1
+     * @return mask of the squares owned by player
+     */
+    public static int fromBoard(int[] brd, int player)
+    {
+        int mask = 0;
+        for (int i = 0; i < 9; i++)
+        {
+            if (brd[i] == player)
+            {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+}
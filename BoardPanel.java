@@ -0,0 +1,290 @@
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+
+/**
+ *  The whole board as one component: a grid of cells that each hold an X, an O
+ *  or nothing, drawn in a colour.
+ *
+ *  Each X and O is drawn once per size and colour into an image and reused, and
+ *  a change to a cell repaints only that cell. Cells stretch with the window and
+ *  cellAt() finds the cell under the mouse with one division per axis.
+ *
+ *  A cell can also be shaded, and the grid can be split into blocks with
+ *  thicker lines (for the small boards of Ultimate tic-tac-toe).
+ *
+ *  Changes may be made from any thread; they are carried out on the Event Dispatch Thread.
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public class BoardPanel extends JComponent
+{
+    private static final double GLYPH_SCALE = 0.45; // font size for a cell, like the old 90pt X in a 200px square
+    private static final int BLOCK_LINE = 3; // width of the lines between blocks
+
+    private final int rows;
+    private final int cols;
+    private final int[] marks; // 1 for X (human), -1 for O (computer), 0 for empty
+    private final Color[] colors;
+    private final Color[] shades; // cell background, null for the component background
+    private int blockSize; // cells per block side, 0 for no blocks
+    private final Map<Long, BufferedImage> glyphs = new HashMap<Long, BufferedImage>(); // at glyphSize, EDT only
+    private int glyphSize; // point size the cached glyphs were drawn at
+
+    /**
+     * Create a new, empty board.
+     * @param rows number of rows
+     * @param cols number of columns
+     */
+    public BoardPanel(int rows, int cols)
+    {
+        this.rows = rows;
+        this.cols = cols;
+        marks = new int[rows * cols];
+        colors = new Color[rows * cols];
+        shades = new Color[rows * cols];
+        for (int i = 0; i < colors.length; i++)
+        {
+            colors[i] = Color.BLACK;
+        }
+        setOpaque(true);
+        setBackground(Color.WHITE);
+    }
+
+    /**
+     * Puts an X, an O or nothing in a cell.
+     * @param cell row * cols + column
+     * @param who 1 for X (human), -1 for O (computer), 0 to empty it
+     */
+    public void setMark(final int cell, final int who)
+    {
+        if (!SwingUtilities.isEventDispatchThread())
+        {
+            SwingUtilities.invokeLater(() -> setMark(cell, who));
+            return;
+        }
+        if (marks[cell] != who)
+        {
+            marks[cell] = who;
+            repaint(getCellBounds(cell));
+        }
+    }
+
+    /**
+     * Changes the colour a cell's X or O is drawn in.
+     * @param cell row * cols + column
+     * @param color colour, black unless changed
+     */
+    public void setColor(final int cell, final Color color)
+    {
+        if (!SwingUtilities.isEventDispatchThread())
+        {
+            SwingUtilities.invokeLater(() -> setColor(cell, color));
+            return;
+        }
+        if (!colors[cell].equals(color))
+        {
+            colors[cell] = color;
+            repaint(getCellBounds(cell));
+        }
+    }
+
+    /**
+     * Changes a cell's background.
+     * @param cell row * cols + column
+     * @param shade colour to fill the cell with, or null for none
+     */
+    public void setShade(final int cell, final Color shade)
+    {
+        if (!SwingUtilities.isEventDispatchThread())
+        {
+            SwingUtilities.invokeLater(() -> setShade(cell, shade));
+            return;
+        }
+        if (shades[cell] == null ? shade != null : !shades[cell].equals(shade))
+        {
+            shades[cell] = shade;
+            repaint(getCellBounds(cell));
+        }
+    }
+
+    /**
+     * Draws thicker lines around every size x size block of cells.
+     * @param size cells per block side, 0 for none
+     */
+    public void setBlockSize(final int size)
+    {
+        if (!SwingUtilities.isEventDispatchThread())
+        {
+            SwingUtilities.invokeLater(() -> setBlockSize(size));
+            return;
+        }
+        blockSize = size;
+        repaint();
+    }
+
+    /**
+     * Returns what is in a cell. Call on the Event Dispatch Thread.
+     * @param cell row * cols + column
+     * @return 1 for X, -1 for O, 0 for empty
+     */
+    public int getMark(int cell)
+    {
+        return marks[cell];
+    }
+
+    /**
+     * Returns the cell under a point.
+     * @param x x coordinate in this component
+     * @param y y coordinate in this component
+     * @return row * cols + column, or -1 if the point is off the board
+     */
+    public int cellAt(int x, int y)
+    {
+        int w = getWidth();
+        int h = getHeight();
+        if (x < 0 || y < 0 || x >= w || y >= h)
+        {
+            return -1;
+        }
+        return (y * rows / h) * cols + x * cols / w;
+    }
+
+    /**
+     * Returns where a cell is drawn. Cells share out the size as evenly as
+     * they can, so cellAt() of any point in the rectangle is this cell.
+     * @param cell row * cols + column
+     * @return bounds in this component
+     */
+    public Rectangle getCellBounds(int cell)
+    {
+        int r = cell / cols;
+        int c = cell % cols;
+        int x0 = edge(c, cols, getWidth());
+        int y0 = edge(r, rows, getHeight());
+        return new Rectangle(x0, y0, edge(c + 1, cols, getWidth()) - x0, edge(r + 1, rows, getHeight()) - y0);
+    }
+
+    /**
+     * Paints the cells that overlap the clip.
+     * {@inheritDoc}
+     */
+    @Override
+    protected void paintComponent(Graphics g)
+    {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null)
+        {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        if (getWidth() == 0 || getHeight() == 0)
+        {
+            return;
+        }
+
+        int size = (int) (Math.min(getWidth() / cols, getHeight() / rows) * GLYPH_SCALE);
+        if (size != glyphSize)
+        {
+            glyphs.clear();
+            glyphSize = size;
+        }
+
+        int firstRow = Math.max(0, clip.y * rows / getHeight());
+        int lastRow = Math.min(rows - 1, (clip.y + clip.height - 1) * rows / getHeight());
+        int firstCol = Math.max(0, clip.x * cols / getWidth());
+        int lastCol = Math.min(cols - 1, (clip.x + clip.width - 1) * cols / getWidth());
+        for (int r = firstRow; r <= lastRow; r++)
+        {
+            for (int c = firstCol; c <= lastCol; c++)
+            {
+                int cell = r * cols + c;
+                Rectangle b = getCellBounds(cell);
+                if (shades[cell] != null)
+                {
+                    g.setColor(shades[cell]);
+                    g.fillRect(b.x, b.y, b.width, b.height);
+                }
+                g.setColor(Color.BLACK);
+                g.drawRect(b.x, b.y, b.width - 1, b.height - 1);
+                if (blockSize > 0)
+                {
+                    paintBlockEdges(g, b, r, c);
+                }
+                if (marks[cell] != 0 && size > 0)
+                {
+                    BufferedImage glyph = glyph(marks[cell], colors[cell]);
+                    g.drawImage(glyph, b.x + (b.width - glyph.getWidth()) / 2,
+                        b.y + (b.height - glyph.getHeight()) / 2, null);
+                }
+            }
+        }
+    }
+
+    /**
+     * Thickens the sides of a cell that lie on a block edge, inside the cell.
+     */
+    private void paintBlockEdges(Graphics g, Rectangle b, int r, int c)
+    {
+        if (c % blockSize == 0)
+        {
+            g.fillRect(b.x, b.y, BLOCK_LINE, b.height);
+        }
+        if ((c + 1) % blockSize == 0)
+        {
+            g.fillRect(b.x + b.width - BLOCK_LINE, b.y, BLOCK_LINE, b.height);
+        }
+        if (r % blockSize == 0)
+        {
+            g.fillRect(b.x, b.y, b.width, BLOCK_LINE);
+        }
+        if ((r + 1) % blockSize == 0)
+        {
+            g.fillRect(b.x, b.y + b.height - BLOCK_LINE, b.width, BLOCK_LINE);
+        }
+    }
+
+    /**
+     * Returns the cached image of an X or O at glyphSize, drawing it the first time.
+     */
+    private BufferedImage glyph(int who, Color color)
+    {
+        long key = (long) color.getRGB() << 1 | (who == 1 ? 1 : 0);
+        BufferedImage image = glyphs.get(key);
+        if (image == null)
+        {
+            String text = who == 1 ? "X" : "O";
+            Font font = new Font("Helvetica", Font.PLAIN, glyphSize);
+            FontMetrics fm = getFontMetrics(font);
+            image = new BufferedImage(Math.max(1, fm.stringWidth(text)),
+                Math.max(1, fm.getAscent() + fm.getDescent()), BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = image.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setFont(font);
+            g.setColor(color);
+            g.drawString(text, 0, fm.getAscent());
+            g.dispose();
+            glyphs.put(key, image);
+        }
+        return image;
+    }
+
+    /**
+     * Returns where line i of n falls across a length.
+     */
+    private static int edge(int i, int n, int length)
+    {
+        return (int) (((long) i * length + n - 1) / n);
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ *  What the alpha-beta engines (MNKEngine, UltimateEngine and QubicEngine)
+ *  share: the score scale, the time and stop checks, and iterative deepening
+ *  at the root. Each engine plays its own moves in searchRoot and its own
+ *  negamax below that.
+ *
+ *  deepen searches every root move one move deeper at a time, best move
+ *  first, until the game is solved or time runs out, and publishes each
+ *  finished depth to the handle if there is one.
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+abstract class DeepeningSearch
+{
+    static final int WIN = 100000000; // minus the ply, so quicker wins score higher
+    static final int INFINITY = WIN + 1000;
+
+    SearchHandle handle; // null when searching on the calling thread
+    long deadline;
+    boolean outOfTime;
+    long nodes;
+    int completedDepth;
+
+    /**
+     * Plays one root move, searches the position after it and takes the move back.
+     * @param move root move
+     * @param depth depth of this iteration, the root move included
+     * @param alpha best value found so far this iteration
+     * @return value of the move for the player at the root
+     */
+    abstract int searchRoot(int move, int depth, int alpha);
+
+    /**
+     * Returns the positions to report to the handle.
+     * @return nodes, plus any a subclass counts elsewhere
+     */
+    long reportedNodes()
+    {
+        return nodes;
+    }
+
+    /**
+     * Starts the clock and the counters for a new search.
+     * @param budget nanoseconds the search may take, 0 for no limit
+     */
+    final void startClock(long budget)
+    {
+        deadline = budget > 0 ? System.nanoTime() + budget : Long.MAX_VALUE;
+        outOfTime = false;
+        nodes = 0;
+        completedDepth = 0;
+    }
+
+    /**
+     * Every 1024 positions, checks if time is up or a stop was asked for.
+     * @param count positions counted so far
+     * @return true if the search must stop
+     */
+    final boolean stopNow(long count)
+    {
+        if ((count & 1023) == 0
+            && (System.nanoTime() > deadline || (handle != null && handle.isStopRequested())))
+        {
+            outOfTime = true;
+        }
+        return outOfTime;
+    }
+
+    /**
+     * Iterative deepening over the root moves.
+     * @param moves root moves, best guess first; the best one found is moved to the front
+     * @param n number of moves, at least 1
+     * @param maxDepth moves left in the game
+     * @return the best move
+     */
+    final int deepen(int[] moves, int n, int maxDepth)
+    {
+        int best = moves[0];
+        if (handle != null)
+        {
+            handle.update(best, 0, reportedNodes()); // something to play even if stopped straight away
+        }
+
+        for (int depth = 1; depth <= maxDepth; depth++)
+        {
+            int alpha = -INFINITY;
+            int iterationBest = -1;
+            for (int i = 0; i < n; i++)
+            {
+                int value = searchRoot(moves[i], depth, alpha);
+                if (outOfTime)
+                {
+                    break; // this move's value is unfinished, ignore it
+                }
+                if (value > alpha)
+                {
+                    alpha = value;
+                    iterationBest = i;
+                }
+            }
+
+            // a move that beat the previous best (which is always searched first) is kept
+            // even if the iteration did not finish
+            if (iterationBest >= 0)
+            {
+                best = moves[iterationBest];
+                System.arraycopy(moves, 0, moves, 1, iterationBest);
+                moves[0] = best;
+            }
+            if (outOfTime)
+            {
+                break;
+            }
+            completedDepth = depth;
+            if (handle != null)
+            {
+                handle.update(best, completedDepth, reportedNodes());
+            }
+            if (alpha >= WIN - maxDepth || alpha <= -(WIN - maxDepth))
+            {
+                break; // forced win or loss found, searching deeper changes nothing
+            }
+        }
+        return best;
+    }
+}
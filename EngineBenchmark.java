@@ -0,0 +1,249 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ *  Micro-benchmarks for the engines and the win checks, run on the positions in PositionCorpus.
+ *  The project has no build tool to pull in JMH, so this does the same job by hand:
+ *  warm-up iterations, then timed iterations reported as throughput (ops/s) and
+ *  average time (ns/op), plus bytes allocated per op and the allocation rate
+ *  (what JMH calls gc.alloc.rate). Results go into a sink so the JIT cannot drop the work.
+ *
+ *  <br>Usage: java EngineBenchmark [name filter] [measure millis per iteration]
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public class EngineBenchmark
+{
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURE_ITERATIONS = 5;
+
+    /**
+     * One benchmarked operation.
+     */
+    public interface Op
+    {
+        /**
+         * Does the work once.
+         * @return anything derived from the result, so the work cannot be optimised away
+         */
+        long run();
+    }
+
+    private static volatile long sink;
+
+    private final String name;
+    private final Op op;
+
+    private EngineBenchmark(String name, Op op)
+    {
+        this.name = name;
+        this.op = op;
+    }
+
+    /**
+     * Lists every benchmark.
+     * @return benchmarks, named area.method:position
+     */
+    public static List<EngineBenchmark> all()
+    {
+        List<EngineBenchmark> list = new ArrayList<EngineBenchmark>();
+
+        for (PositionCorpus.Position p : PositionCorpus.ONGOING)
+        {
+            final int[] start = p.toBoard1D();
+            final int[] board = new int[9];
+            final int lastHuman = p.lastHuman;
+            list.add(new EngineBenchmark("AI.chooseMove:" + p.name, () ->
+            {
+                System.arraycopy(start, 0, board, 0, 9);
+                return new AI(board).chooseMove(lastHuman);
+            }));
+        }
+
+        for (PositionCorpus.Position p : PositionCorpus.ONGOING)
+        {
+            final int[][] board = p.toBoard2D();
+            final AIMM plain = new AIMM(board);
+            final AIMM pruned = new AIMM(board);
+            pruned.setAlphaBeta(true);
+            list.add(new EngineBenchmark("AIMM.getBestMove:" + p.name, () -> plain.getBestMove(board)[0]));
+            list.add(new EngineBenchmark("AIMM.getBestMove[alphaBeta]:" + p.name,
+                () -> pruned.getBestMove(board)[0]));
+        }
+
+        for (PositionCorpus.Position p : PositionCorpus.ALL)
+        {
+            final int[][] board2D = p.toBoard2D();
+            final AIMM ai = new AIMM(board2D);
+            list.add(new EngineBenchmark("AIMM.value:" + p.name, () -> ai.value(board2D)));
+            list.add(new EngineBenchmark("AIMM.existsMoreMoves:" + p.name,
+                () -> ai.existsMoreMoves(board2D) ? 1 : 0));
+        }
+
+        for (PositionCorpus.Position p : PositionCorpus.ALL)
+        {
+            final int human = p.human;
+            final int computer = p.computer;
+            final int[] moves = replayOrder(human, computer);
+            final GameRules rules = new GameRules();
+            list.add(new EngineBenchmark("GameRules.replay:" + p.name, () ->
+            {
+                rules.reset();
+                for (int square : moves)
+                {
+                    rules.play(square, rules.getPlayerToMove());
+                }
+                return rules.result();
+            }));
+            list.add(new EngineBenchmark("GameState.replay:" + p.name, () ->
+            {
+                int state = GameState.EMPTY;
+                for (int square : moves)
+                {
+                    state = GameState.apply(state, square);
+                }
+                return state;
+            }));
+        }
+
+        // every 3x3 board, classified one at a time and as one batch
+        final int[] boards = new int[1 << 18];
+        int count = 0;
+        for (int p = 0; p < boards.length; p++)
+        {
+            if ((p & p >>> 9 & Bitboard.FULL) == 0)
+            {
+                boards[count++] = p;
+            }
+        }
+        final int[] positions = Arrays.copyOf(boards, count);
+        final int[] results = new int[count];
+        list.add(new EngineBenchmark("BatchEvaluator.classify[scalar]:all", () ->
+        {
+            long sum = 0;
+            for (int p : positions)
+            {
+                sum += BatchEvaluator.classify(p);
+            }
+            return sum;
+        }));
+        list.add(new EngineBenchmark("BatchEvaluator.classify[batch]:all", () ->
+        {
+            BatchEvaluator.classify(positions, results);
+            return results[results.length - 1];
+        }));
+        return list;
+    }
+
+    /**
+     * Orders a position's squares as a legal game, human first, stopping if the game ends early.
+     */
+    private static int[] replayOrder(int human, int computer)
+    {
+        int[] moves = new int[Integer.bitCount(human | computer)];
+        int count = 0;
+        int state = GameState.EMPTY;
+        while (!GameState.isOver(state))
+        {
+            int left = GameState.computerToMove(state)
+                ? computer & ~GameState.computer(state) : human & ~GameState.human(state);
+            if (left == 0)
+            {
+                break;
+            }
+            moves[count] = Integer.numberOfTrailingZeros(left);
+            state = GameState.apply(state, moves[count++]);
+        }
+        return Arrays.copyOf(moves, count);
+    }
+
+    /**
+     * Warms up and measures this benchmark.
+     * @param iterationMillis length of each timed iteration
+     * @return one line of results
+     */
+    public String measure(long iterationMillis)
+    {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++)
+        {
+            iteration(iterationMillis / 2);
+        }
+
+        long ops = 0;
+        long nanos = 0;
+        long bytes = 0;
+        for (int i = 0; i < MEASURE_ITERATIONS; i++)
+        {
+            long[] result = iteration(iterationMillis);
+            ops += result[0];
+            nanos += result[1];
+            bytes += result[2];
+        }
+
+        double seconds = nanos / 1e9;
+        return String.format(Locale.ROOT, "%-52s %14.0f ops/s %12.1f ns/op %10.1f B/op %9.1f MB/s alloc",
+            name, ops / seconds, (double) nanos / ops, (double) bytes / ops, bytes / seconds / (1 << 20));
+    }
+
+    /**
+     * Runs the op in batches until the time is up.
+     * @return {ops, nanos, bytes allocated}
+     */
+    private long[] iteration(long millis)
+    {
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        long end = start + millis * 1000000L;
+        long ops = 0;
+        long now;
+        long acc = 0;
+        int batch = 1;
+        do
+        {
+            for (int i = 0; i < batch; i++)
+            {
+                acc += op.run();
+            }
+            ops += batch;
+            batch = Math.min(batch * 2, 1 << 16);
+            now = System.nanoTime();
+        } while (now < end);
+        sink = acc;
+        return new long[] {ops, now - start, allocatedBytes() - allocatedBefore};
+    }
+
+    /**
+     * Bytes allocated so far by this thread, or 0 if the JVM cannot tell us.
+     */
+    private static long allocatedBytes()
+    {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean)
+        {
+            return ((com.sun.management.ThreadMXBean) bean)
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    /**
+     * Main method
+     * @param args optional name filter and milliseconds per iteration
+     */
+    public static void main(String[] args)
+    {
+        String filter = args.length > 0 ? args[0] : "";
+        long millis = args.length > 1 ? Long.parseLong(args[1]) : 500;
+        for (EngineBenchmark b : all())
+        {
+            if (b.name.contains(filter))
+            {
+                System.out.println(b.measure(millis));
+            }
+        }
+    }
+}
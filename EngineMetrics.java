@@ -0,0 +1,322 @@
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ *  Running totals for one engine: how long each move took (in the same buckets
+ *  as LatencyHistogram), how many positions were searched, how often a cache
+ *  answered, the move rate and how many games are in progress.
+ *
+ *  The game runners and GameServer have their AI and AIMM record every move
+ *  into NORMAL or UNBEATABLE; engines made by offline tools (Simulator,
+ *  TablebaseGenerator, benchmarks) record nothing
+ *  unless setMetrics is called. Recording is a few atomic adds and allocates
+ *  nothing; any number of threads may record at once. Reading takes a copy of the buckets, so it is best kept
+ *  to monitoring (JMX, see EngineMetricsMBean, and the text dump).
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public class EngineMetrics implements EngineMetricsMBean
+{
+    /**
+     * Moves picked by AI (the normal level).
+     */
+    public static final EngineMetrics NORMAL = new EngineMetrics("Normal");
+
+    /**
+     * Moves picked by AIMM (the unbeatable level).
+     */
+    public static final EngineMetrics UNBEATABLE = new EngineMetrics("Unbeatable");
+
+    private static final long SAMPLE_MILLIS = 1000; // how often movesPerSecond is updated
+
+    private static ScheduledExecutorService reporter; // null until start() is called
+
+    private final String name;
+    private final AtomicLongArray latency = new AtomicLongArray(LatencyHistogram.BUCKETS); // also the move count
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final AtomicInteger activeGames = new AtomicInteger();
+    private volatile double movesPerSecond;
+    private long sampledMoves; // reporter thread only
+    private long sampledAt; // reporter thread only
+
+    /**
+     * Create a new, empty set of totals.
+     * @param name engine name shown in JMX and the dump
+     */
+    public EngineMetrics(String name)
+    {
+        this.name = name;
+        sampledAt = System.nanoTime();
+    }
+
+    /**
+     * Counts one move.
+     * @param nanos time taken to pick it
+     * @param searched positions visited
+     * @param hits cache probes that found an answer
+     * @param misses cache probes that found nothing
+     */
+    public void recordMove(long nanos, long searched, long hits, long misses)
+    {
+        long v = Math.max(0, nanos);
+        latency.incrementAndGet(LatencyHistogram.bucketOf(v));
+        totalNanos.add(v);
+        maxNanos.accumulate(v);
+        if (searched != 0)
+        {
+            nodes.add(searched);
+        }
+        if (hits != 0)
+        {
+            cacheHits.add(hits);
+        }
+        if (misses != 0)
+        {
+            cacheMisses.add(misses);
+        }
+    }
+
+    /**
+     * Counts a game that has started.
+     */
+    public void gameStarted()
+    {
+        activeGames.incrementAndGet();
+    }
+
+    /**
+     * Counts a game that has ended or was abandoned. Call once per gameStarted().
+     */
+    public void gameFinished()
+    {
+        activeGames.decrementAndGet();
+    }
+
+    /**
+     * Copies the move latencies recorded so far.
+     * @return a new histogram, in nanoseconds
+     */
+    public LatencyHistogram getLatencyHistogram()
+    {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 0; i < LatencyHistogram.BUCKETS; i++)
+        {
+            long count = latency.get(i);
+            if (count != 0)
+            {
+                h.record(LatencyHistogram.lowestValueOf(i), count);
+            }
+        }
+        return h;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getMoves()
+    {
+        long count = 0;
+        for (int i = 0; i < LatencyHistogram.BUCKETS; i++)
+        {
+            count += latency.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getMovesPerSecond()
+    {
+        return movesPerSecond;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getLatencyP50()
+    {
+        return getLatencyHistogram().getPercentile(50) / 1000.0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getLatencyP99()
+    {
+        return getLatencyHistogram().getPercentile(99) / 1000.0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getLatencyP999()
+    {
+        return getLatencyHistogram().getPercentile(99.9) / 1000.0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getLatencyMax()
+    {
+        return maxNanos.get() / 1000.0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getLatencyMean()
+    {
+        long n = getMoves();
+        return n == 0 ? 0 : totalNanos.sum() / 1000.0 / n;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getNodes()
+    {
+        return nodes.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getNodesPerMove()
+    {
+        long n = getMoves();
+        return n == 0 ? 0 : (double) nodes.sum() / n;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getCacheHitRate()
+    {
+        long hits = cacheHits.sum();
+        long probes = hits + cacheMisses.sum();
+        return probes == 0 ? Double.NaN : (double) hits / probes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getActiveGames()
+    {
+        return activeGames.get();
+    }
+
+    /**
+     * One line summary for the dump.
+     * @return e.g. "Unbeatable: 1200 moves, 85.0 moves/s, p50=0.3us ... , 2 active games"
+     */
+    public String summary()
+    {
+        LatencyHistogram h = getLatencyHistogram();
+        double hitRate = getCacheHitRate();
+        return String.format(Locale.ROOT,
+            "%s: %d moves, %.1f moves/s, p50=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus,"
+                + " %.1f nodes/move, cache %s, %d active games",
+            name, getMoves(), movesPerSecond, h.getPercentile(50) / 1000.0, h.getPercentile(99) / 1000.0,
+            h.getPercentile(99.9) / 1000.0, getLatencyMax(), getNodesPerMove(),
+            Double.isNaN(hitRate) ? "-" : String.format(Locale.ROOT, "%.1f%%", hitRate * 100),
+            getActiveGames());
+    }
+
+    /**
+     * Works out movesPerSecond since the last sample.
+     */
+    private void sample()
+    {
+        long now = System.nanoTime();
+        long count = getMoves();
+        if (now > sampledAt)
+        {
+            movesPerSecond = (count - sampledMoves) * 1e9 / (now - sampledAt);
+        }
+        sampledMoves = count;
+        sampledAt = now;
+    }
+
+    /**
+     * Registers NORMAL and UNBEATABLE with the platform MBean server as
+     * TicTacToe:type=Engine,name=Normal and name=Unbeatable, and starts a daemon
+     * thread that updates the move rates every second. Calling this again does nothing.
+     * @param dumpMillis how often to print both summaries to System.out, 0 for never
+     */
+    public static synchronized void start(long dumpMillis)
+    {
+        if (reporter != null)
+        {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (EngineMetrics m : new EngineMetrics[] {NORMAL, UNBEATABLE})
+        {
+            try
+            {
+                server.registerMBean(m, new ObjectName("TicTacToe:type=Engine,name=" + m.name));
+            }
+            catch (JMException e)
+            {
+                System.err.println("could not register " + m.name + " metrics: " + e.getMessage());
+            }
+        }
+
+        reporter = Executors.newSingleThreadScheduledExecutor((Runnable r) ->
+        {
+            Thread t = new Thread(r, "engine-metrics");
+            t.setDaemon(true);
+            return t;
+        });
+        reporter.scheduleAtFixedRate(() ->
+        {
+            NORMAL.sample();
+            UNBEATABLE.sample();
+        }, SAMPLE_MILLIS, SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+        if (dumpMillis > 0)
+        {
+            reporter.scheduleAtFixedRate(() ->
+            {
+                System.out.println(NORMAL.summary());
+                System.out.println(UNBEATABLE.summary());
+            }, dumpMillis, dumpMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+}
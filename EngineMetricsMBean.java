@@ -0,0 +1,81 @@
+/**
+ *  What EngineMetrics shows over JMX (e.g. in jconsole under TicTacToe/Engine).
+ *  Latencies are in microseconds.
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public interface EngineMetricsMBean
+{
+    /**
+     * Returns which engine this is.
+     * @return "Normal" or "Unbeatable"
+     */
+    String getName();
+
+    /**
+     * Returns how many moves the engine has picked.
+     * @return move count
+     */
+    long getMoves();
+
+    /**
+     * Returns the move rate over the last second.
+     * @return moves per second
+     */
+    double getMovesPerSecond();
+
+    /**
+     * Returns the median time to pick a move.
+     * @return microseconds
+     */
+    double getLatencyP50();
+
+    /**
+     * Returns the 99th percentile time to pick a move.
+     * @return microseconds
+     */
+    double getLatencyP99();
+
+    /**
+     * Returns the 99.9th percentile time to pick a move.
+     * @return microseconds
+     */
+    double getLatencyP999();
+
+    /**
+     * Returns the longest time to pick a move.
+     * @return microseconds
+     */
+    double getLatencyMax();
+
+    /**
+     * Returns the average time to pick a move.
+     * @return microseconds
+     */
+    double getLatencyMean();
+
+    /**
+     * Returns how many positions all searches visited together.
+     * @return node count
+     */
+    long getNodes();
+
+    /**
+     * Returns the average number of positions visited per move.
+     * @return nodes per move
+     */
+    double getNodesPerMove();
+
+    /**
+     * Returns the fraction of cache probes (transposition table or tablebase) that found an answer.
+     * @return 0 - 1, or NaN if the engine has not probed a cache
+     */
+    double getCacheHitRate();
+
+    /**
+     * Returns how many games using this engine are in progress.
+     * @return active game count
+     */
+    int getActiveGames();
+}
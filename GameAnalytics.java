@@ -0,0 +1,495 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ *  Statistics over a GameJournal folder, kept up to date incrementally.
+ *  The totals and a checkpoint (segment and record reached) are saved to a
+ *  state file, so each update() only reads games journaled since the last
+ *  one and questions are answered from the saved totals.
+ *
+ *  New records are split into chunks (at most one segment each) that are
+ *  counted in parallel, each into its own Summary, and the Summaries are
+ *  merged in journal order. Chunks are made and counted one batch (one per
+ *  thread) at a time, each Summary is dropped once it is merged, and every
+ *  Summary has a fixed size, so memory does not grow with the journal.
+ *
+ *  <br>Usage: java GameAnalytics [journal folder] [state file] [threads]
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public class GameAnalytics
+{
+    public static final String DEFAULT_STATE_FILE = "analytics.state";
+
+    private static final int STATE_MAGIC = 0x47414E31; // "GAN1"
+    private static final int CHUNK_RECORDS = 1 << 16;
+
+    /**
+     * Totals for any number of games. Two Summaries can be merged into one.
+     */
+    public static class Summary
+    {
+        /**
+         * Number of losing lines against the Normal AI that are tracked.
+         */
+        public static final int TOP_LINES = 1024;
+
+        // results[(mode * 10 + opening square) * 4 + GameJournal result]; opening 0 if there were no moves
+        private final long[] results = new long[2 * 10 * 4];
+        // moveCounts[mode * (MAX_MOVES + 1) + moves]
+        private final long[] moveCounts = new long[2 * (GameJournal.MAX_MOVES + 1)];
+        // Normal games the human won, by move list: {count, possible overcount}
+        private final Map<Long, long[]> losingLines = new HashMap<Long, long[]>();
+        private long games;
+
+        /**
+         * Counts one journal record.
+         * @param moves long 0 of the record
+         * @param info long 1 of the record
+         */
+        public void add(long moves, long info)
+        {
+            int mode = GameJournal.mode(info) & 1;
+            int result = GameJournal.result(info);
+            results[(mode * 10 + GameJournal.move(moves, 0)) * 4 + result]++;
+            moveCounts[mode * (GameJournal.MAX_MOVES + 1) + GameJournal.moveCount(info)]++;
+            if (mode == GameJournal.NORMAL && result == GameJournal.HUMAN_WINS)
+            {
+                countLine(moves, 1, 0);
+            }
+            games++;
+        }
+
+        /**
+         * Adds another Summary's totals to this one.
+         * @param other totals to add
+         */
+        public void merge(Summary other)
+        {
+            for (int i = 0; i < results.length; i++)
+            {
+                results[i] += other.results[i];
+            }
+            for (int i = 0; i < moveCounts.length; i++)
+            {
+                moveCounts[i] += other.moveCounts[i];
+            }
+            for (Map.Entry<Long, long[]> e : other.losingLines.entrySet())
+            {
+                countLine(e.getKey(), e.getValue()[0], e.getValue()[1]);
+            }
+            games += other.games;
+        }
+
+        /**
+         * Returns the number of games counted.
+         * @return games
+         */
+        public long getGames()
+        {
+            return games;
+        }
+
+        /**
+         * Returns how many games ended a certain way.
+         * @param mode GameJournal.NORMAL or UNBEATABLE
+         * @param opening the human's first square (1 - 9), or 0 for every opening
+         * @param result GameJournal.HUMAN_WINS, COMPUTER_WINS or TIE
+         * @return games
+         */
+        public long getCount(int mode, int opening, int result)
+        {
+            if (opening != 0)
+            {
+                return results[(mode * 10 + opening) * 4 + result];
+            }
+            long sum = 0;
+            for (int sq = 0; sq <= 9; sq++)
+            {
+                sum += results[(mode * 10 + sq) * 4 + result];
+            }
+            return sum;
+        }
+
+        /**
+         * Returns the share of games that ended a certain way.
+         * @param mode GameJournal.NORMAL or UNBEATABLE
+         * @param opening the human's first square (1 - 9), or 0 for every opening
+         * @param result GameJournal.HUMAN_WINS, COMPUTER_WINS or TIE
+         * @return 0 - 1, or 0 if there are no such games
+         */
+        public double getRate(int mode, int opening, int result)
+        {
+            long all = getCount(mode, opening, GameJournal.HUMAN_WINS)
+                + getCount(mode, opening, GameJournal.COMPUTER_WINS) + getCount(mode, opening, GameJournal.TIE);
+            return all == 0 ? 0 : (double) getCount(mode, opening, result) / all;
+        }
+
+        /**
+         * Returns how many games had each number of moves.
+         * @param mode GameJournal.NORMAL or UNBEATABLE
+         * @return counts indexed by number of moves
+         */
+        public long[] getMoveCounts(int mode)
+        {
+            long[] counts = new long[GameJournal.MAX_MOVES + 1];
+            System.arraycopy(moveCounts, mode * counts.length, counts, 0, counts.length);
+            return counts;
+        }
+
+        /**
+         * Returns the most common ways the human beat the Normal AI, most common first.
+         * Counts are exact unless more than TOP_LINES different lines were seen,
+         * in which case they may be too high by at most the line's overcount.
+         * @param n how many lines to return
+         * @return {move list (see GameJournal), count, overcount} for each line
+         */
+        public List<long[]> getTopLosingLines(int n)
+        {
+            List<long[]> lines = new ArrayList<long[]>();
+            for (Map.Entry<Long, long[]> e : losingLines.entrySet())
+            {
+                lines.add(new long[] {e.getKey(), e.getValue()[0], e.getValue()[1]});
+            }
+            lines.sort((a, b) -> Long.compare(b[1], a[1]));
+            return lines.subList(0, Math.min(n, lines.size()));
+        }
+
+        /**
+         * Space-saving count: once TOP_LINES lines are tracked, a new line
+         * replaces the least common one and takes over its count.
+         */
+        private void countLine(long line, long count, long overcount)
+        {
+            long[] c = losingLines.get(line);
+            if (c != null)
+            {
+                c[0] += count;
+                c[1] += overcount;
+                return;
+            }
+            if (losingLines.size() < TOP_LINES)
+            {
+                losingLines.put(line, new long[] {count, overcount});
+                return;
+            }
+            Long rarest = null;
+            long rarestCount = Long.MAX_VALUE;
+            for (Map.Entry<Long, long[]> e : losingLines.entrySet())
+            {
+                if (e.getValue()[0] < rarestCount)
+                {
+                    rarest = e.getKey();
+                    rarestCount = e.getValue()[0];
+                }
+            }
+            losingLines.remove(rarest);
+            losingLines.put(line, new long[] {rarestCount + count, rarestCount + overcount});
+        }
+
+        private void write(DataOutputStream out) throws IOException
+        {
+            out.writeLong(games);
+            for (long v : results)
+            {
+                out.writeLong(v);
+            }
+            for (long v : moveCounts)
+            {
+                out.writeLong(v);
+            }
+            out.writeInt(losingLines.size());
+            for (Map.Entry<Long, long[]> e : losingLines.entrySet())
+            {
+                out.writeLong(e.getKey());
+                out.writeLong(e.getValue()[0]);
+                out.writeLong(e.getValue()[1]);
+            }
+        }
+
+        private static Summary read(DataInputStream in) throws IOException
+        {
+            Summary s = new Summary();
+            s.games = in.readLong();
+            for (int i = 0; i < s.results.length; i++)
+            {
+                s.results[i] = in.readLong();
+            }
+            for (int i = 0; i < s.moveCounts.length; i++)
+            {
+                s.moveCounts[i] = in.readLong();
+            }
+            for (int n = in.readInt(); n > 0; n--)
+            {
+                s.losingLines.put(in.readLong(), new long[] {in.readLong(), in.readLong()});
+            }
+            return s;
+        }
+    }
+
+    /**
+     * Records [from, to) of one segment, and what was found there.
+     */
+    private static class Chunk
+    {
+        final Path file;
+        final int segment;
+        final int from;
+        final int to;
+        int end; // first record not counted; less than to if an incomplete record was found
+
+        Chunk(Path file, int segment, int from, int to)
+        {
+            this.file = file;
+            this.segment = segment;
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    private final Path journal;
+    private final Path stateFile;
+    private Summary summary;
+    private int checkpointSegment; // next record to read is this segment's
+    private int checkpointRecord; // record number checkpointRecord
+
+    /**
+     * Create a new GameAnalytics, loading the saved totals and checkpoint if there are any.
+     * @param journal GameJournal folder
+     * @param stateFile where the totals and checkpoint are kept
+     * @throws IOException if the state file exists but cannot be read
+     */
+    public GameAnalytics(Path journal, Path stateFile) throws IOException
+    {
+        this.journal = journal;
+        this.stateFile = stateFile;
+        summary = new Summary();
+        if (Files.exists(stateFile))
+        {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(stateFile))))
+            {
+                if (in.readInt() != STATE_MAGIC)
+                {
+                    throw new IOException(stateFile + " is not an analytics state file");
+                }
+                checkpointSegment = in.readInt();
+                checkpointRecord = in.readInt();
+                summary = Summary.read(in);
+            }
+        }
+    }
+
+    /**
+     * Returns the totals as of the last update.
+     * @return totals; do not change them
+     */
+    public Summary getSummary()
+    {
+        return summary;
+    }
+
+    /**
+     * Counts every game journaled since the checkpoint, saving the totals and
+     * the new checkpoint after each batch of chunks.
+     * @param threads number of chunks counted at once
+     * @return number of games counted
+     * @throws Exception if the journal cannot be read or the state cannot be saved
+     */
+    public long update(int threads) throws Exception
+    {
+        // only the segment list and record counts are read up front; chunks are made a batch at a time
+        List<Path> segments = GameJournal.segments(journal);
+        int[] records = new int[segments.size()];
+        for (int i = 0; i < records.length; i++)
+        {
+            records[i] = (int) ((Files.size(segments.get(i)) - GameJournal.HEADER_BYTES) / GameJournal.RECORD_BYTES);
+        }
+
+        long counted = 0;
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        try
+        {
+            for (List<Chunk> batch = nextBatch(segments, records, threads); !batch.isEmpty();
+                batch = nextBatch(segments, records, threads))
+            {
+                List<Future<Summary>> running = new ArrayList<Future<Summary>>();
+                for (Chunk c : batch)
+                {
+                    running.add(workers.submit(() -> count(c)));
+                }
+                for (int i = 0; i < batch.size(); i++)
+                {
+                    Chunk c = batch.get(i);
+                    summary.merge(running.get(i).get());
+                    counted += c.end - c.from;
+                    checkpointSegment = c.segment;
+                    checkpointRecord = c.end;
+                    if (c.end < c.to)
+                    {
+                        save();
+                        return counted; // the rest has not been written yet
+                    }
+                }
+                save();
+            }
+        }
+        finally
+        {
+            workers.shutdown();
+        }
+        return counted;
+    }
+
+    /**
+     * Makes the next chunks to count, starting at the checkpoint.
+     * @param segments segment files, oldest first
+     * @param records number of records in each segment when the update started
+     * @param threads most chunks to make
+     * @return up to threads chunks, empty if everything has been counted
+     */
+    private List<Chunk> nextBatch(List<Path> segments, int[] records, int threads)
+    {
+        List<Chunk> batch = new ArrayList<Chunk>(threads);
+        for (int i = 0; i < segments.size() && batch.size() < threads; i++)
+        {
+            Path file = segments.get(i);
+            int segment = GameJournal.segmentNumber(file);
+            if (segment < checkpointSegment)
+            {
+                continue;
+            }
+            int from = segment == checkpointSegment ? checkpointRecord : 0;
+            for (int start = from; start < records[i] && batch.size() < threads; start += CHUNK_RECORDS)
+            {
+                batch.add(new Chunk(file, segment, start, Math.min(records[i], start + CHUNK_RECORDS)));
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Counts one chunk, stopping at the first incomplete record.
+     * @return totals for the records counted; the chunk's end is set to the first one not counted
+     */
+    private static Summary count(Chunk c) throws IOException
+    {
+        Summary found = new Summary();
+        try (FileChannel in = FileChannel.open(c.file, StandardOpenOption.READ))
+        {
+            long start = GameJournal.HEADER_BYTES + (long) c.from * GameJournal.RECORD_BYTES;
+            MappedByteBuffer map = in.map(FileChannel.MapMode.READ_ONLY, start,
+                (long) (c.to - c.from) * GameJournal.RECORD_BYTES);
+            map.order(ByteOrder.LITTLE_ENDIAN);
+            int record = c.from;
+            for (int at = 0; record < c.to; at += GameJournal.RECORD_BYTES, record++)
+            {
+                long moves = map.getLong(at);
+                long info = map.getLong(at + 8);
+                if (!GameJournal.isComplete(moves, info))
+                {
+                    break;
+                }
+                found.add(moves, info);
+            }
+            c.end = record;
+        }
+        return found;
+    }
+
+    /**
+     * Writes the totals and checkpoint to a temporary file and moves it over the state file.
+     */
+    private void save() throws IOException
+    {
+        Path tmp = stateFile.resolveSibling(stateFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp))))
+        {
+            out.writeInt(STATE_MAGIC);
+            out.writeInt(checkpointSegment);
+            out.writeInt(checkpointRecord);
+            summary.write(out);
+        }
+        Files.move(tmp, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Formats a move list as square numbers, e.g. "5 1 9 3 7".
+     * @param moves move list (see GameJournal)
+     * @return text
+     */
+    public static String movesToString(long moves)
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < GameJournal.MAX_MOVES && GameJournal.move(moves, i) != 0; i++)
+        {
+            sb.append(i == 0 ? "" : " ").append(GameJournal.move(moves, i));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Main method
+     * @param args [journal folder] [state file] [threads]
+     * @throws Exception if the journal cannot be read or the state cannot be saved
+     */
+    public static void main(String[] args) throws Exception
+    {
+        Path journal = Paths.get(args.length > 0 ? args[0] : GameJournal.DEFAULT_DIRECTORY);
+        Path state = Paths.get(args.length > 1 ? args[1] : DEFAULT_STATE_FILE);
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        GameAnalytics analytics = new GameAnalytics(journal, state);
+        long start = System.nanoTime();
+        long counted = analytics.update(threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        Summary s = analytics.getSummary();
+        System.out.printf("counted %d new games in %.2f s (%d in total)%n", counted, seconds, s.getGames());
+
+        String[] modes = {"Normal", "Unbeatable"};
+        for (int mode = 0; mode < 2; mode++)
+        {
+            System.out.println(modes[mode] + ":   opening  human wins    ties  computer wins");
+            for (int opening = 0; opening <= 9; opening++)
+            {
+                System.out.printf("  %-9s %9.1f%% %6.1f%% %12.1f%%%n", opening == 0 ? "all" : "square " + opening,
+                    100 * s.getRate(mode, opening, GameJournal.HUMAN_WINS),
+                    100 * s.getRate(mode, opening, GameJournal.TIE),
+                    100 * s.getRate(mode, opening, GameJournal.COMPUTER_WINS));
+            }
+            System.out.print("  games by number of moves:");
+            long[] counts = s.getMoveCounts(mode);
+            for (int m = 0; m < counts.length; m++)
+            {
+                if (counts[m] != 0)
+                {
+                    System.out.print(" " + m + "=" + counts[m]);
+                }
+            }
+            System.out.println();
+        }
+        System.out.println("most common wins against the Normal AI:");
+        for (long[] line : s.getTopLosingLines(10))
+        {
+            System.out.printf("  %-20s %d%n", movesToString(line[0]), line[1]);
+        }
+    }
+}
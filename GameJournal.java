@@ -0,0 +1,458 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  Append-only log of finished games, kept as fixed-size segment files in
+ *  one directory. The current segment is memory-mapped, so an append is a
+ *  couple of memory writes and no system call. Writes are forced to disk in
+ *  batches by a background timer, and also on flush() and close().
+ *
+ *  <br>Segment file (games-00000000.journal, ...): a 16 byte header
+ *  (MAGIC, VERSION, RECORD_BYTES, segment number), then records.
+ *  <br>Record, 16 bytes, little-endian:
+ *  <br>long 0: the moves, 4 bits each from the lowest: square number (1 - 9) of
+ *  the first move, the second move, ... and 0 after the last one
+ *  <br>long 1: bits 0 - 47 finish time (epoch millis), bits 48 - 52 number of
+ *  moves, bits 53 - 54 mode, bits 55 - 56 result, bits 57 - 63 check
+ *
+ *  The check is never 0 and is written last. When a journal is opened
+ *  after a crash, the last segment is read up to the first record whose check
+ *  does not match, and anything after that is wiped.
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public class GameJournal implements Closeable
+{
+    public static final String DEFAULT_DIRECTORY = "games";
+    public static final int MAGIC = 0x4C4E4A47; // "GJNL"
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 16;
+    public static final int RECORD_BYTES = 16;
+    public static final int MAX_MOVES = 16;
+
+    public static final int NORMAL = 0;
+    public static final int UNBEATABLE = 1;
+
+    public static final int HUMAN_WINS = 1;
+    public static final int COMPUTER_WINS = 2;
+    public static final int TIE = 3;
+
+    private static final int DEFAULT_SEGMENT_RECORDS = 1 << 16;
+    private static final long DEFAULT_FLUSH_MILLIS = 200;
+    private static final long TIME_MASK = (1L << 48) - 1;
+
+    private static GameJournal defaultJournal;
+    private static boolean defaultOpened;
+
+    /**
+     * Receives records from read().
+     */
+    public interface RecordVisitor
+    {
+        /**
+         * Called once per record, oldest first.
+         * @param moves long 0 of the record
+         * @param info long 1 of the record
+         */
+        void visit(long moves, long info);
+    }
+
+    private final Path directory;
+    private final int segmentRecords;
+    private final ScheduledExecutorService flusher;
+    private int segment; // number of the current segment
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int position; // next record's byte offset in buffer
+    private boolean dirty; // appended since the last force
+    private long appended;
+
+    /**
+     * Opens (or creates) a journal with the default segment size and flush interval.
+     * @param directory folder for the segment files
+     * @throws IOException if the folder or a segment cannot be opened
+     */
+    public GameJournal(Path directory) throws IOException
+    {
+        this(directory, DEFAULT_SEGMENT_RECORDS, DEFAULT_FLUSH_MILLIS);
+    }
+
+    /**
+     * Opens (or creates) a journal, recovering the last segment if it was not closed cleanly.
+     * @param directory folder for the segment files
+     * @param segmentRecords records per segment file
+     * @param flushMillis how often appended records are forced to disk, 0 to only force on flush()
+     * @throws IOException if the folder or a segment cannot be opened
+     */
+    public GameJournal(Path directory, int segmentRecords, long flushMillis) throws IOException
+    {
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        Files.createDirectories(directory);
+
+        List<Path> existing = segments(directory);
+        segment = existing.isEmpty() ? 0 : segmentNumber(existing.get(existing.size() - 1));
+        openSegment(segment);
+        recover();
+
+        if (flushMillis > 0)
+        {
+            flusher = Executors.newSingleThreadScheduledExecutor((Runnable r) ->
+            {
+                Thread t = new Thread(r, "game-journal-flush");
+                t.setDaemon(true);
+                return t;
+            });
+            flusher.scheduleWithFixedDelay(this::flush, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+        }
+        else
+        {
+            flusher = null;
+        }
+    }
+
+    /**
+     * Returns the journal in DEFAULT_DIRECTORY, opening it the first time.
+     * It is flushed and closed when the JVM exits.
+     * @return the shared journal, or null if it cannot be opened
+     */
+    public static synchronized GameJournal getDefault()
+    {
+        if (!defaultOpened)
+        {
+            defaultOpened = true;
+            try
+            {
+                defaultJournal = new GameJournal(Paths.get(DEFAULT_DIRECTORY));
+                final GameJournal journal = defaultJournal;
+                Runtime.getRuntime().addShutdownHook(new Thread(() ->
+                {
+                    try
+                    {
+                        journal.close();
+                    }
+                    catch (IOException e)
+                    {
+                        // nothing more can be done while exiting
+                    }
+                }));
+            }
+            catch (IOException e)
+            {
+                defaultJournal = null;
+            }
+        }
+        return defaultJournal;
+    }
+
+    /**
+     * Adds a move to a move list.
+     * @param moves moves so far (0 for none)
+     * @param count number of moves so far
+     * @param square square number (1 - 9)
+     * @return the new move list; moves past MAX_MOVES are dropped
+     */
+    public static long addMove(long moves, int count, int square)
+    {
+        if (count >= MAX_MOVES)
+        {
+            return moves;
+        }
+        return moves | (long) square << (4 * count);
+    }
+
+    /**
+     * Appends a finished game, stamped with the current time.
+     * @param moves move list built with addMove
+     * @param count number of moves
+     * @param mode NORMAL or UNBEATABLE
+     * @param result the game's GameRules result code (WIN or TIE)
+     * @throws IOException if a new segment is needed and cannot be created
+     */
+    public void append(long moves, int count, int mode, int result) throws IOException
+    {
+        append(moves, count, mode, result, System.currentTimeMillis());
+    }
+
+    /**
+     * Appends a finished game.
+     * @param moves move list built with addMove
+     * @param count number of moves
+     * @param mode NORMAL or UNBEATABLE
+     * @param result the game's GameRules result code (WIN or TIE)
+     * @param timeMillis when the game finished
+     * @throws IOException if a new segment is needed and cannot be created
+     */
+    public synchronized void append(long moves, int count, int mode, int result, long timeMillis)
+        throws IOException
+    {
+        if (buffer == null)
+        {
+            throw new IOException("journal is closed");
+        }
+        if (position == HEADER_BYTES + segmentRecords * RECORD_BYTES)
+        {
+            roll();
+        }
+        long info = (timeMillis & TIME_MASK) | (long) Math.min(count, MAX_MOVES) << 48
+            | (long) mode << 53 | (long) resultOf(result) << 55;
+        buffer.putLong(position, moves);
+        buffer.putLong(position + 8, info | (long) check(moves, info) << 57);
+        position += RECORD_BYTES;
+        dirty = true;
+        appended++;
+    }
+
+    /**
+     * Returns how many records were appended since this journal was opened.
+     * @return records
+     */
+    public synchronized long getAppendedCount()
+    {
+        return appended;
+    }
+
+    /**
+     * Forces everything appended so far to disk.
+     */
+    public synchronized void flush()
+    {
+        if (dirty && buffer != null)
+        {
+            buffer.force();
+            dirty = false;
+        }
+    }
+
+    /**
+     * Flushes, stops the flush timer and trims the last segment to its records.
+     * @throws IOException if the segment cannot be trimmed
+     */
+    @Override
+    public synchronized void close() throws IOException
+    {
+        if (flusher != null)
+        {
+            flusher.shutdownNow();
+        }
+        if (buffer == null)
+        {
+            return;
+        }
+        flush();
+        buffer = null;
+        channel.truncate(position);
+        channel.close();
+    }
+
+    /**
+     * Reads every complete record in a journal folder, oldest first.
+     * @param directory folder of segment files
+     * @param visitor receives the records
+     * @throws IOException if a segment cannot be read
+     */
+    public static void read(Path directory, RecordVisitor visitor) throws IOException
+    {
+        for (Path file : segments(directory))
+        {
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ))
+            {
+                MappedByteBuffer map = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+                map.order(ByteOrder.LITTLE_ENDIAN);
+                for (int at = HEADER_BYTES; at + RECORD_BYTES <= map.limit(); at += RECORD_BYTES)
+                {
+                    long moves = map.getLong(at);
+                    long info = map.getLong(at + 8);
+                    if (!isComplete(moves, info))
+                    {
+                        break;
+                    }
+                    visitor.visit(moves, info);
+                }
+            }
+        }
+    }
+
+    /**
+     * Lists the segment files in a journal folder, oldest first.
+     * @param directory folder of segment files
+     * @return segment paths, empty if the folder does not exist
+     * @throws IOException if the folder cannot be listed
+     */
+    public static List<Path> segments(Path directory) throws IOException
+    {
+        List<Path> files = new ArrayList<Path>();
+        if (!Files.isDirectory(directory))
+        {
+            return files;
+        }
+        try (DirectoryStream<Path> dir = Files.newDirectoryStream(directory, "games-*.journal"))
+        {
+            for (Path p : dir)
+            {
+                files.add(p);
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    /**
+     * Returns a move from a record.
+     * @param moves long 0 of the record
+     * @param index which move, from 0
+     * @return square number (1 - 9), 0 past the last move
+     */
+    public static int move(long moves, int index)
+    {
+        return (int) (moves >>> (4 * index)) & 15;
+    }
+
+    /**
+     * Returns the number of moves in a record.
+     * @param info long 1 of the record
+     * @return moves
+     */
+    public static int moveCount(long info)
+    {
+        return (int) (info >>> 48) & 31;
+    }
+
+    /**
+     * Returns the mode of a record.
+     * @param info long 1 of the record
+     * @return NORMAL or UNBEATABLE
+     */
+    public static int mode(long info)
+    {
+        return (int) (info >>> 53) & 3;
+    }
+
+    /**
+     * Returns the result of a record.
+     * @param info long 1 of the record
+     * @return HUMAN_WINS, COMPUTER_WINS or TIE
+     */
+    public static int result(long info)
+    {
+        return (int) (info >>> 55) & 3;
+    }
+
+    /**
+     * Returns the finish time of a record.
+     * @param info long 1 of the record
+     * @return epoch millis
+     */
+    public static long time(long info)
+    {
+        return info & TIME_MASK;
+    }
+
+    /**
+     * Checks that a record was written completely.
+     * @param moves long 0 of the record
+     * @param info long 1 of the record
+     * @return true if its check matches
+     */
+    static boolean isComplete(long moves, long info)
+    {
+        return (int) (info >>> 57) == check(moves, info & ((1L << 57) - 1));
+    }
+
+    /**
+     * 7 bit check of a record without its check bits; never 0, so an unwritten record never matches.
+     */
+    private static int check(long moves, long info)
+    {
+        long h = (moves ^ Long.rotateLeft(info, 29)) * 0x9E3779B97F4A7C15L;
+        return (int) ((h >>> 32) % 127) + 1;
+    }
+
+    private static int resultOf(int result)
+    {
+        if (GameRules.status(result) == GameRules.TIE)
+        {
+            return TIE;
+        }
+        return GameRules.winner(result) == 1 ? HUMAN_WINS : COMPUTER_WINS;
+    }
+
+    /**
+     * Returns the number in a segment file's name.
+     * @param file segment file
+     * @return segment number
+     */
+    static int segmentNumber(Path file)
+    {
+        String name = file.getFileName().toString();
+        return Integer.parseInt(name.substring("games-".length(), name.length() - ".journal".length()));
+    }
+
+    private void openSegment(int number) throws IOException
+    {
+        Path file = directory.resolve(String.format("games-%08d.journal", number));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) segmentRecords * RECORD_BYTES);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(0) != MAGIC)
+        {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, RECORD_BYTES);
+            buffer.putInt(12, number);
+            dirty = true;
+        }
+        else if (buffer.getInt(4) != VERSION || buffer.getInt(8) != RECORD_BYTES)
+        {
+            throw new IOException(file + " was written by another journal version");
+        }
+        position = HEADER_BYTES;
+    }
+
+    /**
+     * Moves position past the complete records and wipes whatever follows them.
+     */
+    private void recover()
+    {
+        int end = buffer.limit();
+        while (position < end && isComplete(buffer.getLong(position), buffer.getLong(position + 8)))
+        {
+            position += RECORD_BYTES;
+        }
+        for (int at = position; at < end; at += 8)
+        {
+            if (buffer.getLong(at) != 0)
+            {
+                buffer.putLong(at, 0);
+                dirty = true;
+            }
+        }
+        flush();
+    }
+
+    private void roll() throws IOException
+    {
+        buffer.force();
+        buffer = null;
+        channel.close();
+        segment++;
+        openSegment(segment);
+        dirty = true;
+    }
+}
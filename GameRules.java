@@ -0,0 +1,305 @@
+/**
+ *  Keeps score of one 3x3 game as moves are made.
+ *  Each of the 8 lines has a counter per player, and a move only bumps the
+ *  counters of the lines through its square (2 to 4 of them), so the result is
+ *  always known without rescanning the board. All 16 counters are 2 bits wide
+ *  and packed into one int, the human's in bits 0 - 15 and the computer's in
+ *  bits 16 - 31, so a move is one add and a win is a counter with both bits set.
+ *  Searches that carry the counters themselves use the static addMove,
+ *  lineWinner and result.
+ *
+ *  The result is one int, shared with GameState, GameServer and GameJournal:
+ *  <br>bits 0 - 1: CONTINUE, WIN or TIE
+ *  <br>bit 2: set if the computer is the winner
+ *  <br>bits 3 - 5: index of the winning line in Bitboard.WIN_MASKS
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public final class GameRules
+{
+    public static final int CONTINUE = 0;
+    public static final int WIN = 1;
+    public static final int TIE = 2;
+
+    private static final int STATUS_MASK = 3;
+    private static final int COMPUTER_WON = 4;
+    private static final int LINE_SHIFT = 3;
+
+    private static final int COMPUTER_COUNTERS = 16; // shift of the computer's counters
+    private static final int HUMAN_COUNTERS_MASK = 0xFFFF;
+    private static final int COUNTER_LOW_BITS = 0x55555555;
+
+    /**
+     * LINE_COUNT[square] has 1 in the counter of every line through the square.
+     */
+    private static final int[] LINE_COUNT = buildLineCounts();
+
+    private int lines; // packed counters, see the class comment
+    private int human; // squares taken by the human
+    private int computer; // squares taken by the computer
+    private int moveCount;
+    private int result;
+    private int toMove; // 1 for human, -1 for computer
+
+    /**
+     * Create the rules for a new, empty game with the human to move.
+     */
+    public GameRules()
+    {
+        reset();
+    }
+
+    /**
+     * Clears the board for a new game with the human to move, without allocating anything.
+     */
+    public void reset()
+    {
+        lines = 0;
+        human = 0;
+        computer = 0;
+        moveCount = 0;
+        result = CONTINUE;
+        toMove = 1;
+    }
+
+    /**
+     * Takes a square and updates the result.
+     * @param square square index (square number - 1), must be empty
+     * @param player 1 for human, -1 for computer
+     * @return the result after this move
+     */
+    public int play(int square, int player)
+    {
+        int bit = 1 << square;
+        if (player == 1)
+        {
+            human |= bit;
+        }
+        else
+        {
+            computer |= bit;
+        }
+        moveCount++;
+        lines = addMove(lines, square, player);
+        toMove = -player;
+        if (result == CONTINUE) // the first win stands
+        {
+            result = result(lines, moveCount);
+        }
+        return result;
+    }
+
+    /**
+     * Gives a square back, and the turn to whoever had it.
+     * @param square square index of a taken square
+     */
+    public void undo(int square)
+    {
+        int bit = 1 << square;
+        int player = (human & bit) != 0 ? 1 : -1;
+        human &= ~bit;
+        computer &= ~bit;
+        moveCount--;
+        lines -= LINE_COUNT[square] << (player == 1 ? 0 : COMPUTER_COUNTERS);
+        toMove = player;
+        result = result(lines, moveCount);
+    }
+
+    /**
+     * Returns the current result.
+     * @return result code (see the class comment)
+     */
+    public int result()
+    {
+        return result;
+    }
+
+    /**
+     * Returns who has a square.
+     * @param square square index
+     * @return 1 for human, -1 for computer, 0 for empty
+     */
+    public int get(int square)
+    {
+        int bit = 1 << square;
+        if ((human & bit) != 0)
+        {
+            return 1;
+        }
+        return (computer & bit) != 0 ? -1 : 0;
+    }
+
+    /**
+     * Returns whose turn it is.
+     * @return 1 for human, -1 for computer
+     */
+    public int getPlayerToMove()
+    {
+        return toMove;
+    }
+
+    /**
+     * Returns the human's squares.
+     * @return bitboard mask
+     */
+    public int getHuman()
+    {
+        return human;
+    }
+
+    /**
+     * Returns the computer's squares.
+     * @return bitboard mask
+     */
+    public int getComputer()
+    {
+        return computer;
+    }
+
+    /**
+     * Returns how many squares are taken.
+     * @return move count
+     */
+    public int getMoveCount()
+    {
+        return moveCount;
+    }
+
+    /**
+     * Packs the game as a GameState, e.g. to hand to an engine.
+     * @return state
+     */
+    public int toState()
+    {
+        return GameState.of(human, computer, toMove == -1);
+    }
+
+    /**
+     * Counts a move into packed line counters.
+     * @param lines counters before the move
+     * @param square square index of an empty square
+     * @param player 1 for human, -1 for computer
+     * @return counters after the move
+     */
+    public static int addMove(int lines, int square, int player)
+    {
+        return lines + (LINE_COUNT[square] << (player == 1 ? 0 : COMPUTER_COUNTERS));
+    }
+
+    /**
+     * Builds packed line counters for a position, one square at a time.
+     * @param human human's squares
+     * @param computer computer's squares
+     * @return counters
+     */
+    public static int countLines(int human, int computer)
+    {
+        int lines = 0;
+        for (int moves = human; moves != 0; moves &= moves - 1)
+        {
+            lines = addMove(lines, Integer.numberOfTrailingZeros(moves), 1);
+        }
+        for (int moves = computer; moves != 0; moves &= moves - 1)
+        {
+            lines = addMove(lines, Integer.numberOfTrailingZeros(moves), -1);
+        }
+        return lines;
+    }
+
+    /**
+     * Checks packed line counters for a full line. The human's lines are checked first.
+     * @param lines counters
+     * @return 1 if the human has a line, -1 if the computer has one, 0 if neither
+     */
+    public static int lineWinner(int lines)
+    {
+        int full = lines & lines >>> 1 & COUNTER_LOW_BITS;
+        if ((full & HUMAN_COUNTERS_MASK) != 0)
+        {
+            return 1;
+        }
+        return full != 0 ? -1 : 0;
+    }
+
+    /**
+     * Works out the result from packed line counters. The human's lines are checked first.
+     * @param lines counters
+     * @param moveCount squares taken
+     * @return result code
+     */
+    public static int result(int lines, int moveCount)
+    {
+        int full = lines & lines >>> 1 & COUNTER_LOW_BITS;
+        if ((full & HUMAN_COUNTERS_MASK) != 0)
+        {
+            return winCode(Integer.numberOfTrailingZeros(full) >>> 1, 1);
+        }
+        if (full != 0)
+        {
+            return winCode((Integer.numberOfTrailingZeros(full) - COMPUTER_COUNTERS) >>> 1, -1);
+        }
+        return moveCount == 9 ? TIE : CONTINUE;
+    }
+
+    /**
+     * Reads the status out of a result.
+     * @param result result code
+     * @return CONTINUE, WIN or TIE
+     */
+    public static int status(int result)
+    {
+        return result & STATUS_MASK;
+    }
+
+    /**
+     * Reads the winner out of a result.
+     * @param result result code
+     * @return 1 for human, -1 for computer, 0 if nobody has won
+     */
+    public static int winner(int result)
+    {
+        if (status(result) != WIN)
+        {
+            return 0;
+        }
+        return (result & COMPUTER_WON) != 0 ? -1 : 1;
+    }
+
+    /**
+     * Reads the winning line out of a result.
+     * @param result result code with status WIN
+     * @return the line's squares as a bitboard mask
+     */
+    public static int lineMask(int result)
+    {
+        return Bitboard.WIN_MASKS[result >>> LINE_SHIFT];
+    }
+
+    /**
+     * Makes the result for a win.
+     * @param line index of the winning line in Bitboard.WIN_MASKS
+     * @param player 1 for human, -1 for computer
+     * @return result code
+     */
+    static int winCode(int line, int player)
+    {
+        return WIN | (player == -1 ? COMPUTER_WON : 0) | (line << LINE_SHIFT);
+    }
+
+    private static int[] buildLineCounts()
+    {
+        int[] table = new int[9];
+        for (int line = 0; line < Bitboard.WIN_MASKS.length; line++)
+        {
+            for (int sq = 0; sq < 9; sq++)
+            {
+                if ((Bitboard.WIN_MASKS[line] & (1 << sq)) != 0)
+                {
+                    table[sq] += 1 << (2 * line);
+                }
+            }
+        }
+        return table;
+    }
+}
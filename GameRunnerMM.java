@@ -1,6 +1,6 @@
 import java.awt.Color;
-import java.awt.GridLayout;
 import java.awt.event.*;
+import java.io.IOException;
 import javax.swing.*;
 
 /**
@@ -12,11 +12,18 @@ import javax.swing.*;
  */
 public class GameRunnerMM extends JFrame implements MouseListener, ActionListener
 {
-    private int[][] board; // represents current game. holds 1 for human, -1 for computer, 0 for empty
-    private JLabel[][] tileReferences; // hold references to all squares so we can update them
+    private GameRules rules; // the game, updated move by move
+    private BoardPanel board; // draws the squares
+    private static final long THINKING_MILLIS = 1000; // so the computer appears to "think"
+
     private boolean aiIsThinking;
     private boolean gameOver;
     private AIMM ai;
+    private GameJournal journal; // where finished games are saved, null if it cannot be opened
+    private long moveLog; // every move so far, see GameJournal.addMove
+    private int plies; // number of moves in moveLog
+    private boolean counted; // this game is in EngineMetrics' active games
+    private AIScheduler.Ticket aiTicket; // the computer's pending move, if any
 
     private JButton mainMenuButton;
     private JButton normalButton;
@@ -32,7 +39,6 @@ public class GameRunnerMM extends JFrame implements MouseListener, ActionListene
 
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         getContentPane().setBackground(Color.WHITE);
-        setLayout(new GridLayout(3, 3));
         setSize(600, 600);
 
         mainMenuButton = new JButton("Main Menu");
@@ -46,71 +52,30 @@ public class GameRunnerMM extends JFrame implements MouseListener, ActionListene
 
         setJMenuBar(menuBar);
 
-        board = new int[3][3];
-        for (int i = 0; i < 3; i++)
-        {
-            for (int j = 0; j < 3; j++)
-            {
-                board[i][j] = 0;
-            }
-        }
-
-        addMouseListener(this);
-
         // actual game things:
 
-        tileReferences = new JLabel[3][3];
-        for (int i = 0; i < 3; i++)
-        {
-            for (int j = 0; j < 3; j++)
-            {
-                Player p = new Player();
-                add(p);
-                tileReferences[i][j] = p;
-            }
-        }
-        ai = new AIMM(board);
+        board = new BoardPanel(3, 3);
+        board.addMouseListener(this);
+        add(board);
+        ai = new AIMM(null);
+        ai.setAlphaBeta(true);
+        ai.setTranspositionTable(Warmup.newTranspositionTable()); // already solved if the warm-up has run
+        ai.setTablebase(Tablebase.getDefault());
+        ai.setMetrics(EngineMetrics.UNBEATABLE);
+        rules = new GameRules(); // the human moves first
+        journal = GameJournal.getDefault();
+        EngineMetrics.UNBEATABLE.gameStarted();
+        counted = true;
         aiIsThinking = false;
         gameOver = false;
-
-        Thread t = new Thread()
-        {
-            @Override
-            public void run()
-            {
-                while (true)
-                {
-                    yield();
-
-                    if (aiIsThinking)
-                    {
-                        try
-                        {
-                            Thread.sleep(1000);
-                        }
-                        catch (InterruptedException e)
-                        {
-                            e.printStackTrace();
-                        }
-                        aiMove();
-                        aiIsThinking = false;
-                    }
-                    if (gameOver)
-                    {
-                        break;
-                    }
-                }
-            }
-        };
-        t.start();
     }
 
     /**
      * The human chooses a spot, which is represented by x and y.
      * After the human goes (if it was a valid move),
      * the aiMove method is called and the computer moves.
-     * @param x mouse x coordinate
-     * @param y mouse y coordinate
+     * @param x mouse x coordinate on the board
+     * @param y mouse y coordinate on the board
      */
     public void humanMove(int x, int y)
     {
@@ -119,68 +84,118 @@ public class GameRunnerMM extends JFrame implements MouseListener, ActionListene
             return;
         }
 
-        int[] gameOverChecker = gameOver();
-        if (gameOverChecker[0] == 1)
+        if (rules.result() != GameRules.CONTINUE)
         {
-            return; // if there's already a win
+            return; // if the game is already over
         }
 
-        int[] humanCoors = getXYCoorsOnBoard(getTileNumberFromMouseCoors(x, y));
-        if (board[humanCoors[0]][humanCoors[1]] != 0)
+        if (rules.getPlayerToMove() == -1)
+        {
+            aiMove(); // the computer's last search failed, so try it again
+            return;
+        }
+
+        int square = board.cellAt(x, y);
+        if (square < 0 || rules.get(square) != 0)
         {
             return; // human cannot pick occupied spot
         }
 
-        (tileReferences[humanCoors[0]][humanCoors[1]]).setText("X");
-        board[humanCoors[0]][humanCoors[1]] = 1;
+        board.setMark(square, 1);
+        rules.play(square, 1);
+        moveLog = GameJournal.addMove(moveLog, plies++, square + 1);
 
-        gameOverChecker = gameOver();
-        if (gameOverChecker[0] == 1 || gameOverChecker[0] == -2)
+        if (rules.result() != GameRules.CONTINUE)
         {
-//            if (gameOverChecker[1] == 1) // human won (not possible)
-//            {
-//                paintWinner(gameOverChecker[2], gameOverChecker[3], gameOverChecker[4], 1);
-//            }
-            if (gameOverChecker[1] == -1) // computer won
-            {
-                paintWinner(gameOverChecker[2], gameOverChecker[3], gameOverChecker[4], -1);
-            }
-            else // tie
-            {
-                paintWinner(0, 0, 0, 0);
-            }
+            journalGame();
+            stopCounting();
+            paintResult(rules.result());
             return;
         }
 
-        aiIsThinking = true;
+        aiMove();
     }
 
     /**
      * The computer chooses the best move possible on current board by calling
-     * AI's getBestMove method.
+     * AIMM's chooseMove method. The search runs on an AIScheduler worker after the
+     * "thinking" pause, and showAiMove then shows it on the Event Dispatch Thread.
      */
     public void aiMove()
     {
-        int[] computerCoors = ai.getBestMove(board);
-        tileReferences[computerCoors[0]][computerCoors[1]].setText("O");
-        board[computerCoors[0]][computerCoors[1]] = -1; // computer is -1, human is 1
+        aiIsThinking = true;
+        final int position = rules.toState();
+        aiTicket = AIScheduler.schedule(THINKING_MILLIS, () -> ai.chooseMove(position), this::showAiMove,
+            this::aiFailed);
+    }
+
+    /**
+     * Takes input again after the computer's search failed (AIScheduler has
+     * reported why); the next click on the board asks the computer to move again.
+     * @param e what the search threw
+     */
+    private void aiFailed(Exception e)
+    {
+        aiIsThinking = false;
+    }
+
+    /**
+     * Shows the computer's move and checks if it ended the game.
+     * @param computersChoice square number (1 - 9) the computer chose
+     */
+    private void showAiMove(int computersChoice)
+    {
+        aiIsThinking = false;
+        board.setMark(computersChoice - 1, -1);
+        rules.play(computersChoice - 1, -1);
+        moveLog = GameJournal.addMove(moveLog, plies++, computersChoice);
 
-        int[] gameOverChecker = gameOver();
-        if (gameOverChecker[0] == 1 || gameOverChecker[0] == -2)
+        if (rules.result() != GameRules.CONTINUE)
         {
-//            if (gameOverChecker[1] == 1) // human won (not possible)
-//            {
-//                System.out.println("human no more: human");
-//                paintWinner(gameOverChecker[2] - 1, gameOverChecker[3] - 1, gameOverChecker[4] - 1, 1);
-//            }
-            if (gameOverChecker[1] == -1) // computer won
-            {
-                paintWinner(gameOverChecker[2] - 1, gameOverChecker[3] - 1, gameOverChecker[4] - 1, -1);
-            }
-            else // tie
-            {
-                paintWinner(0, 0, 0, 0);
-            }
+            journalGame();
+            stopCounting();
+            paintResult(rules.result());
+        }
+    }
+
+    /**
+     * Saves the finished game to the journal.
+     */
+    private void journalGame()
+    {
+        if (journal == null)
+        {
+            return;
+        }
+        try
+        {
+            journal.append(moveLog, plies, GameJournal.UNBEATABLE, rules.result());
+        }
+        catch (IOException e)
+        {
+            System.err.println("could not save the game: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Paints the end of the game.
+     * @param result a GameRules result with status WIN or TIE
+     */
+    private void paintResult(int result)
+    {
+        if (GameRules.winner(result) == -1) // computer won
+        {
+            int line = GameRules.lineMask(result);
+            int x = Integer.numberOfTrailingZeros(line);
+            line &= line - 1;
+            int y = Integer.numberOfTrailingZeros(line);
+            line &= line - 1;
+            int z = Integer.numberOfTrailingZeros(line);
+            paintWinner(x, y, z, -1);
+        }
+        else // tie (the human cannot win)
+        {
+            paintWinner(0, 0, 0, 0);
         }
     }
 
@@ -195,36 +210,24 @@ public class GameRunnerMM extends JFrame implements MouseListener, ActionListene
     private void paintWinner(int x, int y, int z, int who)
     {
         gameOver = true;
-        int[] xCoors = getXYCoorsOnBoard(x + 1);
-        int xX = xCoors[0];
-        int xY = xCoors[1];
-        int[] yCoors = getXYCoorsOnBoard(y + 1);
-        int yX = yCoors[0];
-        int yY = yCoors[1];
-        int[] zCoors = getXYCoorsOnBoard(z + 1);
-        int zX = zCoors[0];
-        int zY = zCoors[1];
 
 //        if (who == 1) // human (not possible)
 //        {
-//            tileReferences[xX][xY].setForeground(Color.GREEN);
-//            tileReferences[yX][yY].setForeground(Color.GREEN);
-//            tileReferences[zX][zY].setForeground(Color.GREEN);
+//            board.setColor(x, Color.GREEN);
+//            board.setColor(y, Color.GREEN);
+//            board.setColor(z, Color.GREEN);
 //        }
         if (who == -1) // computer
         {
-            tileReferences[xX][xY].setForeground(Color.RED);
-            tileReferences[yX][yY].setForeground(Color.RED);
-            tileReferences[zX][zY].setForeground(Color.RED);
+            board.setColor(x, Color.RED);
+            board.setColor(y, Color.RED);
+            board.setColor(z, Color.RED);
         }
         else if (who == 0) // tie
         {
-            for (int i = 0; i < 3; i++)
+            for (int i = 0; i < 9; i++)
             {
-                for (int j = 0; j < 3; j++)
-                {
-                    tileReferences[i][j].setForeground(Color.GRAY);
-                }
+                board.setColor(i, Color.GRAY);
             }
         }
     }
@@ -261,210 +264,30 @@ public class GameRunnerMM extends JFrame implements MouseListener, ActionListene
     }
 
     /**
-     * Checks current board for win.
-     * @return int array with result[0] = 1 for win exists, 0 for no win and continue, -2 for tie;
-     *      result[1] = -1 for computer's win, 1 for human's win.
-     *      The last three elements are the square numbers for the win if there is one.
+     * Closes the window and calls off the computer's move if it is still thinking.
+     * {@inheritDoc}
      */
-    private int[] gameOver()
+    @Override
+    public void dispose()
     {
-        int[] result = new int[5];
-        if (board[0][0] + board[0][1] + board[0][2] == 3) // 123
-        {
-            result[0] = 1;
-            result[1] = 1;
-            result[2] = 1;
-            result[3] = 2;
-            result[4] = 3;
-        }
-        // check for computer wins (no need to check for player wins)
-        else if (board[0][0] + board[0][1] + board[0][2] == -3) // 123
+        if (aiTicket != null)
         {
-            result[0] = 1;
-            result[1] = -1;
-            result[2] = 1;
-            result[3] = 2;
-            result[4] = 3;
-            return result;
+            aiTicket.cancel();
         }
-        else if (board[1][0] + board[1][1] + board[1][2] == -3) // 456
-        {
-            result[0] = 1;
-            result[1] = -1;
-            result[2] = 4;
-            result[3] = 5;
-            result[4] = 6;
-        }
-        else if (board[2][0] + board[2][1] + board[2][2] == -3) // 789
-        {
-            result[0] = 1;
-            result[1] = -1;
-            result[2] = 7;
-            result[3] = 8;
-            result[4] = 9;
-        }
-        else if (board[0][0] + board[1][0] + board[2][0] == -3) // 147
-        {
-            result[0] = 1;
-            result[1] = -1;
-            result[2] = 1;
-            result[3] = 4;
-            result[4] = 7;
-        }
-        else if (board[0][1] + board[1][1] + board[2][1] == -3) // 258
-        {
-            result[0] = 1;
-            result[1] = -1;
-            result[2] = 2;
-            result[3] = 5;
-            result[4] = 8;
-        }
-        else if (board[0][2] + board[1][2] + board[2][2] == -3) // 369
-        {
-            result[0] = 1;
-            result[1] = -1;
-            result[2] = 3;
-            result[3] = 6;
-            result[4] = 9;
-        }
-        else if (board[0][0] + board[1][1] + board[2][2] == -3) // 159
-        {
-            result[0] = 1;
-            result[1] = -1;
-            result[2] = 1;
-            result[3] = 5;
-            result[4] = 9;
-        }
-        else if (board[0][2] + board[1][1] + board[2][0] == -3) // 357
-        {
-            result[0] = 1;
-            result[1] = -1;
-            result[2] = 3;
-            result[3] = 5;
-            result[4] = 7;
-        }
-        else // check for tie/full board & check for no win and continue game
-        {
-            if (ai.existsMoreMoves(board))
-            {
-                result[0] = 0;
-            }
-            else // exists no more moves => tie
-            {
-                result[0] = -2;
-            }
-        }
-        return result;
+        stopCounting();
+        super.dispose();
     }
 
     /**
-     * Takes the x and y click coordinates and returns which square that is
-     * @param x x coor
-     * @param y y coor
-     * @return chosen square number (1 - 9)
+     * Takes this game off EngineMetrics' count of active games, the first time it is called.
      */
-    private int getTileNumberFromMouseCoors(int x, int y)
+    private void stopCounting()
     {
-        int humansChoice;
-        if (y > 0 && y < 200)
+        if (counted)
         {
-            if (x > 0 && x < 200)
-            {
-                humansChoice = 1;
-            }
-            else if (x > 200 && x < 400)
-            {
-                humansChoice = 2;
-            }
-            else
-            {
-                humansChoice = 3;
-            }
+            counted = false;
+            EngineMetrics.UNBEATABLE.gameFinished();
         }
-        else if (y > 200 && y < 400)
-        {
-            if (x > 0 && x < 200)
-            {
-                humansChoice = 4;
-            }
-            else if (x > 200 && x < 400)
-            {
-                humansChoice = 5;
-            }
-            else
-            {
-                humansChoice = 6;
-            }
-        }
-        else
-        {
-            if (x > 0 && x < 200)
-            {
-                humansChoice = 7;
-            }
-            else if (x > 200 && x < 400)
-            {
-                humansChoice = 8;
-            }
-            else
-            {
-                humansChoice = 9;
-            }
-        }
-        return humansChoice;
-    }
-
-    private int[] getXYCoorsOnBoard(int n)
-    {
-        int[] coors = new int[2];
-
-        if (n == 1)
-        {
-            coors[0] = 0;
-            coors[1] = 0;
-        }
-        else if (n == 2)
-        {
-            coors[0] = 0;
-            coors[1] = 1;
-        }
-        else if (n == 3)
-        {
-            coors[0] = 0;
-            coors[1] = 2;
-        }
-        else if (n == 4)
-        {
-            coors[0] = 1;
-            coors[1] = 0;
-        }
-        else if (n == 5)
-        {
-            coors[0] = 1;
-            coors[1] = 1;
-        }
-        else if (n == 6)
-        {
-            coors[0] = 1;
-            coors[1] = 2;
-        }
-        else if (n == 7)
-        {
-            coors[0] = 2;
-            coors[1] = 0;
-        }
-        else if (n == 8)
-        {
-            coors[0] = 2;
-            coors[1] = 1;
-        }
-        else if (n == 9)
-        {
-            coors[0] = 2;
-            coors[1] = 2;
-        }
-
-        return coors;
     }
 
     /**
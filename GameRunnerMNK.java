@@ -0,0 +1,281 @@
+import java.awt.Color;
+import java.awt.event.*;
+import javax.swing.*;
+
+/**
+ *  This is the GUI and game logistics for the bigger boards (4x4, 5x5, 7x7).
+ *  You need k in a row to win, and the computer plays with MNKEngine (alpha-beta)
+ *  or MCTSEngine (Monte Carlo, on every core), which get one second per move. The search runs in the background, the title
+ *  shows how deep it has got, and Move Now makes it play its best move so far.
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public class GameRunnerMNK extends JFrame implements MouseListener, ActionListener
+{
+    /**
+     * The boards offered in the main menu, as {size, k}.
+     */
+    public static final int[][] SIZES = {{4, 4}, {5, 4}, {7, 5}};
+
+    private static final long THINKING_MILLIS = 1000;
+
+    private final int size;
+    private int[][] board; // holds 1 for human, -1 for computer, 0 for empty
+    private BoardPanel squares; // draws the board
+    private MNKBoard rules; // same moves as board, used to spot wins
+    private AnytimeEngine ai;
+    private boolean aiIsThinking;
+    private boolean gameOver;
+    private SearchHandle aiSearch; // the computer's search while it is thinking
+    private final String title;
+
+    private JButton mainMenuButton;
+    private JButton normalButton;
+    private JButton unbeatButton;
+    private JButton moveNowButton;
+
+    private JMenuBar menuBar;
+
+    /**
+     * Create a new GameRunnerMNK object. Makes the window for the game.
+     * @param size number of rows and columns
+     * @param k stones in a row needed to win
+     * @param monteCarlo true to play against MCTSEngine, false for MNKEngine
+     */
+    public GameRunnerMNK(int size, int k, boolean monteCarlo)
+    {
+        super(size + "x" + size + " Mode (" + k + " in a row" + (monteCarlo ? ", Monte Carlo)" : ")"));
+        this.size = size;
+        title = getTitle();
+
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        getContentPane().setBackground(Color.WHITE);
+        setSize(600, 600);
+
+        mainMenuButton = new JButton("Main Menu");
+        mainMenuButton.addActionListener(this);
+        normalButton = new JButton("Normal");
+        normalButton.addActionListener(this);
+        unbeatButton = new JButton("Unbeatable!");
+        unbeatButton.addActionListener(this);
+        moveNowButton = new JButton("Move Now");
+        moveNowButton.addActionListener(this);
+        moveNowButton.setEnabled(false);
+
+        menuBar = new JMenuBar();
+        menuBar.add(mainMenuButton);
+        menuBar.add(normalButton);
+        menuBar.add(unbeatButton);
+        menuBar.add(moveNowButton);
+
+        setJMenuBar(menuBar);
+
+        board = new int[size][size];
+        rules = new MNKBoard(size, size, k);
+
+        // actual game things:
+
+        squares = new BoardPanel(size, size);
+        squares.addMouseListener(this);
+        add(squares);
+        if (monteCarlo)
+        {
+            ai = new MCTSEngine(size, size, k, THINKING_MILLIS, Runtime.getRuntime().availableProcessors());
+        }
+        else
+        {
+            ai = new MNKEngine(size, size, k, THINKING_MILLIS);
+        }
+        aiIsThinking = false;
+        gameOver = false;
+    }
+
+    /**
+     * The human chooses a spot, which is represented by x and y.
+     * After the human goes (if it was a valid move), the computer's
+     * reply is searched for in the background with AnytimeEngine.submit.
+     * @param x x coordinate in the board area
+     * @param y y coordinate in the board area
+     */
+    public void humanMove(int x, int y)
+    {
+        if (aiIsThinking || gameOver)
+        {
+            return;
+        }
+
+        int cell = squares.cellAt(x, y);
+        if (cell < 0)
+        {
+            return;
+        }
+        int r = cell / size;
+        int c = cell % size;
+        if (board[r][c] != 0)
+        {
+            return; // human cannot pick occupied spot
+        }
+
+        squares.setMark(cell, 1);
+        board[r][c] = 1;
+        rules.play(r * size + c, 1);
+        if (checkGameOver())
+        {
+            return;
+        }
+
+        aiIsThinking = true;
+        moveNowButton.setEnabled(true);
+        // no extra pause: the search itself takes THINKING_MILLIS
+        final SearchHandle search = ai.submit(board, THINKING_MILLIS);
+        aiSearch = search;
+        search.onProgress(h -> SwingUtilities.invokeLater(() -> showProgress(h)));
+        search.whenDone(h -> SwingUtilities.invokeLater(() -> aiMove(h)));
+    }
+
+    /**
+     * Shows how far the computer's search has got. Runs on the Event Dispatch Thread.
+     * @param search the search that made progress
+     */
+    private void showProgress(SearchHandle search)
+    {
+        int[] best = search.getBestMove();
+        if (search != aiSearch || best == null)
+        {
+            return; // an old or cancelled search
+        }
+        setTitle(title + " - thinking, depth " + search.getDepth()
+            + ", best so far row " + (best[0] + 1) + " column " + (best[1] + 1));
+    }
+
+    /**
+     * Plays the computer's chosen move. Runs on the Event Dispatch Thread.
+     * @param search the finished search
+     */
+    private void aiMove(SearchHandle search)
+    {
+        if (search != aiSearch || search.isCancelled())
+        {
+            return;
+        }
+        aiSearch = null;
+        aiIsThinking = false;
+        moveNowButton.setEnabled(false);
+        setTitle(title);
+        int[] computerCoors = search.getBestMove();
+        squares.setMark(computerCoors[0] * size + computerCoors[1], -1);
+        board[computerCoors[0]][computerCoors[1]] = -1;
+        rules.play(computerCoors[0] * size + computerCoors[1], -1);
+        checkGameOver();
+    }
+
+    /**
+     * Closes the window and calls off the computer's move if it is still thinking.
+     * {@inheritDoc}
+     */
+    @Override
+    public void dispose()
+    {
+        if (aiSearch != null)
+        {
+            aiSearch.cancel();
+            aiSearch = null;
+        }
+        super.dispose();
+    }
+
+    /**
+     * Paints the winning line or a tie if the game just ended.
+     * @return true if the game is over
+     */
+    private boolean checkGameOver()
+    {
+        int winner = rules.getWinner();
+        if (winner != 0)
+        {
+            gameOver = true;
+            for (int cell : rules.getWinningCells())
+            {
+                squares.setColor(cell, winner == 1 ? Color.GREEN : Color.RED);
+            }
+            return true;
+        }
+        if (rules.isFull())
+        {
+            gameOver = true;
+            for (int cell = 0; cell < size * size; cell++)
+            {
+                squares.setColor(cell, Color.GRAY);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     * (we only use this for the player to choose his position)
+     */
+    @Override
+    public void mouseClicked(MouseEvent e)
+    {
+        humanMove(e.getX(), e.getY());
+    }
+
+    /**
+     * (catches button actions to change pages)
+     * {@inheritDoc}
+     */
+    public void actionPerformed(ActionEvent e)
+    {
+        JButton button = (JButton) e.getSource();
+        if (button == mainMenuButton)
+        {
+            this.dispose();
+            (new MainMenu()).setVisible(true);
+        }
+        else if (button == normalButton)
+        {
+            this.dispose();
+            (new GameRunnerNormal()).setVisible(true);
+        }
+        else if (button == unbeatButton)
+        {
+            this.dispose();
+            (new GameRunnerMM()).setVisible(true);
+        }
+        else if (button == moveNowButton && aiSearch != null)
+        {
+            aiSearch.stop();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void mousePressed(MouseEvent e)
+    {/*nothing*/}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void mouseReleased(MouseEvent e)
+    {/*nothing*/}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void mouseEntered(MouseEvent e)
+    {/*nothing*/}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void mouseExited(MouseEvent e)
+    {/*nothing*/}
+}
@@ -3,6 +3,7 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
+import java.io.IOException;
 import javax.swing.*;
 
 /**
@@ -18,13 +19,20 @@ public class GameRunnerNormal extends JFrame implements MouseListener, ActionLis
     private JButton mainMenuButton;
     private JButton unbeatButton;
 
-    private int[] board; // holds 1 for human, -1 for computer, 0 for empty
-    private JLabel[] tileReferences; // hold references to all squares so we can update them
+    private GameRules rules; // the game, updated move by move
+    private BoardPanel board; // draws the squares
     private AI ai;
+    private GameJournal journal; // where finished games are saved, null if it cannot be opened
+    private long moveLog; // every move so far, see GameJournal.addMove
+    private int plies; // number of moves in moveLog
+    private boolean counted; // this game is in EngineMetrics' active games
+
+    private static final long THINKING_MILLIS = 1000; // so the computer appears to "think"
 
     private boolean aiIsThinking;
     private boolean gameOver;
-    private int humanCurrentChoice;
+    private int lastHumanChoice; // the human's last square (1 - 9), for AI.chooseMove
+    private AIScheduler.Ticket aiTicket; // the computer's pending move, if any
 
     private JMenuBar menuBar;
 
@@ -37,7 +45,6 @@ public class GameRunnerNormal extends JFrame implements MouseListener, ActionLis
 
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         getContentPane().setBackground(Color.WHITE);
-        setLayout(new GridLayout(3, 3));
         setSize(600, 600);
 
         mainMenuButton = new JButton("Main Menu");
@@ -51,57 +58,18 @@ public class GameRunnerNormal extends JFrame implements MouseListener, ActionLis
 
         setJMenuBar(menuBar);
 
-        board = new int[9];
-        for (int i = 0; i < 9; i++)
-        {
-            board[i] = 0; // default empty board
-        }
-
-        addMouseListener(this);
-
         // actual game things:
-        tileReferences = new JLabel[9];
-        for (int i = 0; i < 9; i++)
-        {
-            Player p = new Player();
-            add(p);
-            tileReferences[i] = p;
-        }
-        ai = new AI(board);
+        board = new BoardPanel(3, 3);
+        board.addMouseListener(this);
+        add(board);
+        ai = new AI();
+        ai.setMetrics(EngineMetrics.NORMAL);
+        rules = new GameRules(); // the human moves first
+        journal = GameJournal.getDefault();
+        EngineMetrics.NORMAL.gameStarted();
+        counted = true;
         aiIsThinking = false;
         gameOver = false;
-
-        // create a thread that constantly checks if aiIsThinking.
-        // That way, the computer can appear to "think" for 1 second.
-        Thread t = new Thread()
-        {
-            @Override
-            public void run()
-            {
-                while (true)
-                {
-                    yield(); // yields the CPU
-                    if (aiIsThinking)
-                    {
-                        try
-                        {
-                            Thread.sleep(1000);
-                        }
-                        catch (InterruptedException e)
-                        {
-                            e.printStackTrace();
-                        }
-                        aiMove(humanCurrentChoice);
-                        aiIsThinking = false;
-                    }
-                    if (gameOver)
-                    {
-                        break;
-                    }
-                }
-            }
-        };
-        t.start();
     }
 
     /**
@@ -140,8 +108,8 @@ public class GameRunnerNormal extends JFrame implements MouseListener, ActionLis
      * The human chooses a spot, which is represented by x and y.
      * After the human goes (if it was a valid move),
      * the aiMove method is called and the computer moves.
-     * @param x mouse x coordinate
-     * @param y mouse y coordinate
+     * @param x mouse x coordinate on the board
+     * @param y mouse y coordinate on the board
      */
     public void humanMove(int x, int y)
     {
@@ -150,270 +118,158 @@ public class GameRunnerNormal extends JFrame implements MouseListener, ActionLis
             return;
         }
 
-        int[] gameOverChecker = gameOver();
-        if (gameOverChecker[0] != 0)
+        if (rules.result() != GameRules.CONTINUE)
+        {
+            return;
+        }
+
+        if (rules.getPlayerToMove() == -1)
         {
+            aiMove(lastHumanChoice); // the computer's last search failed, so try it again
             return;
         }
 
-        int humansChoice = getTileNumber(x, y);
-        if (board[humansChoice - 1] != 0)
+        int humansChoice = board.cellAt(x, y) + 1;
+        if (humansChoice == 0 || rules.get(humansChoice - 1) != 0)
         {
             return; // human can't pick occupied squares
         }
 
-        tileReferences[humansChoice - 1].setText("X");
-        board[humansChoice - 1] = 1;
+        board.setMark(humansChoice - 1, 1);
+        rules.play(humansChoice - 1, 1);
+        lastHumanChoice = humansChoice;
+        moveLog = GameJournal.addMove(moveLog, plies++, humansChoice);
 
-        gameOverChecker = gameOver();
-        if (gameOverChecker[0] == 1 || gameOverChecker[0] == -2)
+        if (rules.result() != GameRules.CONTINUE)
         {
-            if (gameOverChecker[1] == 1) // human won
-            {
-                paintWinner(gameOverChecker[2] - 1, gameOverChecker[3] - 1, gameOverChecker[4] - 1, 1);
-            }
-            else if (gameOverChecker[1] == -1) // computer won
-            {
-                paintWinner(gameOverChecker[2] - 1, gameOverChecker[3] - 1, gameOverChecker[4] - 1, -1);
-            }
-            else // tie
-            {
-                paintWinner(0, 0, 0, 0);
-            }
+            journalGame();
+            stopCounting();
+            paintResult(rules.result());
             return;
         }
 
-        humanCurrentChoice = humansChoice;
-        aiIsThinking = true;
+        aiMove(humansChoice);
     }
 
     /**
-     * The computer chooses the best move possible on current board
+     * The computer chooses the best move possible on current board.
+     * The move is worked out on an AIScheduler worker after the "thinking" pause
+     * and then shown by showAiMove on the Event Dispatch Thread.
      * @param humanChoice the human's previous square choice
      */
-    public void aiMove(int humanChoice)
+    public void aiMove(final int humanChoice)
     {
-        int[] gameOverChecker = gameOver();
-        if (gameOverChecker[0] == 1 || gameOverChecker[0] == -2)
+        if (rules.result() != GameRules.CONTINUE)
         {
-            System.out.println("game over");
-            gameOver = true;
+            gameOver = true; // already journaled by humanMove
             return;
         }
 
-        int computersChoice = ai.chooseMove(humanChoice);
-
-        tileReferences[computersChoice - 1].setText("O");
-
-        // now check if the game is over again
-        gameOverChecker = gameOver();
-        if (gameOverChecker[0] == 1 || gameOverChecker[0] == -2)
-        {
-            if (gameOverChecker[1] == 1) // human won
-            {
-                paintWinner(gameOverChecker[2] - 1, gameOverChecker[3] - 1, gameOverChecker[4] - 1, 1);
-            }
-            else if (gameOverChecker[1] == -1) // computer won
-            {
-                paintWinner(gameOverChecker[2] - 1, gameOverChecker[3] - 1, gameOverChecker[4] - 1, -1);
-            }
-            else // tie
-            {
-                paintWinner(0, 0, 0, 0);
-            }
-            return;
-        }
+        aiIsThinking = true;
+        final int position = rules.toState();
+        aiTicket = AIScheduler.schedule(THINKING_MILLIS, () -> ai.chooseMove(position, humanChoice),
+            this::showAiMove, this::aiFailed);
     }
 
     /**
-     * Checks current board for win.
-     * @return int array with result[0] = 1 for win exists, 0 for no win and continue, -2 for tie;
-     *      result[1] = -1 for computer's win, 1 for human's win.
-     *      The last three elements are the square numbers for the win if there is one.
+     * Takes input again after the computer's search failed (AIScheduler has
+     * reported why); the next click on the board asks the computer to move again.
+     * @param e what the search threw
      */
-    private int[] gameOver()
+    private void aiFailed(Exception e)
     {
-        int[] result = new int[5];
-        if (board[1 - 1] + board[2 - 1] + board[3 - 1] == 3)//
-        {
-            result[0] = 1;
-            result[1] = 1;
-            result[2] = 1;
-            result[3] = 2;
-            result[4] = 3;
-        }
-        else if (board[1 - 1] + board[2 - 1] + board[3 - 1] == -3)//
-        {
-            result[0] = 1;
-            result[1] = -1;
-            result[2] = 1;
-            result[3] = 2;
-            result[4] = 3;
-        }
-
-        if (board[4 - 1] + board[5 - 1] + board[6 - 1] == 3)//
-        {
-            result[0] = 1;
-            result[1] = 1;
-            result[2] = 4;
-            result[3] = 5;
-            result[4] = 6;
-        }
-        else if (board[4 - 1] + board[5 - 1] + board[6 - 1] == -3)//
-        {
-            result[0] = 1;
-            result[1] = -1;
-            result[2] = 4;
-            result[3] = 5;
-            result[4] = 6;
-        }
+        aiIsThinking = false;
+    }
 
-        if (board[7 - 1] + board[8 - 1] + board[9 - 1] == 3)//
-        {
-            result[0] = 1;
-            result[1] = 1;
-            result[2] = 7;
-            result[3] = 8;
-            result[4] = 9;
-        }
-        else if (board[7 - 1] + board[8 - 1] + board[9 - 1] == -3)//
-        {
-            result[0] = 1;
-            result[1] = -1;
-            result[2] = 7;
-            result[3] = 8;
-            result[4] = 9;
-        }
+    /**
+     * Shows the computer's move and checks if it ended the game.
+     * @param computersChoice square the computer took
+     */
+    private void showAiMove(int computersChoice)
+    {
+        aiIsThinking = false;
+        board.setMark(computersChoice - 1, -1);
 
-        if (board[1 - 1] + board[4 - 1] + board[7 - 1] == 3)//
-        {
-            result[0] = 1;
-            result[1] = 1;
-            result[2] = 1;
-            result[3] = 4;
-            result[4] = 7;
-        }
-        else if (board[1 - 1] + board[4 - 1] + board[7 - 1] == -3)//
+        if (rules.get(computersChoice - 1) != 0)
         {
-            result[0] = 1;
-            result[1] = -1;
-            result[2] = 1;
-            result[3] = 4;
-            result[4] = 7;
+            rules.undo(computersChoice - 1); // AI.chooseMove can write over a taken square
         }
+        rules.play(computersChoice - 1, -1);
+        moveLog = GameJournal.addMove(moveLog, plies++, computersChoice);
 
-        if (board[2 - 1] + board[5 - 1] + board[8 - 1] == 3)//
-        {
-            result[0] = 1;
-            result[1] = 1;
-            result[2] = 2;
-            result[3] = 5;
-            result[4] = 8;
-        }
-        else if (board[2 - 1] + board[5 - 1] + board[8 - 1] == -3)//
+        // now check if the game is over again
+        if (rules.result() != GameRules.CONTINUE)
         {
-            result[0] = 1;
-            result[1] = -1;
-            result[2] = 2;
-            result[3] = 5;
-            result[4] = 8;
+            journalGame();
+            stopCounting();
+            paintResult(rules.result());
         }
+    }
 
-        if (board[3 - 1] + board[6 - 1] + board[9 - 1] == 3)//
-        {
-            result[0] = 1;
-            result[1] = 1;
-            result[2] = 3;
-            result[3] = 6;
-            result[4] = 9;
-        }
-        else if (board[3 - 1] + board[6 - 1] + board[9 - 1] == -3)//
+    /**
+     * Closes the window and calls off the computer's move if it is still thinking.
+     * {@inheritDoc}
+     */
+    @Override
+    public void dispose()
+    {
+        if (aiTicket != null)
         {
-            result[0] = 1;
-            result[1] = -1;
-            result[2] = 3;
-            result[3] = 6;
-            result[4] = 9;
+            aiTicket.cancel();
         }
+        stopCounting();
+        super.dispose();
+    }
 
-        if (board[1 - 1] + board[5 - 1] + board[9 - 1] == 3)//
-        {
-            result[0] = 1;
-            result[1] = 1;
-            result[2] = 1;
-            result[3] = 5;
-            result[4] = 9;
-        }
-        else if (board[1 - 1] + board[5 - 1] + board[9 - 1] == -3)//
+    /**
+     * Takes this game off EngineMetrics' count of active games, the first time it is called.
+     */
+    private void stopCounting()
+    {
+        if (counted)
         {
-            result[0] = 1;
-            result[1] = -1;
-            result[2] = 1;
-            result[3] = 5;
-            result[4] = 9;
+            counted = false;
+            EngineMetrics.NORMAL.gameFinished();
         }
+    }
 
-        if (board[3 - 1] + board[5 - 1] + board[7 - 1] == 3)//
+    /**
+     * Saves the finished game to the journal.
+     */
+    private void journalGame()
+    {
+        if (journal == null)
         {
-            result[0] = 1;
-            result[1] = 1;
-            result[2] = 3;
-            result[3] = 5;
-            result[4] = 7;
+            return;
         }
-        else if (board[3 - 1] + board[5 - 1] + board[7 - 1] == -3)//
+        try
         {
-            result[0] = 1;
-            result[1] = -1;
-            result[2] = 3;
-            result[3] = 5;
-            result[4] = 7;
+            journal.append(moveLog, plies, GameJournal.NORMAL, rules.result());
         }
-        else if (boardIsFullAndTie())
+        catch (IOException e)
         {
-            result[0] = -2;
-            result[1] = 0;
-            result[2] = 0;
-            result[3] = 0;
-            result[4] = 0;
+            System.err.println("could not save the game: " + e.getMessage());
         }
-        return result;
     }
 
     /**
-     * checks that the board is full
-     * @return true if full, false otherwise
+     * Paints the end of the game.
+     * @param result a GameRules result with status WIN or TIE
      */
-    private boolean boardIsFullAndTie()
+    private void paintResult(int result)
     {
-        boolean isFull = true;
-
-        for (int i = 0 ; i < 9; i++)
+        if (GameRules.status(result) == GameRules.TIE)
         {
-            if (board[i] == 0)
-            {
-                return false;
-            }
+            paintWinner(0, 0, 0, 0);
+            return;
         }
-
-        boolean isTie = !( (board[1 - 1] + board[2 - 1] + board[3 - 1] == 3)
-            || (board[1 - 1] + board[2 - 1] + board[3 - 1] == -3)
-            || (board[4 - 1] + board[5 - 1] + board[6 - 1] == 3)
-            || (board[4 - 1] + board[5 - 1] + board[6 - 1] == -3)
-            || (board[7 - 1] + board[8 - 1] + board[9 - 1] == 3)
-            || (board[7 - 1] + board[8 - 1] + board[9 - 1] == -3)
-            || (board[1 - 1] + board[4 - 1] + board[7 - 1] == 3)
-            || (board[1 - 1] + board[4 - 1] + board[7 - 1] == -3)
-            || (board[2 - 1] + board[5 - 1] + board[8 - 1] == 3)
-            || (board[2 - 1] + board[5 - 1] + board[8 - 1] == -3)
-            || (board[3 - 1] + board[6 - 1] + board[9 - 1] == 3)
-            || (board[3 - 1] + board[6 - 1] + board[9 - 1] == -3)
-            || (board[1 - 1] + board[5 - 1] + board[9 - 1] == 3)
-            || (board[1 - 1] + board[5 - 1] + board[9 - 1] == -3)
-            || (board[3 - 1] + board[5 - 1] + board[7 - 1] == 3)
-            || (board[3 - 1] + board[5 - 1] + board[7 - 1] == -3) );
-
-        return isFull && isTie;
+        int line = GameRules.lineMask(result);
+        int x = Integer.numberOfTrailingZeros(line);
+        line &= line - 1;
+        int y = Integer.numberOfTrailingZeros(line);
+        line &= line - 1;
+        int z = Integer.numberOfTrailingZeros(line);
+        paintWinner(x, y, z, GameRules.winner(result));
     }
 
     private void paintWinner(int x, int y, int z, int who)
@@ -421,83 +277,26 @@ public class GameRunnerNormal extends JFrame implements MouseListener, ActionLis
         gameOver = true;
         if (who == 1) // human
         {
-            tileReferences[x].setForeground(Color.GREEN);
-            tileReferences[y].setForeground(Color.GREEN);
-            tileReferences[z].setForeground(Color.GREEN);
+            board.setColor(x, Color.GREEN);
+            board.setColor(y, Color.GREEN);
+            board.setColor(z, Color.GREEN);
         }
         else if (who == -1) // computer
         {
-            tileReferences[x].setForeground(Color.RED);
-            tileReferences[y].setForeground(Color.RED);
-            tileReferences[z].setForeground(Color.RED);
+            board.setColor(x, Color.RED);
+            board.setColor(y, Color.RED);
+            board.setColor(z, Color.RED);
         }
         else if (who == 0) // tie
         {
             for (int i = 0; i < 9; i++)
             {
-                tileReferences[i].setForeground(Color.GRAY);
+                board.setColor(i, Color.GRAY);
             }
         }
 
     }
 
-    /**
-     * Takes the x and y click coordinates and returns which square that is
-     * @param x x coor
-     * @param y y coor
-     * @return chosen square number
-     */
-    private int getTileNumber(int x, int y)
-    {
-        int humansChoice;
-        if (y > 0 && y < 200)
-        {
-            if (x > 0 && x < 200)
-            {
-                humansChoice = 1;
-            }
-            else if (x > 200 && x < 400)
-            {
-                humansChoice = 2;
-            }
-            else
-            {
-                humansChoice = 3;
-            }
-        }
-        else if (y > 200 && y < 400)
-        {
-            if (x > 0 && x < 200)
-            {
-                humansChoice = 4;
-            }
-            else if (x > 200 && x < 400)
-            {
-                humansChoice = 5;
-            }
-            else
-            {
-                humansChoice = 6;
-            }
-        }
-        else
-        {
-            if (x > 0 && x < 200)
-            {
-                humansChoice = 7;
-            }
-            else if (x > 200 && x < 400)
-            {
-                humansChoice = 8;
-            }
-            else
-            {
-                humansChoice = 9;
-            }
-        }
-        return humansChoice;
-    }
-
     /**
      * {@inheritDoc}
      */
@@ -528,9 +327,7 @@ public class GameRunnerNormal extends JFrame implements MouseListener, ActionLis
 
     public String toString()
     {
-        return "\n" + board[0] + " " + board[1] + " " + board[2] + " \n"
-            + board[3] + " " + board[4] + " " + board[5] + " \n"
-            + board[6] + " " + board[7] + " " + board[8] + " ";
+        return GameState.toString(rules.toState());
     }
 
     /****** FOR TESTING BELOW ******/
@@ -0,0 +1,284 @@
+import java.awt.Color;
+import java.awt.event.*;
+import java.util.Locale;
+import javax.swing.*;
+
+/**
+ *  This is the GUI and game logistics for 4x4x4 tic-tac-toe (Qubic): four
+ *  layers of 4x4 shown side by side, and four in a row in any straight line
+ *  through the cube wins, across layers too.
+ *
+ *  The computer plays with QubicEngine, which gets one second per move in the
+ *  background. The title shows how deep it searched and how fast, and
+ *  Move Now makes it play its best move so far.
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public class GameRunnerQubic extends JFrame implements MouseListener, ActionListener
+{
+    private static final long THINKING_MILLIS = 1000;
+
+    private final QubicBoard position;
+    private final QubicEngine ai;
+    private BoardPanel squares; // draws the layers as a 4x16 grid in 4x4 blocks
+    private boolean aiIsThinking;
+    private boolean gameOver;
+    private SearchHandle aiSearch; // the computer's search while it is thinking
+    private final String title;
+
+    private JButton mainMenuButton;
+    private JButton normalButton;
+    private JButton unbeatButton;
+    private JButton moveNowButton;
+
+    private JMenuBar menuBar;
+
+    /**
+     * Create a new GameRunnerQubic object. Makes the window for the game.
+     */
+    public GameRunnerQubic()
+    {
+        super("4x4x4 Mode (4 in a row, any direction)");
+        title = getTitle();
+
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        getContentPane().setBackground(Color.WHITE);
+        setSize(1000, 330);
+
+        mainMenuButton = new JButton("Main Menu");
+        mainMenuButton.addActionListener(this);
+        normalButton = new JButton("Normal");
+        normalButton.addActionListener(this);
+        unbeatButton = new JButton("Unbeatable!");
+        unbeatButton.addActionListener(this);
+        moveNowButton = new JButton("Move Now");
+        moveNowButton.addActionListener(this);
+        moveNowButton.setEnabled(false);
+
+        menuBar = new JMenuBar();
+        menuBar.add(mainMenuButton);
+        menuBar.add(normalButton);
+        menuBar.add(unbeatButton);
+        menuBar.add(moveNowButton);
+
+        setJMenuBar(menuBar);
+
+        // actual game things:
+
+        position = new QubicBoard();
+        ai = new QubicEngine(THINKING_MILLIS);
+        squares = new BoardPanel(4, 16);
+        squares.setBlockSize(4);
+        squares.addMouseListener(this);
+        add(squares);
+        aiIsThinking = false;
+        gameOver = false;
+    }
+
+    /**
+     * The human chooses a spot, which is represented by x and y.
+     * After the human goes (if it was a valid move), the computer's
+     * reply is searched for in the background with QubicEngine.submit.
+     * @param x x coordinate in the board area
+     * @param y y coordinate in the board area
+     */
+    public void humanMove(int x, int y)
+    {
+        if (aiIsThinking || gameOver)
+        {
+            return;
+        }
+
+        int cell = squares.cellAt(x, y);
+        if (cell < 0)
+        {
+            return;
+        }
+        int move = toMove(cell);
+        if (position.get(move) != 0)
+        {
+            return; // human cannot pick occupied spot
+        }
+
+        squares.setMark(cell, 1);
+        position.play(move, 1);
+        if (checkGameOver())
+        {
+            return;
+        }
+
+        aiIsThinking = true;
+        moveNowButton.setEnabled(true);
+        final SearchHandle search = ai.submit(position, THINKING_MILLIS);
+        aiSearch = search;
+        search.onProgress(h -> SwingUtilities.invokeLater(() -> showProgress(h)));
+        search.whenDone(h -> SwingUtilities.invokeLater(() -> aiMove(h)));
+    }
+
+    /**
+     * Shows how far the computer's search has got. Runs on the Event Dispatch Thread.
+     * @param search the search that made progress
+     */
+    private void showProgress(SearchHandle search)
+    {
+        if (search != aiSearch || search.getBestMove() == null)
+        {
+            return; // an old or cancelled search
+        }
+        setTitle(title + " - thinking, depth " + search.getDepth());
+    }
+
+    /**
+     * Plays the computer's chosen move. Runs on the Event Dispatch Thread.
+     * @param search the finished search
+     */
+    private void aiMove(SearchHandle search)
+    {
+        if (search != aiSearch || search.isCancelled())
+        {
+            return;
+        }
+        aiSearch = null;
+        aiIsThinking = false;
+        moveNowButton.setEnabled(false);
+        setTitle(String.format(Locale.ROOT, "%s - searched depth %d, %.2fM positions/s",
+            title, ai.getCompletedDepth(), ai.getNodesPerSecond() / 1e6));
+        int[] computerMove = search.getBestMove();
+        int move = computerMove[0] * 16 + computerMove[1];
+        squares.setMark(toCell(move), -1);
+        position.play(move, -1);
+        checkGameOver();
+    }
+
+    /**
+     * Closes the window and calls off the computer's move if it is still thinking.
+     * {@inheritDoc}
+     */
+    @Override
+    public void dispose()
+    {
+        if (aiSearch != null)
+        {
+            aiSearch.cancel();
+            aiSearch = null;
+        }
+        super.dispose();
+    }
+
+    /**
+     * Paints the winning line or a tie if the game just ended.
+     * @return true if the game is over
+     */
+    private boolean checkGameOver()
+    {
+        int winner = position.getWinner();
+        if (winner != 0)
+        {
+            gameOver = true;
+            for (int move : position.getWinningCells())
+            {
+                squares.setColor(toCell(move), winner == 1 ? Color.GREEN : Color.RED);
+            }
+            return true;
+        }
+        if (position.isFull())
+        {
+            gameOver = true;
+            for (int cell = 0; cell < QubicBoard.CELLS; cell++)
+            {
+                squares.setColor(cell, Color.GRAY);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Turns a cell of the 4x16 grid into a QubicBoard cell.
+     * @param cell row * 16 + column
+     * @return layer * 16 + row * 4 + column in the layer
+     */
+    private static int toMove(int cell)
+    {
+        int r = cell / 16;
+        int c = cell % 16;
+        return (c / 4) * 16 + r * 4 + c % 4;
+    }
+
+    /**
+     * Turns a QubicBoard cell into a cell of the 4x16 grid.
+     * @param move layer * 16 + row * 4 + column in the layer
+     * @return row * 16 + column
+     */
+    private static int toCell(int move)
+    {
+        return (move >> 2 & 3) * 16 + (move >> 4) * 4 + (move & 3);
+    }
+
+    /**
+     * {@inheritDoc}
+     * (we only use this for the player to choose his position)
+     */
+    @Override
+    public void mouseClicked(MouseEvent e)
+    {
+        humanMove(e.getX(), e.getY());
+    }
+
+    /**
+     * (catches button actions to change pages)
+     * {@inheritDoc}
+     */
+    public void actionPerformed(ActionEvent e)
+    {
+        JButton button = (JButton) e.getSource();
+        if (button == mainMenuButton)
+        {
+            this.dispose();
+            (new MainMenu()).setVisible(true);
+        }
+        else if (button == normalButton)
+        {
+            this.dispose();
+            (new GameRunnerNormal()).setVisible(true);
+        }
+        else if (button == unbeatButton)
+        {
+            this.dispose();
+            (new GameRunnerMM()).setVisible(true);
+        }
+        else if (button == moveNowButton && aiSearch != null)
+        {
+            aiSearch.stop();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void mousePressed(MouseEvent e)
+    {/*nothing*/}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void mouseReleased(MouseEvent e)
+    {/*nothing*/}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void mouseEntered(MouseEvent e)
+    {/*nothing*/}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void mouseExited(MouseEvent e)
+    {/*nothing*/}
+}
@@ -0,0 +1,324 @@
+import java.awt.Color;
+import java.awt.event.*;
+import javax.swing.*;
+
+/**
+ *  This is the GUI and game logistics for Ultimate tic-tac-toe: nine small
+ *  boards in a 3x3 grid, where the square you play on decides which small
+ *  board the other player must play on next. The squares you may play on are
+ *  shaded, and a small board turns green (yours), red (the computer's) or
+ *  gray (nobody's) once it is decided.
+ *
+ *  The computer plays with UltimateEngine, which gets one second per move in
+ *  the background, like the bigger boards. Move Now makes it play its best move so far.
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public class GameRunnerUltimate extends JFrame implements MouseListener, ActionListener
+{
+    private static final long THINKING_MILLIS = 1000;
+    private static final Color PLAYABLE = new Color(255, 250, 205);
+
+    private final UltimateBoard position;
+    private final UltimateEngine ai;
+    private BoardPanel squares; // draws the board as 9x9 cells in 3x3 blocks
+    private boolean aiIsThinking;
+    private boolean gameOver;
+    private SearchHandle aiSearch; // the computer's search while it is thinking
+    private final String title;
+
+    private JButton mainMenuButton;
+    private JButton normalButton;
+    private JButton unbeatButton;
+    private JButton moveNowButton;
+
+    private JMenuBar menuBar;
+
+    /**
+     * Create a new GameRunnerUltimate object. Makes the window for the game.
+     */
+    public GameRunnerUltimate()
+    {
+        super("Ultimate Mode");
+        title = getTitle();
+
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        getContentPane().setBackground(Color.WHITE);
+        setSize(600, 600);
+
+        mainMenuButton = new JButton("Main Menu");
+        mainMenuButton.addActionListener(this);
+        normalButton = new JButton("Normal");
+        normalButton.addActionListener(this);
+        unbeatButton = new JButton("Unbeatable!");
+        unbeatButton.addActionListener(this);
+        moveNowButton = new JButton("Move Now");
+        moveNowButton.addActionListener(this);
+        moveNowButton.setEnabled(false);
+
+        menuBar = new JMenuBar();
+        menuBar.add(mainMenuButton);
+        menuBar.add(normalButton);
+        menuBar.add(unbeatButton);
+        menuBar.add(moveNowButton);
+
+        setJMenuBar(menuBar);
+
+        // actual game things:
+
+        position = new UltimateBoard();
+        ai = new UltimateEngine(THINKING_MILLIS);
+        squares = new BoardPanel(9, 9);
+        squares.setBlockSize(3);
+        squares.addMouseListener(this);
+        add(squares);
+        aiIsThinking = false;
+        gameOver = false;
+        showPlayable();
+    }
+
+    /**
+     * The human chooses a spot, which is represented by x and y.
+     * After the human goes (if it was a valid move), the computer's
+     * reply is searched for in the background with UltimateEngine.submit.
+     * @param x x coordinate in the board area
+     * @param y y coordinate in the board area
+     */
+    public void humanMove(int x, int y)
+    {
+        if (aiIsThinking || gameOver)
+        {
+            return;
+        }
+
+        int cell = squares.cellAt(x, y);
+        if (cell < 0)
+        {
+            return;
+        }
+        int move = toMove(cell);
+        if (!position.isLegal(move))
+        {
+            return; // taken, or not on a board the human may play on
+        }
+
+        play(move);
+        if (checkGameOver())
+        {
+            return;
+        }
+
+        aiIsThinking = true;
+        moveNowButton.setEnabled(true);
+        final SearchHandle search = ai.submit(position, THINKING_MILLIS);
+        aiSearch = search;
+        search.onProgress(h -> SwingUtilities.invokeLater(() -> showProgress(h)));
+        search.whenDone(h -> SwingUtilities.invokeLater(() -> aiMove(h)));
+    }
+
+    /**
+     * Shows how far the computer's search has got. Runs on the Event Dispatch Thread.
+     * @param search the search that made progress
+     */
+    private void showProgress(SearchHandle search)
+    {
+        if (search != aiSearch || search.getBestMove() == null)
+        {
+            return; // an old or cancelled search
+        }
+        setTitle(title + " - thinking, depth " + search.getDepth());
+    }
+
+    /**
+     * Plays the computer's chosen move. Runs on the Event Dispatch Thread.
+     * @param search the finished search
+     */
+    private void aiMove(SearchHandle search)
+    {
+        if (search != aiSearch || search.isCancelled())
+        {
+            return;
+        }
+        aiSearch = null;
+        aiIsThinking = false;
+        moveNowButton.setEnabled(false);
+        setTitle(title);
+        int[] computerMove = search.getBestMove();
+        play(computerMove[0] * 9 + computerMove[1]);
+        checkGameOver();
+    }
+
+    /**
+     * Plays a move for whoever's turn it is and updates the board's colours.
+     * @param move board * 9 + square
+     */
+    private void play(int move)
+    {
+        int player = position.getPlayerToMove();
+        int b = move / 9;
+        position.play(move);
+        squares.setMark(toCell(move), player);
+
+        Color decided = null;
+        if ((position.getHumanWon() >> b & 1) != 0)
+        {
+            decided = Color.GREEN;
+        }
+        else if ((position.getComputerWon() >> b & 1) != 0)
+        {
+            decided = Color.RED;
+        }
+        else if ((position.getDrawn() >> b & 1) != 0)
+        {
+            decided = Color.GRAY;
+        }
+        if (decided != null)
+        {
+            for (int square = 0; square < 9; square++)
+            {
+                squares.setColor(toCell(b * 9 + square), decided);
+            }
+        }
+        showPlayable();
+    }
+
+    /**
+     * Shades the cells the next move may go on.
+     */
+    private void showPlayable()
+    {
+        for (int move = 0; move < UltimateBoard.CELLS; move++)
+        {
+            squares.setShade(toCell(move), position.isLegal(move) ? PLAYABLE : null);
+        }
+    }
+
+    /**
+     * Closes the window and calls off the computer's move if it is still thinking.
+     * {@inheritDoc}
+     */
+    @Override
+    public void dispose()
+    {
+        if (aiSearch != null)
+        {
+            aiSearch.cancel();
+            aiSearch = null;
+        }
+        super.dispose();
+    }
+
+    /**
+     * Grays out the board if the game ended in a tie.
+     * @return true if the game is over
+     */
+    private boolean checkGameOver()
+    {
+        if (!position.isOver())
+        {
+            return false;
+        }
+        gameOver = true;
+        if (position.getWinner() == 0)
+        {
+            for (int cell = 0; cell < UltimateBoard.CELLS; cell++)
+            {
+                squares.setColor(cell, Color.GRAY);
+            }
+        }
+        setTitle(title + (position.getWinner() == 1 ? " - you win!"
+            : position.getWinner() == -1 ? " - the computer wins" : " - tie"));
+        return true;
+    }
+
+    /**
+     * Turns a cell of the 9x9 grid into a move.
+     * @param cell row * 9 + column
+     * @return board * 9 + square
+     */
+    private static int toMove(int cell)
+    {
+        int r = cell / 9;
+        int c = cell % 9;
+        return (r / 3 * 3 + c / 3) * 9 + r % 3 * 3 + c % 3;
+    }
+
+    /**
+     * Turns a move into a cell of the 9x9 grid.
+     * @param move board * 9 + square
+     * @return row * 9 + column
+     */
+    private static int toCell(int move)
+    {
+        int b = move / 9;
+        int square = move % 9;
+        return (b / 3 * 3 + square / 3) * 9 + b % 3 * 3 + square % 3;
+    }
+
+    /**
+     * {@inheritDoc}
+     * (we only use this for the player to choose his position)
+     */
+    @Override
+    public void mouseClicked(MouseEvent e)
+    {
+        humanMove(e.getX(), e.getY());
+    }
+
+    /**
+     * (catches button actions to change pages)
+     * {@inheritDoc}
+     */
+    public void actionPerformed(ActionEvent e)
+    {
+        JButton button = (JButton) e.getSource();
+        if (button == mainMenuButton)
+        {
+            this.dispose();
+            (new MainMenu()).setVisible(true);
+        }
+        else if (button == normalButton)
+        {
+            this.dispose();
+            (new GameRunnerNormal()).setVisible(true);
+        }
+        else if (button == unbeatButton)
+        {
+            this.dispose();
+            (new GameRunnerMM()).setVisible(true);
+        }
+        else if (button == moveNowButton && aiSearch != null)
+        {
+            aiSearch.stop();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void mousePressed(MouseEvent e)
+    {/*nothing*/}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void mouseReleased(MouseEvent e)
+    {/*nothing*/}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void mouseEntered(MouseEvent e)
+    {/*nothing*/}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void mouseExited(MouseEvent e)
+    {/*nothing*/}
+}
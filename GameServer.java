@@ -0,0 +1,587 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *  Hosts many 3x3 games at once without any windows. Clients talk to it over
+ *  TCP with one line of ASCII text per message, and one connection can play
+ *  any number of games (sessions). The human always moves first.
+ *
+ *  <br>NEW NORMAL | NEW UNBEATABLE  ->  SESSION id
+ *  <br>MOVE id square (1 - 9)       ->  MOVED id computerSquare result
+ *  <br>QUIT id                      ->  BYE id
+ *
+ *  <br>computerSquare is 0 if the game ended on the human's move, and result is
+ *  PLAYING, HUMAN_WINS, COMPUTER_WINS or TIE. Bad requests get "ERR id reason"
+ *  and a move that does not fit in the engine queue gets "BUSY id" (try again).
+ *  Each session may only have one move waiting at a time.
+ *
+ *  One thread does all the network reads and writes with a Selector. Moves are
+ *  handed to a fixed pool of engine workers with a bounded queue, and the
+ *  replies are handed back to the network thread.
+ *
+ *  Finished games are saved to a GameJournal. When run from main, engine
+ *  timings are published over JMX and printed every 10 seconds (see EngineMetrics).
+ *
+ *  <br>Usage: java GameServer [port] [workers] [queue size] [journal folder, or - for none]
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public class GameServer
+{
+    public static final int DEFAULT_PORT = 4747;
+
+    private static final int MAX_LINE = 64;
+    private static final long METRICS_DUMP_MILLIS = 10000; // how often main prints EngineMetrics
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final ThreadPoolExecutor engines;
+    private final ConcurrentHashMap<Integer, Session> sessions = new ConcurrentHashMap<Integer, Session>();
+    private final Queue<Connection> wantWrite = new ConcurrentLinkedQueue<Connection>();
+    private final AtomicInteger nextId = new AtomicInteger();
+    private volatile boolean running;
+    private volatile GameJournal journal; // null to not save games
+
+    /**
+     * The Unbeatable engine keeps a transposition table, so each worker has its own.
+     */
+    private static final ThreadLocal<AIMM> UNBEATABLE = ThreadLocal.withInitial(() ->
+    {
+        AIMM ai = new AIMM(null);
+        ai.setAlphaBeta(true);
+        ai.setTranspositionTable(new TranspositionTable());
+        ai.setTablebase(Tablebase.getDefault());
+        ai.setMetrics(EngineMetrics.UNBEATABLE);
+        return ai;
+    });
+
+    /**
+     * One game.
+     */
+    private static class Session
+    {
+        final int id;
+        final Connection owner;
+        int state = GameState.EMPTY; // only touched by the worker running this session's move
+        long moveLog; // every move so far, see GameJournal.addMove
+        int plies; // number of moves in moveLog
+        final AI ai; // null for Unbeatable
+        final AtomicBoolean moving = new AtomicBoolean(); // a move is queued or running
+        final EngineMetrics metrics; // counts this game while it is active
+        final AtomicBoolean active = new AtomicBoolean(true); // not yet finished or quit
+
+        Session(int id, Connection owner, boolean normal)
+        {
+            this.id = id;
+            this.owner = owner;
+            ai = normal ? new AI() : null;
+            metrics = normal ? EngineMetrics.NORMAL : EngineMetrics.UNBEATABLE;
+            if (ai != null)
+            {
+                ai.setMetrics(metrics);
+            }
+        }
+    }
+
+    /**
+     * One client. Only the network thread reads from it; replies are queued
+     * by any thread and written by the network thread.
+     */
+    private static class Connection
+    {
+        final SocketChannel channel;
+        final ByteBuffer in = ByteBuffer.allocate(4096);
+        final Queue<ByteBuffer> out = new ConcurrentLinkedQueue<ByteBuffer>();
+        final Set<Integer> sessionIds = new HashSet<Integer>(); // network thread only
+        final AtomicBoolean queuedForWrite = new AtomicBoolean();
+        SelectionKey key;
+
+        Connection(SocketChannel channel)
+        {
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * Create a new GameServer listening on the loopback address.
+     * @param port port to listen on, 0 for any free port
+     * @param workers number of engine threads
+     * @param queueSize number of moves that may wait for a worker
+     * @throws IOException if the port cannot be opened
+     */
+    public GameServer(int port, int workers, int queueSize) throws IOException
+    {
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress("127.0.0.1", port), 1024);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+
+        final AtomicInteger count = new AtomicInteger();
+        engines = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<Runnable>(queueSize), (Runnable r) ->
+            {
+                Thread t = new Thread(r, "engine-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Returns the port being listened on.
+     * @return port
+     * @throws IOException if the socket is closed
+     */
+    public int getPort() throws IOException
+    {
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Saves every finished game to a journal from now on.
+     * @param journal journal to append to, null to stop saving
+     */
+    public void setJournal(GameJournal journal)
+    {
+        this.journal = journal;
+    }
+
+    /**
+     * Returns the number of games being played.
+     * @return open sessions
+     */
+    public int getSessionCount()
+    {
+        return sessions.size();
+    }
+
+    /**
+     * Runs the network loop on a new daemon thread.
+     * @return the thread
+     */
+    public Thread start()
+    {
+        running = true;
+        Thread t = new Thread(() ->
+        {
+            try
+            {
+                serve();
+            }
+            catch (IOException e)
+            {
+                System.err.println("game server stopped: " + e.getMessage());
+            }
+        }, "game-server");
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    /**
+     * Stops the network loop and the engine workers.
+     */
+    public void stop()
+    {
+        running = false;
+        selector.wakeup();
+        engines.shutdownNow();
+    }
+
+    /**
+     * The network loop: accepts clients, reads requests and writes replies until stop() is called.
+     * Returns at once if stop() was called first; start() and main set the server running.
+     * @throws IOException if the selector fails
+     */
+    private void serve() throws IOException
+    {
+        try
+        {
+            while (running)
+            {
+                selector.select();
+                for (Connection c; (c = wantWrite.poll()) != null;)
+                {
+                    c.queuedForWrite.set(false);
+                    if (c.key.isValid())
+                    {
+                        c.key.interestOps(c.key.interestOps() | SelectionKey.OP_WRITE);
+                    }
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext())
+                {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try
+                    {
+                        if (key.isAcceptable())
+                        {
+                            accept();
+                        }
+                        else
+                        {
+                            Connection c = (Connection) key.attachment();
+                            if (key.isReadable())
+                            {
+                                read(c);
+                            }
+                            if (key.isValid() && key.isWritable())
+                            {
+                                write(c);
+                            }
+                        }
+                    }
+                    catch (IOException e)
+                    {
+                        close((Connection) key.attachment());
+                    }
+                }
+            }
+        }
+        finally
+        {
+            for (SelectionKey key : selector.keys())
+            {
+                key.channel().close();
+            }
+            selector.close();
+        }
+    }
+
+    private void accept() throws IOException
+    {
+        SocketChannel channel = server.accept();
+        if (channel == null)
+        {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(java.net.StandardSocketOptions.TCP_NODELAY, true);
+        Connection c = new Connection(channel);
+        c.key = channel.register(selector, SelectionKey.OP_READ, c);
+    }
+
+    private void read(Connection c) throws IOException
+    {
+        if (c.channel.read(c.in) < 0)
+        {
+            close(c);
+            return;
+        }
+        c.in.flip();
+        int lineStart = c.in.position();
+        for (int i = c.in.position(); i < c.in.limit(); i++)
+        {
+            if (c.in.get(i) == '\n')
+            {
+                String line = new String(c.in.array(), lineStart, i - lineStart, StandardCharsets.US_ASCII);
+                handle(c, line.trim());
+                lineStart = i + 1;
+            }
+        }
+        c.in.position(lineStart);
+        c.in.compact();
+        if (c.in.position() > MAX_LINE)
+        {
+            close(c); // not a client that speaks this protocol
+        }
+    }
+
+    private void write(Connection c) throws IOException
+    {
+        ByteBuffer head;
+        while ((head = c.out.peek()) != null)
+        {
+            c.channel.write(head);
+            if (head.hasRemaining())
+            {
+                return; // socket is full, wait for the next OP_WRITE
+            }
+            c.out.poll();
+        }
+        c.key.interestOps(SelectionKey.OP_READ);
+        if (!c.out.isEmpty())
+        {
+            requestWrite(c); // a worker added a reply after the loop above
+        }
+    }
+
+    private void close(Connection c) throws IOException
+    {
+        if (c == null)
+        {
+            return;
+        }
+        for (Integer id : c.sessionIds)
+        {
+            Session s = sessions.remove(id);
+            if (s != null)
+            {
+                endGame(s);
+            }
+        }
+        c.sessionIds.clear();
+        c.key.cancel();
+        c.channel.close();
+    }
+
+    /**
+     * Queues a reply. Safe to call from any thread.
+     */
+    private void send(Connection c, String line)
+    {
+        c.out.add(ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.US_ASCII)));
+        requestWrite(c);
+    }
+
+    private void requestWrite(Connection c)
+    {
+        if (c.queuedForWrite.compareAndSet(false, true))
+        {
+            wantWrite.add(c);
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * Handles one request line. Runs on the network thread.
+     */
+    private void handle(Connection c, String line)
+    {
+        String[] parts = line.split(" ");
+        String command = parts[0];
+        try
+        {
+            if (command.equals("NEW") && parts.length == 2)
+            {
+                boolean normal = parts[1].equals("NORMAL");
+                if (!normal && !parts[1].equals("UNBEATABLE"))
+                {
+                    send(c, "ERR - unknown level " + parts[1]);
+                    return;
+                }
+                Session s = new Session(nextId.incrementAndGet(), c, normal);
+                sessions.put(s.id, s);
+                c.sessionIds.add(s.id);
+                s.metrics.gameStarted();
+                send(c, "SESSION " + s.id);
+            }
+            else if (command.equals("MOVE") && parts.length == 3)
+            {
+                Session s = find(c, parts[1]);
+                if (s == null)
+                {
+                    return;
+                }
+                final int square = Integer.parseInt(parts[2]);
+                if (!s.moving.compareAndSet(false, true))
+                {
+                    send(c, "ERR " + s.id + " move already pending");
+                    return;
+                }
+                try
+                {
+                    engines.execute(() -> move(s, square));
+                }
+                catch (RejectedExecutionException e)
+                {
+                    s.moving.set(false);
+                    send(c, "BUSY " + s.id);
+                }
+            }
+            else if (command.equals("QUIT") && parts.length == 2)
+            {
+                Session s = find(c, parts[1]);
+                if (s != null)
+                {
+                    sessions.remove(s.id);
+                    c.sessionIds.remove(s.id);
+                    endGame(s);
+                    send(c, "BYE " + s.id);
+                }
+            }
+            else
+            {
+                send(c, "ERR - bad request");
+            }
+        }
+        catch (NumberFormatException e)
+        {
+            send(c, "ERR - bad number");
+        }
+    }
+
+    private Session find(Connection c, String id)
+    {
+        Session s = sessions.get(Integer.parseInt(id));
+        if (s == null || s.owner != c)
+        {
+            send(c, "ERR " + id + " no such session");
+            return null;
+        }
+        return s;
+    }
+
+    /**
+     * Plays the human's move and the computer's reply. Runs on an engine worker.
+     */
+    private void move(Session s, int square)
+    {
+        String reply;
+        try
+        {
+            reply = play(s, square);
+        }
+        catch (RuntimeException e)
+        {
+            reply = "ERR " + s.id + " engine failed: " + e;
+        }
+        s.moving.set(false);
+        send(s.owner, reply);
+    }
+
+    private String play(Session s, int square)
+    {
+        int state = s.state;
+        if (GameState.isOver(state))
+        {
+            return "ERR " + s.id + " game is over";
+        }
+        if (square < 1 || square > 9 || (GameState.legalMoves(state) & 1 << (square - 1)) == 0)
+        {
+            return "ERR " + s.id + " square not free";
+        }
+        state = GameState.apply(state, square - 1);
+        s.moveLog = GameJournal.addMove(s.moveLog, s.plies++, square);
+        if (GameState.isOver(state))
+        {
+            finish(s, state);
+            return "MOVED " + s.id + " 0 " + resultName(GameState.result(state));
+        }
+
+        int computerSquare;
+        if (s.ai != null)
+        {
+            computerSquare = s.ai.chooseMove(state, square);
+            if (GameState.get(state, computerSquare - 1) != 0)
+            {
+                state = GameState.remove(state, computerSquare - 1); // AI.chooseMove can write over a taken square
+            }
+        }
+        else
+        {
+            computerSquare = UNBEATABLE.get().chooseMove(state);
+        }
+        state = GameState.apply(state, computerSquare - 1);
+        s.moveLog = GameJournal.addMove(s.moveLog, s.plies++, computerSquare);
+        if (GameState.isOver(state))
+        {
+            finish(s, state);
+        }
+        s.state = state;
+        return "MOVED " + s.id + " " + computerSquare + " " + resultName(GameState.result(state));
+    }
+
+    /**
+     * Keeps a session's final state and saves the game to the journal, if there is one.
+     */
+    private void finish(Session s, int state)
+    {
+        s.state = state;
+        endGame(s);
+        GameJournal j = journal;
+        if (j != null)
+        {
+            try
+            {
+                j.append(s.moveLog, s.plies, s.ai != null ? GameJournal.NORMAL : GameJournal.UNBEATABLE,
+                    GameState.result(state));
+            }
+            catch (IOException e)
+            {
+                System.err.println("could not save game " + s.id + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Takes a session off EngineMetrics' count of active games. Safe to call more than once.
+     */
+    private static void endGame(Session s)
+    {
+        if (s.active.compareAndSet(true, false))
+        {
+            s.metrics.gameFinished();
+        }
+    }
+
+    private static String resultName(int result)
+    {
+        if (GameRules.status(result) == GameRules.CONTINUE)
+        {
+            return "PLAYING";
+        }
+        if (GameRules.status(result) == GameRules.TIE)
+        {
+            return "TIE";
+        }
+        return GameRules.winner(result) == 1 ? "HUMAN_WINS" : "COMPUTER_WINS";
+    }
+
+    /**
+     * Main method
+     * @param args [port] [workers] [queue size] [journal folder, or - for none]
+     * @throws IOException if the port cannot be opened
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int workers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int queueSize = args.length > 2 ? Integer.parseInt(args[2]) : 8192;
+        String journalDir = args.length > 3 ? args[3] : GameJournal.DEFAULT_DIRECTORY;
+        GameServer gs = new GameServer(port, workers, queueSize);
+        if (!journalDir.equals("-"))
+        {
+            final GameJournal journal = new GameJournal(Paths.get(journalDir));
+            gs.setJournal(journal);
+            Runtime.getRuntime().addShutdownHook(new Thread(() ->
+            {
+                try
+                {
+                    journal.close();
+                }
+                catch (IOException e)
+                {
+                    // nothing more can be done while exiting
+                }
+            }));
+        }
+        EngineMetrics.start(METRICS_DUMP_MILLIS);
+        System.out.println("GameServer listening on 127.0.0.1:" + gs.getPort()
+            + " with " + workers + " engine workers");
+        gs.running = true;
+        gs.serve();
+    }
+}
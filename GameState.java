@@ -0,0 +1,310 @@
+/**
+ *  A whole 3x3 game packed into one int, so a game costs 4 bytes and a million
+ *  games in progress fit in an int[] of 4 MB. All methods are static and
+ *  never change a state; they return a new one. The game windows and the
+ *  Simulator play on GameRules, whose toState() gives one of these to hand
+ *  to an engine.
+ *
+ *  <br>bits 0 - 8: the human's squares (bit = square number - 1)
+ *  <br>bits 9 - 17: the computer's squares
+ *  <br>bit 18: set if it is the computer's turn
+ *  <br>bits 19 - 22: number of squares taken
+ *  <br>bits 23 - 28: result, in the GameRules result format
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public final class GameState
+{
+    /**
+     * Empty board with the human to move.
+     */
+    public static final int EMPTY = 0;
+
+    private static final int COMPUTER_SHIFT = 9;
+    private static final int COMPUTER_TO_MOVE = 1 << 18;
+    private static final int COUNT_SHIFT = 19;
+    private static final int RESULT_SHIFT = 23;
+
+    /**
+     * WIN_LINE[mask] is 1 + the index of the first Bitboard.WIN_MASKS line inside mask, or 0.
+     */
+    private static final byte[] WIN_LINE = buildWinLines();
+
+    /**
+     * BASE3[mask] is the sum of 3^i over the bits i in mask.
+     */
+    private static final int[] BASE3 = buildBase3();
+
+    private GameState()
+    {
+        // only static helpers
+    }
+
+    /**
+     * Returns a new game.
+     * @param computerFirst true if the computer moves first
+     * @return state
+     */
+    public static int start(boolean computerFirst)
+    {
+        return computerFirst ? COMPUTER_TO_MOVE : EMPTY;
+    }
+
+    /**
+     * Packs a position.
+     * @param human human's squares
+     * @param computer computer's squares
+     * @param computerToMove true if it is the computer's turn
+     * @return state
+     */
+    public static int of(int human, int computer, boolean computerToMove)
+    {
+        return human | computer << COMPUTER_SHIFT | (computerToMove ? COMPUTER_TO_MOVE : 0)
+            | Integer.bitCount(human | computer) << COUNT_SHIFT
+            | outcome(human, computer) << RESULT_SHIFT;
+    }
+
+    /**
+     * Packs a board from GameRunnerNormal's layout.
+     * @param board 9 squares holding 1 for human, -1 for computer, 0 for empty
+     * @param computerToMove true if it is the computer's turn
+     * @return state
+     */
+    public static int fromBoard(int[] board, boolean computerToMove)
+    {
+        return of(Bitboard.fromBoard(board, 1), Bitboard.fromBoard(board, -1), computerToMove);
+    }
+
+    /**
+     * Packs a board from GameRunnerMM's layout.
+     * @param board 3x3 board holding 1 for human, -1 for computer, 0 for empty
+     * @param computerToMove true if it is the computer's turn
+     * @return state
+     */
+    public static int fromBoard(int[][] board, boolean computerToMove)
+    {
+        return of(Bitboard.fromBoard(board, 1), Bitboard.fromBoard(board, -1), computerToMove);
+    }
+
+    /**
+     * Returns the human's squares.
+     * @param state state
+     * @return bitboard mask
+     */
+    public static int human(int state)
+    {
+        return state & Bitboard.FULL;
+    }
+
+    /**
+     * Returns the computer's squares.
+     * @param state state
+     * @return bitboard mask
+     */
+    public static int computer(int state)
+    {
+        return state >>> COMPUTER_SHIFT & Bitboard.FULL;
+    }
+
+    /**
+     * Checks whose turn it is.
+     * @param state state
+     * @return true if it is the computer's turn
+     */
+    public static boolean computerToMove(int state)
+    {
+        return (state & COMPUTER_TO_MOVE) != 0;
+    }
+
+    /**
+     * Returns how many squares are taken.
+     * @param state state
+     * @return 0 - 9
+     */
+    public static int moveCount(int state)
+    {
+        return state >>> COUNT_SHIFT & 15;
+    }
+
+    /**
+     * Returns the result, decoded with GameRules.status, winner and lineMask.
+     * @param state state
+     * @return result code
+     */
+    public static int result(int state)
+    {
+        return state >>> RESULT_SHIFT;
+    }
+
+    /**
+     * Checks if somebody has won or the board is full.
+     * @param state state
+     * @return true if the game is over
+     */
+    public static boolean isOver(int state)
+    {
+        return result(state) != GameRules.CONTINUE;
+    }
+
+    /**
+     * Returns who has a square.
+     * @param state state
+     * @param square square index (square number - 1)
+     * @return 1 for human, -1 for computer, 0 for empty
+     */
+    public static int get(int state, int square)
+    {
+        if ((state & 1 << square) != 0)
+        {
+            return 1;
+        }
+        return (state & 1 << (square + COMPUTER_SHIFT)) != 0 ? -1 : 0;
+    }
+
+    /**
+     * Returns the squares the player to move may take.
+     * @param state state
+     * @return bitboard mask, 0 if the game is over
+     */
+    public static int legalMoves(int state)
+    {
+        if (isOver(state))
+        {
+            return 0;
+        }
+        return Bitboard.empty(human(state), computer(state));
+    }
+
+    /**
+     * Takes a square for the player to move and passes the turn.
+     * @param state state
+     * @param square square index of a legal move
+     * @return the new state
+     * @throws IllegalArgumentException if the square is not a legal move
+     */
+    public static int apply(int state, int square)
+    {
+        if ((legalMoves(state) & 1 << square) == 0)
+        {
+            throw new IllegalArgumentException("square " + (square + 1) + " is not a legal move");
+        }
+        int human = human(state);
+        int computer = computer(state);
+        if (computerToMove(state))
+        {
+            computer |= 1 << square;
+        }
+        else
+        {
+            human |= 1 << square;
+        }
+        return of(human, computer, !computerToMove(state));
+    }
+
+    /**
+     * Empties a square without changing whose turn it is.
+     * @param state state
+     * @param square square index
+     * @return the new state
+     */
+    public static int remove(int state, int square)
+    {
+        int keep = ~(1 << square);
+        return of(human(state) & keep, computer(state) & keep, computerToMove(state));
+    }
+
+    /**
+     * Works out the result of a position. The human's lines are checked first.
+     * @param human human's squares
+     * @param computer computer's squares
+     * @return result code in the GameRules format
+     */
+    public static int outcome(int human, int computer)
+    {
+        int line = WIN_LINE[human];
+        if (line != 0)
+        {
+            return GameRules.winCode(line - 1, 1);
+        }
+        line = WIN_LINE[computer];
+        if (line != 0)
+        {
+            return GameRules.winCode(line - 1, -1);
+        }
+        return (human | computer) == Bitboard.FULL ? GameRules.TIE : GameRules.CONTINUE;
+    }
+
+    /**
+     * Packs just the board into a base 3 number: digit i (square i + 1) is
+     * 0 for computer, 1 for empty, 2 for human.
+     * @param state state
+     * @return code from 0 to 3^9 - 1
+     */
+    public static int boardCode(int state)
+    {
+        return BASE3[Bitboard.FULL] + BASE3[human(state)] - BASE3[computer(state)];
+    }
+
+    /**
+     * Draws a state for logs and debugging.
+     * @param state state
+     * @return e.g. "X.O/.X./..O computer to move"
+     */
+    public static String toString(int state)
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int sq = 0; sq < 9; sq++)
+        {
+            if (sq > 0 && sq % 3 == 0)
+            {
+                sb.append('/');
+            }
+            int who = get(state, sq);
+            sb.append(who == 1 ? 'X' : who == -1 ? 'O' : '.');
+        }
+        if (isOver(state))
+        {
+            int winner = GameRules.winner(result(state));
+            sb.append(winner == 1 ? " human won" : winner == -1 ? " computer won" : " tie");
+        }
+        else
+        {
+            sb.append(computerToMove(state) ? " computer to move" : " human to move");
+        }
+        return sb.toString();
+    }
+
+    private static byte[] buildWinLines()
+    {
+        byte[] table = new byte[512];
+        for (int mask = 0; mask < 512; mask++)
+        {
+            for (int line = 0; line < Bitboard.WIN_MASKS.length; line++)
+            {
+                if ((mask & Bitboard.WIN_MASKS[line]) == Bitboard.WIN_MASKS[line])
+                {
+                    table[mask] = (byte) (line + 1);
+                    break;
+                }
+            }
+        }
+        return table;
+    }
+
+    private static int[] buildBase3()
+    {
+        int[] table = new int[512];
+        for (int mask = 1; mask < 512; mask++)
+        {
+            int low = Integer.numberOfTrailingZeros(mask);
+            int pow = 1;
+            for (int i = 0; i < low; i++)
+            {
+                pow *= 3;
+            }
+            table[mask] = table[mask & (mask - 1)] + pow;
+        }
+        return table;
+    }
+}
@@ -0,0 +1,159 @@
+/**
+ *  Counts latencies (in nanoseconds) in log-linear buckets, like an HDR histogram:
+ *  every power of two is split into 16 buckets, so any recorded value is off by
+ *  at most 1/16 and the whole range of a long fits in under a thousand counters.
+ *  Recording is a couple of bit operations and one array increment.
+ *
+ *  Not thread safe: give each thread its own histogram and merge them afterwards.
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public class LatencyHistogram
+{
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Number of buckets needed to cover every non-negative long.
+     */
+    public static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final long[] counts;
+    private long total;
+    private long max;
+
+    /**
+     * Create a new, empty histogram.
+     */
+    public LatencyHistogram()
+    {
+        counts = new long[BUCKETS];
+    }
+
+    /**
+     * Counts one value.
+     * @param nanos value to record, negative values count as 0
+     */
+    public void record(long nanos)
+    {
+        long v = Math.max(0, nanos);
+        counts[bucketOf(v)]++;
+        total++;
+        if (v > max)
+        {
+            max = v;
+        }
+    }
+
+    /**
+     * Counts the same value several times.
+     * @param nanos value to record, negative values count as 0
+     * @param count how many times to count it
+     */
+    void record(long nanos, long count)
+    {
+        long v = Math.max(0, nanos);
+        counts[bucketOf(v)] += count;
+        total += count;
+        if (count > 0 && v > max)
+        {
+            max = v;
+        }
+    }
+
+    /**
+     * Adds another histogram's counts to this one.
+     * @param other histogram to add
+     */
+    public void merge(LatencyHistogram other)
+    {
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Returns how many values were recorded.
+     * @return count
+     */
+    public long getCount()
+    {
+        return total;
+    }
+
+    /**
+     * Returns the largest recorded value.
+     * @return max in nanoseconds, 0 if empty
+     */
+    public long getMax()
+    {
+        return max;
+    }
+
+    /**
+     * Returns the value below which the given percentage of recorded values fall.
+     * @param percent 0 - 100, e.g. 99.9
+     * @return the lower edge of the bucket holding that value, 0 if empty
+     */
+    public long getPercentile(double percent)
+    {
+        long target = (long) Math.ceil(percent / 100.0 * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            seen += counts[i];
+            if (seen >= target && seen > 0)
+            {
+                return Math.min(lowestValueOf(i), max);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * One line summary in microseconds.
+     * @return p50, p90, p99, p99.9 and max
+     */
+    public String summary()
+    {
+        return String.format("p50=%.1fus p90=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+            getPercentile(50) / 1000.0, getPercentile(90) / 1000.0, getPercentile(99) / 1000.0,
+            getPercentile(99.9) / 1000.0, max / 1000.0);
+    }
+
+    /**
+     * Returns the bucket a value falls in.
+     * @param v a non-negative value
+     * @return bucket index
+     */
+    static int bucketOf(long v)
+    {
+        if (v < SUB_BUCKETS)
+        {
+            return (int) v;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) (v >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + sub;
+    }
+
+    /**
+     * Returns the smallest value that falls in a bucket.
+     * @param bucket bucket index
+     * @return lower edge of the bucket
+     */
+    static long lowestValueOf(int bucket)
+    {
+        if (bucket < SUB_BUCKETS)
+        {
+            return bucket;
+        }
+        int exponent = (bucket >>> SUB_BUCKET_BITS) + SUB_BUCKET_BITS - 1;
+        long sub = bucket & (SUB_BUCKETS - 1);
+        return (SUB_BUCKETS + sub) << (exponent - SUB_BUCKET_BITS);
+    }
+}
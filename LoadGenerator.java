@@ -0,0 +1,293 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ *  Load test client for GameServer. For each session count it opens the
+ *  sessions (half Normal, half Unbeatable), spread over a few connections, and
+ *  has every session play random legal moves as fast as the server answers,
+ *  starting a new game whenever one ends. It reports moves per second and the
+ *  time from sending MOVE to reading MOVED.
+ *
+ *  <br>Usage: java LoadGenerator [host:port | embedded] [connections] [seconds per step] [session counts...]
+ *  <br>Defaults: embedded (starts a GameServer in this JVM), 4 connections,
+ *  5 seconds, 10 100 1000 5000 sessions.
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public class LoadGenerator
+{
+    /**
+     * Totals for one connection.
+     */
+    private static class Results
+    {
+        long moves;
+        long busy;
+        long errors;
+        long games;
+        final LatencyHistogram latency = new LatencyHistogram();
+    }
+
+    /**
+     * One game as the client sees it.
+     */
+    private static class ClientSession
+    {
+        final boolean normal;
+        int taken; // squares taken by either side, as a bitboard mask
+        int lastSquare; // square sent in the last MOVE
+        long sentAt;
+
+        ClientSession(boolean normal)
+        {
+            this.normal = normal;
+        }
+    }
+
+    private LoadGenerator()
+    {
+        // only static helpers
+    }
+
+    /**
+     * Plays on one connection until the deadline, then waits for the replies still due.
+     * @param host server host
+     * @param port server port
+     * @param sessionCount sessions on this connection
+     * @param millis how long to keep sending moves
+     * @param seed seed for the random moves
+     * @return totals
+     * @throws IOException if the connection fails
+     */
+    static Results runConnection(String host, int port, int sessionCount, long millis, long seed) throws IOException
+    {
+        Results results = new Results();
+        SplittableRandom random = new SplittableRandom(seed);
+        try (Socket socket = new Socket(host, port))
+        {
+            socket.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(
+                new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII);
+
+            Map<Integer, ClientSession> sessions = new HashMap<Integer, ClientSession>();
+            List<ClientSession> waitingForId = new ArrayList<ClientSession>(); // in the order NEW was sent
+            for (int i = 0; i < sessionCount; i++)
+            {
+                ClientSession s = new ClientSession(i % 2 == 0);
+                waitingForId.add(s);
+                out.write(s.normal ? "NEW NORMAL\n" : "NEW UNBEATABLE\n");
+            }
+            out.flush();
+
+            long deadline = System.nanoTime() + millis * 1000000L;
+            int outstanding = sessionCount; // requests sent and not yet answered
+            int nextNew = 0;
+            while (outstanding > 0)
+            {
+                String line = in.readLine();
+                if (line == null)
+                {
+                    results.errors += outstanding; // the server closed the connection, so these never come
+                    break;
+                }
+                String[] reply = line.split(" ");
+                outstanding--;
+                boolean sending = System.nanoTime() < deadline;
+                int id = reply.length > 1 && !reply[1].equals("-") ? Integer.parseInt(reply[1]) : -1;
+                ClientSession s = sessions.get(id);
+
+                if (reply[0].equals("SESSION"))
+                {
+                    s = waitingForId.get(nextNew++);
+                    sessions.put(id, s);
+                    s.taken = 0;
+                    if (sending)
+                    {
+                        sendMove(out, id, s, random);
+                        outstanding++;
+                    }
+                }
+                else if (reply[0].equals("MOVED"))
+                {
+                    results.latency.record(System.nanoTime() - s.sentAt);
+                    results.moves++;
+                    int computerSquare = Integer.parseInt(reply[2]);
+                    if (computerSquare > 0)
+                    {
+                        s.taken |= 1 << (computerSquare - 1);
+                    }
+                    if (!reply[3].equals("PLAYING"))
+                    {
+                        results.games++;
+                        out.write("QUIT " + id + "\n");
+                        outstanding++;
+                        if (sending)
+                        {
+                            waitingForId.add(new ClientSession(s.normal));
+                            out.write(s.normal ? "NEW NORMAL\n" : "NEW UNBEATABLE\n");
+                            outstanding++;
+                        }
+                    }
+                    else if (sending)
+                    {
+                        sendMove(out, id, s, random);
+                        outstanding++;
+                    }
+                }
+                else if (reply[0].equals("BUSY"))
+                {
+                    results.busy++; // send the same move again; its latency keeps counting
+                    out.write("MOVE " + id + " " + s.lastSquare + "\n");
+                    outstanding++;
+                }
+                else if (reply[0].equals("BYE"))
+                {
+                    sessions.remove(id);
+                }
+                else
+                {
+                    results.errors++;
+                }
+
+                if (!in.ready())
+                {
+                    out.flush(); // send everything queued while replies were waiting
+                }
+            }
+            out.flush();
+        }
+        return results;
+    }
+
+    private static void sendMove(Writer out, int id, ClientSession s, SplittableRandom random) throws IOException
+    {
+        int empty = ~s.taken & 0x1FF;
+        for (int skip = random.nextInt(Integer.bitCount(empty)); skip > 0; skip--)
+        {
+            empty &= empty - 1;
+        }
+        int square = Integer.numberOfTrailingZeros(empty);
+        s.taken |= 1 << square;
+        s.lastSquare = square + 1;
+        s.sentAt = System.nanoTime();
+        out.write("MOVE " + id + " " + s.lastSquare + "\n");
+    }
+
+    /**
+     * Runs one session count on all connections at once and prints a line of results.
+     * @param host server host
+     * @param port server port
+     * @param connections number of connections
+     * @param sessions total sessions
+     * @param millis how long to keep sending moves
+     * @throws Exception if a connection fails
+     */
+    static void runStep(String host, int port, int connections, int sessions, long millis) throws Exception
+    {
+        ExecutorService clients = Executors.newFixedThreadPool(connections);
+        try
+        {
+            List<Future<Results>> parts = new ArrayList<Future<Results>>();
+            long start = System.nanoTime();
+            for (int c = 0; c < connections; c++)
+            {
+                final int share = sessions / connections + (c < sessions % connections ? 1 : 0);
+                final long seed = c;
+                parts.add(clients.submit(() -> runConnection(host, port, share, millis, seed)));
+            }
+            Results total = new Results();
+            for (Future<Results> part : parts)
+            {
+                Results r = part.get();
+                total.moves += r.moves;
+                total.busy += r.busy;
+                total.errors += r.errors;
+                total.games += r.games;
+                total.latency.merge(r.latency);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            LatencyHistogram l = total.latency;
+            System.out.printf(Locale.ROOT, "%6d sessions: %9.0f moves/s %8.0f games/s  p50=%.1fus p99=%.1fus "
+                + "p99.9=%.1fus max=%.1fus  busy=%d errors=%d%n",
+                sessions, total.moves / seconds, total.games / seconds, l.getPercentile(50) / 1000.0,
+                l.getPercentile(99) / 1000.0, l.getPercentile(99.9) / 1000.0, l.getMax() / 1000.0,
+                total.busy, total.errors);
+        }
+        finally
+        {
+            clients.shutdown();
+        }
+    }
+
+    /**
+     * Main method
+     * @param args [host:port | embedded] [connections] [seconds per step] [session counts...]
+     * @throws Exception if a connection fails
+     */
+    public static void main(String[] args) throws Exception
+    {
+        String target = args.length > 0 ? args[0] : "embedded";
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        long millis = args.length > 2 ? (long) (Double.parseDouble(args[2]) * 1000) : 5000;
+        int[] steps = {10, 100, 1000, 5000};
+        if (args.length > 3)
+        {
+            steps = new int[args.length - 3];
+            for (int i = 3; i < args.length; i++)
+            {
+                steps[i - 3] = Integer.parseInt(args[i]);
+            }
+        }
+
+        GameServer embedded = null;
+        String host;
+        int port;
+        if (target.equals("embedded"))
+        {
+            embedded = new GameServer(0, Runtime.getRuntime().availableProcessors(), 8192);
+            embedded.start();
+            host = "127.0.0.1";
+            port = embedded.getPort();
+        }
+        else
+        {
+            host = target.substring(0, target.lastIndexOf(':'));
+            port = Integer.parseInt(target.substring(target.lastIndexOf(':') + 1));
+        }
+
+        try
+        {
+            System.out.println("warm-up:");
+            runStep(host, port, connections, steps[0], Math.min(millis, 2000));
+            System.out.println("measured:");
+            for (int sessions : steps)
+            {
+                runStep(host, port, connections, sessions, millis);
+            }
+        }
+        finally
+        {
+            if (embedded != null)
+            {
+                embedded.stop();
+            }
+        }
+    }
+}
@@ -0,0 +1,663 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ *  Computer player for m,n,k boards that uses Monte Carlo Tree Search instead of
+ *  minimax: it plays lots of random games (playouts) from the current position
+ *  and grows a tree of the moves that did best, picking moves in the tree with
+ *  UCT (win rate plus a bonus for moves tried less often).
+ *
+ *  A position is two longs, one bit per cell for each player, so boards may have
+ *  up to 64 cells and a playout only flips bits and checks the k-in-a-row masks
+ *  through the cell just played.
+ *
+ *  Several threads grow the same tree. Each node's visits and score live in one
+ *  long that is only changed with atomic adds, and a thread counts its visit on
+ *  the way down (a "virtual loss") and adds the result on the way back, so other
+ *  threads are steered to different moves meanwhile. Children are added with a
+ *  compare-and-set, so no locks are taken. The extra threads come from one
+ *  pool shared by every engine, which starts threads as searches need them and
+ *  stops them after they sit idle for a while, so engines need no shutting down.
+ *
+ *  The tree is kept between moves: if the new position is the old one plus the
+ *  computer's move and the human's reply, that grandchild becomes the new root.
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public class MCTSEngine implements AnytimeEngine
+{
+    private static final double EXPLORATION = Math.sqrt(2);
+    private static final int EXPAND_VISITS = 16; // a leaf gets children once it has been visited this often
+    private static final long PROGRESS_NANOS = 100000000L; // how often a background search publishes its best move
+    private static final long VISIT = 1L << 32;
+
+    private static final int ONGOING = 0;
+    private static final int WIN = 1; // the move into the node won
+    private static final int DRAW = 2; // the move into the node filled the board
+
+    private static final AtomicLongFieldUpdater<Node> STATS =
+        AtomicLongFieldUpdater.newUpdater(Node.class, "stats");
+    private static final AtomicReferenceFieldUpdater<Node, Node[]> CHILDREN =
+        AtomicReferenceFieldUpdater.newUpdater(Node.class, Node[].class, "children");
+
+    /**
+     * Runs the extra search threads of every engine.
+     */
+    private static final ThreadPoolExecutor HELPERS = createHelpers();
+
+    /**
+     * A position in the tree, reached by one move.
+     */
+    static final class Node
+    {
+        final int move; // cell played to get here, -1 for a fresh root
+        final int result; // ONGOING, WIN or DRAW
+        volatile long stats; // visits << 32 | score in half points (2 win, 1 draw) for the player who moved here
+        volatile Node[] children; // null until expanded
+
+        Node(int move, int result)
+        {
+            this.move = move;
+            this.result = result;
+        }
+    }
+
+    public final int rows;
+    public final int cols;
+    public final int k;
+
+    private final int size;
+    private final long full; // every cell
+    private final long[][] cellWindows; // masks of the k-in-a-row runs through each cell
+    private final long[] near; // cells touching each cell
+    private final long budgetNanos;
+    private final int threads;
+    private final SplittableRandom seeds;
+    private long playoutLimit; // 0 for no limit
+
+    private Node root;
+    private long rootHuman;
+    private long rootComputer;
+    private volatile boolean stopping;
+    private final AtomicLong playouts = new AtomicLong();
+    private long lastNanos;
+    private long reusedVisits;
+
+    /**
+     * Create a new engine.
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param k stones in a row needed to win
+     * @param budgetMillis how long each move may take, 0 to only stop at the playout limit
+     * @param threads number of threads searching the tree
+     * @throws IllegalArgumentException if the board has more than 64 cells
+     */
+    public MCTSEngine(int rows, int cols, int k, long budgetMillis, int threads)
+    {
+        if (rows * cols > 64)
+        {
+            throw new IllegalArgumentException(rows + "x" + cols + " has more than 64 cells");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.k = k;
+        this.threads = threads;
+        size = rows * cols;
+        full = size == 64 ? -1L : (1L << size) - 1;
+        budgetNanos = budgetMillis * 1000000L;
+        seeds = new SplittableRandom();
+
+        int[][] windows = MNKBoard.buildWindows(rows, cols, k);
+        List<List<Long>> through = new ArrayList<List<Long>>();
+        for (int cell = 0; cell < size; cell++)
+        {
+            through.add(new ArrayList<Long>());
+        }
+        for (int[] window : windows)
+        {
+            long mask = 0;
+            for (int cell : window)
+            {
+                mask |= 1L << cell;
+            }
+            for (int cell : window)
+            {
+                through.get(cell).add(mask);
+            }
+        }
+        cellWindows = new long[size][];
+        near = new long[size];
+        for (int cell = 0; cell < size; cell++)
+        {
+            List<Long> masks = through.get(cell);
+            cellWindows[cell] = new long[masks.size()];
+            for (int i = 0; i < masks.size(); i++)
+            {
+                cellWindows[cell][i] = masks.get(i);
+            }
+            int r = cell / cols;
+            int c = cell % cols;
+            for (int dr = -1; dr <= 1; dr++)
+            {
+                for (int dc = -1; dc <= 1; dc++)
+                {
+                    int nr = r + dr;
+                    int nc = c + dc;
+                    if ((dr != 0 || dc != 0) && nr >= 0 && nr < rows && nc >= 0 && nc < cols)
+                    {
+                        near[cell] |= 1L << (nr * cols + nc);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Also stops each search after this many playouts.
+     * @param limit playouts per move, 0 for no limit
+     */
+    public void setPlayoutLimit(long limit)
+    {
+        playoutLimit = limit;
+    }
+
+    /**
+     * Returns the best move found within the budget.
+     * @param brd current state of game
+     * @return {row, column} of the chosen move ({0, 0} if the board is full)
+     */
+    @Override
+    public int[] getBestMove(int[][] brd)
+    {
+        int move = getBestCell(mask(brd, 1), mask(brd, -1));
+        int[] finalMove = {0, 0};
+        if (move >= 0)
+        {
+            finalMove[0] = move / cols;
+            finalMove[1] = move % cols;
+        }
+        return finalMove;
+    }
+
+    /**
+     * Returns the best move found within the budget, for a position kept as bits.
+     * @param human human's cells (bit = row * cols + column)
+     * @param computer computer's cells
+     * @return cell of the chosen move, or -1 if the board is full
+     */
+    public int getBestCell(long human, long computer)
+    {
+        return run(human, computer, budgetNanos, null);
+    }
+
+    /**
+     * Starts a search in the background. With a budget of 0 it runs until the
+     * playout limit, if there is one, or until it is stopped or cancelled.
+     * {@inheritDoc}
+     */
+    @Override
+    public SearchHandle submit(int[][] brd, long budgetMillis)
+    {
+        final long human = mask(brd, 1);
+        final long computer = mask(brd, -1);
+        final long budget = budgetMillis * 1000000L;
+        final SearchHandle h = new SearchHandle(cols);
+        h.setFuture(AIScheduler.submit(() ->
+        {
+            if (!h.isCancelled())
+            {
+                run(human, computer, budget, h); // after an early stop() this returns after a few playouts
+            }
+        }));
+        return h;
+    }
+
+    /**
+     * Returns how many playouts the last search made.
+     * @return playout count
+     */
+    public long getPlayoutCount()
+    {
+        return playouts.get();
+    }
+
+    /**
+     * Returns how fast the last search went.
+     * @return playouts per second, over all threads
+     */
+    public double getPlayoutsPerSecond()
+    {
+        return lastNanos == 0 ? 0 : playouts.get() * 1e9 / lastNanos;
+    }
+
+    /**
+     * Returns how many visits the last search started with, kept from the move before.
+     * @return visits in the reused subtree, 0 if the tree was started afresh
+     */
+    public long getReusedVisits()
+    {
+        return reusedVisits;
+    }
+
+    /**
+     * Moves the root to the position and searches it, one search at a time.
+     * @param human human's cells
+     * @param computer computer's cells, computer to move
+     * @param budget nanoseconds the search may take, 0 for no limit
+     * @param h handle to publish to and take stop requests from, or null
+     * @return cell of the most visited move, or -1 if the board is full
+     */
+    private synchronized int run(long human, long computer, long budget, SearchHandle h)
+    {
+        try
+        {
+            long start = System.nanoTime();
+            moveRoot(human, computer);
+            playouts.set(0);
+            stopping = false;
+            if ((human | computer) == full)
+            {
+                if (h != null)
+                {
+                    h.finish(-1, 0, 0);
+                }
+                return -1;
+            }
+
+            long deadline = budget > 0 ? start + budget : Long.MAX_VALUE;
+            List<Future<?>> running = new ArrayList<Future<?>>();
+            for (int t = 1; t < threads; t++)
+            {
+                final Worker w = new Worker(seeds.split());
+                running.add(HELPERS.submit(() -> w.search(deadline, null)));
+            }
+            new Worker(seeds.split()).search(deadline, h);
+            stopping = true;
+            try
+            {
+                for (Future<?> f : running)
+                {
+                    f.get();
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            catch (ExecutionException e)
+            {
+                throw new IllegalStateException("search thread failed", e.getCause());
+            }
+            lastNanos = System.nanoTime() - start;
+
+            int best = mostVisited(root);
+            if (h != null)
+            {
+                h.finish(best, principalDepth(), playouts.get());
+            }
+            return best;
+        }
+        finally
+        {
+            stopping = true; // so helpers stop too if this thread threw
+            if (h != null)
+            {
+                h.finish(); // only does something if the search threw
+            }
+        }
+    }
+
+    /**
+     * Makes the node for the new position the root, reusing the old tree when it can.
+     */
+    private void moveRoot(long human, long computer)
+    {
+        Node next = null;
+        if (root != null && (rootHuman & ~human) == 0 && (rootComputer & ~computer) == 0)
+        {
+            long newComputer = computer & ~rootComputer;
+            long newHuman = human & ~rootHuman;
+            if (newComputer == 0 && newHuman == 0)
+            {
+                next = root;
+            }
+            else if (Long.bitCount(newComputer) == 1 && Long.bitCount(newHuman) == 1)
+            {
+                Node reply = child(root, Long.numberOfTrailingZeros(newComputer));
+                next = reply == null ? null : child(reply, Long.numberOfTrailingZeros(newHuman));
+            }
+        }
+        root = next != null ? next : new Node(-1, ONGOING);
+        rootHuman = human;
+        rootComputer = computer;
+        reusedVisits = root.stats >>> 32;
+    }
+
+    private static Node child(Node node, int move)
+    {
+        Node[] kids = node.children;
+        if (kids != null)
+        {
+            for (Node kid : kids)
+            {
+                if (kid.move == move)
+                {
+                    return kid;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static int mostVisited(Node node)
+    {
+        Node[] kids = node.children;
+        if (kids == null)
+        {
+            return -1;
+        }
+        int best = -1;
+        long bestVisits = -1;
+        for (Node kid : kids)
+        {
+            long visits = kid.stats >>> 32;
+            if (visits > bestVisits)
+            {
+                bestVisits = visits;
+                best = kid.move;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns how long the line of most visited moves from the root is.
+     */
+    private int principalDepth()
+    {
+        int depth = 0;
+        for (Node node = root; node != null; depth++)
+        {
+            node = child(node, mostVisited(node));
+        }
+        return depth - 1;
+    }
+
+    /**
+     * Gives a node its children, unless another thread got there first.
+     * Moves are the empty cells next to a stone (the centre on an empty board).
+     * @return the node's children
+     */
+    private Node[] expand(Node node, long human, long computer, boolean computerToMove)
+    {
+        long taken = human | computer;
+        long empty = ~taken & full;
+        long candidates;
+        if (taken == 0)
+        {
+            candidates = 1L << ((rows / 2) * cols + cols / 2);
+        }
+        else
+        {
+            long touching = 0;
+            for (long stones = taken; stones != 0; stones &= stones - 1)
+            {
+                touching |= near[Long.numberOfTrailingZeros(stones)];
+            }
+            candidates = touching & empty;
+            if (candidates == 0)
+            {
+                candidates = empty;
+            }
+        }
+
+        long mover = computerToMove ? computer : human;
+        boolean lastEmpty = Long.bitCount(empty) == 1;
+        Node[] kids = new Node[Long.bitCount(candidates)];
+        int n = 0;
+        for (long bits = candidates; bits != 0; bits &= bits - 1)
+        {
+            int cell = Long.numberOfTrailingZeros(bits);
+            int result = wins(mover | 1L << cell, cell) ? WIN : lastEmpty ? DRAW : ONGOING;
+            kids[n++] = new Node(cell, result);
+        }
+        if (CHILDREN.compareAndSet(node, null, kids))
+        {
+            return kids;
+        }
+        return node.children;
+    }
+
+    /**
+     * Checks if a player's stones hold a k-in-a-row through a cell.
+     */
+    private boolean wins(long stones, int cell)
+    {
+        long[] windows = cellWindows[cell];
+        for (int i = 0; i < windows.length; i++)
+        {
+            if ((stones & windows[i]) == windows[i])
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long mask(int[][] brd, int player)
+    {
+        long bits = 0;
+        for (int r = 0; r < rows; r++)
+        {
+            for (int c = 0; c < cols; c++)
+            {
+                if (brd[r][c] == player)
+                {
+                    bits |= 1L << (r * cols + c);
+                }
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * A thread is started whenever no idle one is free, so a search's helpers
+     * never wait behind another search's.
+     */
+    private static ThreadPoolExecutor createHelpers()
+    {
+        final AtomicInteger count = new AtomicInteger();
+        return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 30, TimeUnit.SECONDS,
+            new SynchronousQueue<Runnable>(), (Runnable r) ->
+            {
+                Thread t = new Thread(r, "mcts-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+    }
+
+    /**
+     * One search thread, with its own path and playout buffers.
+     */
+    private final class Worker
+    {
+        private final SplittableRandom random;
+        private final Node[] path = new Node[size + 1];
+        private final int[] empties = new int[size];
+
+        Worker(SplittableRandom random)
+        {
+            this.random = random;
+        }
+
+        /**
+         * Runs playouts until the deadline, the playout limit, stop() or another thread stops.
+         * @param deadline System.nanoTime() to stop at
+         * @param h handle to publish progress to and take stop requests from, or null
+         */
+        void search(long deadline, SearchHandle h)
+        {
+            long nextProgress = System.nanoTime() + PROGRESS_NANOS;
+            for (long n = 1; !stopping; n++)
+            {
+                playout();
+                long done = playouts.incrementAndGet();
+                if (playoutLimit > 0 && done >= playoutLimit)
+                {
+                    stopping = true;
+                }
+                if ((n & 63) == 0)
+                {
+                    long now = System.nanoTime();
+                    if (now > deadline || (h != null && h.isStopRequested()))
+                    {
+                        stopping = true;
+                    }
+                    else if (h != null && now > nextProgress)
+                    {
+                        nextProgress = now + PROGRESS_NANOS;
+                        h.update(mostVisited(root), principalDepth(), done);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Walks down the tree with UCT, plays the rest of the game at random and
+         * adds the result to every node on the way.
+         */
+        private void playout()
+        {
+            long human = rootHuman;
+            long computer = rootComputer;
+            boolean computerToMove = true;
+            Node node = root;
+            int depth = 0;
+            path[depth++] = node;
+            STATS.addAndGet(node, VISIT);
+
+            while (node.result == ONGOING)
+            {
+                Node[] kids = node.children;
+                if (kids == null)
+                {
+                    if (node != root && (node.stats >>> 32) < EXPAND_VISITS)
+                    {
+                        break;
+                    }
+                    kids = expand(node, human, computer, computerToMove);
+                }
+                node = select(node, kids);
+                STATS.addAndGet(node, VISIT); // virtual loss until the result is added
+                if (computerToMove)
+                {
+                    computer |= 1L << node.move;
+                }
+                else
+                {
+                    human |= 1L << node.move;
+                }
+                computerToMove = !computerToMove;
+                path[depth++] = node;
+            }
+
+            int winner; // 1 human, -1 computer, 0 tie
+            if (node.result == WIN)
+            {
+                winner = computerToMove ? 1 : -1; // whoever just moved
+            }
+            else if (node.result == DRAW)
+            {
+                winner = 0;
+            }
+            else
+            {
+                winner = rollout(human, computer, computerToMove);
+            }
+
+            for (int i = 0; i < depth; i++)
+            {
+                int mover = (i & 1) == 1 ? -1 : 1; // the computer moves into odd depths
+                long score = winner == mover ? 2 : winner == 0 ? 1 : 0;
+                if (score != 0)
+                {
+                    STATS.addAndGet(path[i], score);
+                }
+            }
+        }
+
+        /**
+         * Picks the child with the best UCT value; children nobody has tried yet come first.
+         */
+        private Node select(Node parent, Node[] kids)
+        {
+            double logVisits = Math.log(Math.max(1, parent.stats >>> 32));
+            Node best = kids[0];
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (Node kid : kids)
+            {
+                long stats = kid.stats;
+                long visits = stats >>> 32;
+                if (visits == 0)
+                {
+                    return kid;
+                }
+                double value = (stats & 0xFFFFFFFFL) / (2.0 * visits) + EXPLORATION * Math.sqrt(logVisits / visits);
+                if (value > bestValue)
+                {
+                    bestValue = value;
+                    best = kid;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Plays random moves to the end of the game.
+         * @return 1 if the human wins, -1 if the computer wins, 0 for a tie
+         */
+        private int rollout(long human, long computer, boolean computerToMove)
+        {
+            int n = 0;
+            for (long bits = ~(human | computer) & full; bits != 0; bits &= bits - 1)
+            {
+                empties[n++] = Long.numberOfTrailingZeros(bits);
+            }
+            while (n > 0)
+            {
+                int i = random.nextInt(n);
+                int cell = empties[i];
+                empties[i] = empties[--n];
+                if (computerToMove)
+                {
+                    computer |= 1L << cell;
+                    if (wins(computer, cell))
+                    {
+                        return -1;
+                    }
+                }
+                else
+                {
+                    human |= 1L << cell;
+                    if (wins(human, cell))
+                    {
+                        return 1;
+                    }
+                }
+                computerToMove = !computerToMove;
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+import java.util.SplittableRandom;
+
+/**
+ *  An m,n,k board: rows x cols squares, and k in a row (across, down or
+ *  diagonally) wins. Cells are numbered row-major from 0 and hold 1 for human,
+ *  -1 for computer, 0 for empty, like the 3x3 boards.
+ *
+ *  Every run of k cells (a "window") keeps a count of each player's stones.
+ *  play/undo only touch the windows through the changed cell, so a win is
+ *  noticed the moment a count reaches k, and the open-lines score used by
+ *  MNKEngine is kept up to date without rescanning the board.
+ *
+ *  The board also keeps a 64-bit Zobrist key: every (cell, player) pair has a
+ *  fixed random number, and the key is the XOR of the numbers of the stones on
+ *  the board. play/undo XOR one number in or out, so getKey() costs nothing and
+ *  can name the position in any hash table. Equal positions always have equal
+ *  keys; different ones collide with a chance of about 2^-64 per pair.
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public class MNKBoard
+{
+    private static final long ZOBRIST_SEED = 0x5DEECE66DL; // fixed, so keys are the same in every run
+
+    public final int rows;
+    public final int cols;
+    public final int k;
+
+    private final int[] cells;
+    private final int[][] windowCells; // the k cells of each window
+    private final int[][] cellWindows; // the windows through each cell
+    private final int[] humanCount;
+    private final int[] computerCount;
+    private final int[] weights; // score of an open window holding n stones of one player
+    private final long[] humanKeys; // Zobrist number of a human stone on each cell
+    private final long[] computerKeys;
+
+    private int score; // sum of open window scores, positive is good for the computer
+    private int moveCount;
+    private int winner; // 1 human, -1 computer, 0 nobody yet
+    private int winningWindow = -1;
+    private long key; // XOR of the Zobrist numbers of every stone
+
+    /**
+     * Create a new empty board.
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param k stones in a row needed to win
+     */
+    public MNKBoard(int rows, int cols, int k)
+    {
+        if (k < 1 || (k > rows && k > cols))
+        {
+            throw new IllegalArgumentException("k = " + k + " does not fit on " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.k = k;
+        cells = new int[rows * cols];
+
+        windowCells = buildWindows(rows, cols, k);
+        humanCount = new int[windowCells.length];
+        computerCount = new int[windowCells.length];
+
+        int[] perCell = new int[cells.length];
+        for (int[] window : windowCells)
+        {
+            for (int cell : window)
+            {
+                perCell[cell]++;
+            }
+        }
+        cellWindows = new int[cells.length][];
+        for (int i = 0; i < cells.length; i++)
+        {
+            cellWindows[i] = new int[perCell[i]];
+            perCell[i] = 0;
+        }
+        for (int w = 0; w < windowCells.length; w++)
+        {
+            for (int cell : windowCells[w])
+            {
+                cellWindows[cell][perCell[cell]++] = w;
+            }
+        }
+
+        weights = new int[k + 1];
+        for (int n = 1; n < k; n++)
+        {
+            weights[n] = weights[n - 1] * 8 + 1; // 1, 9, 73, ...
+        }
+
+        SplittableRandom random = new SplittableRandom(ZOBRIST_SEED);
+        humanKeys = new long[cells.length];
+        computerKeys = new long[cells.length];
+        for (int i = 0; i < cells.length; i++)
+        {
+            humanKeys[i] = random.nextLong();
+            computerKeys[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * Loads a position, replacing whatever is on this board.
+     * @param brd rows x cols array holding 1 for human, -1 for computer, 0 for empty
+     */
+    public void load(int[][] brd)
+    {
+        for (int i = 0; i < cells.length; i++)
+        {
+            if (cells[i] != 0)
+            {
+                undo(i);
+            }
+        }
+        for (int r = 0; r < rows; r++)
+        {
+            for (int c = 0; c < cols; c++)
+            {
+                if (brd[r][c] != 0)
+                {
+                    play(r * cols + c, brd[r][c]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Puts a stone on an empty cell.
+     * @param cell cell number
+     * @param player 1 for human, -1 for computer
+     * @return true if this move completes k in a row
+     */
+    public boolean play(int cell, int player)
+    {
+        cells[cell] = player;
+        moveCount++;
+        key ^= player == 1 ? humanKeys[cell] : computerKeys[cell];
+        int[] through = cellWindows[cell];
+        boolean won = false;
+        for (int i = 0; i < through.length; i++)
+        {
+            int w = through[i];
+            score -= windowScore(w);
+            int count = player == 1 ? ++humanCount[w] : ++computerCount[w];
+            score += windowScore(w);
+            if (count == k && !won)
+            {
+                won = true;
+                if (winner == 0)
+                {
+                    winner = player;
+                    winningWindow = w;
+                }
+            }
+        }
+        return won;
+    }
+
+    /**
+     * Takes back the stone on a cell. Moves must be undone in reverse order.
+     * @param cell cell number
+     */
+    public void undo(int cell)
+    {
+        int player = cells[cell];
+        cells[cell] = 0;
+        moveCount--;
+        key ^= player == 1 ? humanKeys[cell] : computerKeys[cell];
+        int[] through = cellWindows[cell];
+        for (int i = 0; i < through.length; i++)
+        {
+            int w = through[i];
+            score -= windowScore(w);
+            if (player == 1)
+            {
+                humanCount[w]--;
+            }
+            else
+            {
+                computerCount[w]--;
+            }
+            score += windowScore(w);
+            if (w == winningWindow)
+            {
+                winner = 0;
+                winningWindow = -1;
+            }
+        }
+    }
+
+    /**
+     * Returns what is on a cell.
+     * @param cell cell number
+     * @return 1 for human, -1 for computer, 0 for empty
+     */
+    public int get(int cell)
+    {
+        return cells[cell];
+    }
+
+    /**
+     * Returns the Zobrist key of the stones on the board. It does not say whose
+     * turn it is; a search that needs that can XOR in a number of its own.
+     * @return 64-bit position key, 0 for the empty board
+     */
+    public long getKey()
+    {
+        return key;
+    }
+
+    /**
+     * Returns the number of cells.
+     * @return rows * cols
+     */
+    public int size()
+    {
+        return cells.length;
+    }
+
+    /**
+     * Returns the number of stones on the board.
+     * @return move count
+     */
+    public int getMoveCount()
+    {
+        return moveCount;
+    }
+
+    /**
+     * Checks if every cell is taken.
+     * @return true if the board is full
+     */
+    public boolean isFull()
+    {
+        return moveCount == cells.length;
+    }
+
+    /**
+     * Returns who has k in a row.
+     * @return 1 for human, -1 for computer, 0 if nobody has won
+     */
+    public int getWinner()
+    {
+        return winner;
+    }
+
+    /**
+     * Returns the cells of the winning line.
+     * @return the k winning cells, or null if nobody has won
+     */
+    public int[] getWinningCells()
+    {
+        return winningWindow < 0 ? null : windowCells[winningWindow].clone();
+    }
+
+    /**
+     * Open-lines evaluation: every window that only one player has stones in
+     * is worth more the fuller it is. Windows with both players are dead.
+     * @return score, positive when the computer is better off
+     */
+    public int getScore()
+    {
+        return score;
+    }
+
+    /**
+     * How much a move on this cell would matter: the open windows through it,
+     * weighted by how full they already are, for both players.
+     * @param cell an empty cell
+     * @return move ordering score, higher is more urgent
+     */
+    public int urgency(int cell)
+    {
+        int total = 0;
+        int[] through = cellWindows[cell];
+        for (int i = 0; i < through.length; i++)
+        {
+            int w = through[i];
+            if (humanCount[w] == 0)
+            {
+                total += weights[computerCount[w]] + 1;
+            }
+            if (computerCount[w] == 0)
+            {
+                total += weights[humanCount[w]] + 1;
+            }
+        }
+        return total;
+    }
+
+    private int windowScore(int w)
+    {
+        if (humanCount[w] == 0)
+        {
+            return weights[computerCount[w]];
+        }
+        else if (computerCount[w] == 0)
+        {
+            return -weights[humanCount[w]];
+        }
+        return 0; // both players are in it, nobody can win here
+    }
+
+    /**
+     * Lists every run of k cells: across, down and both diagonals.
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param k length of a run
+     * @return the cells of each run
+     */
+    static int[][] buildWindows(int rows, int cols, int k)
+    {
+        int[][] dirs = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        int count = 0;
+        int[][] windows = new int[4 * rows * cols][];
+        for (int r = 0; r < rows; r++)
+        {
+            for (int c = 0; c < cols; c++)
+            {
+                for (int[] d : dirs)
+                {
+                    int endR = r + d[0] * (k - 1);
+                    int endC = c + d[1] * (k - 1);
+                    if (endR < rows && endC >= 0 && endC < cols)
+                    {
+                        int[] window = new int[k];
+                        for (int i = 0; i < k; i++)
+                        {
+                            window[i] = (r + d[0] * i) * cols + c + d[1] * i;
+                        }
+                        windows[count++] = window;
+                    }
+                }
+            }
+        }
+        int[][] result = new int[count][];
+        System.arraycopy(windows, 0, result, 0, count);
+        return result;
+    }
+}
@@ -0,0 +1,392 @@
+import java.util.Arrays;
+
+/**
+ *  Computer player for m,n,k boards that are too big for a full minimax,
+ *  like 4x4 (k=4), 5x5 (k=4) and 7x7 (k=5).
+ *
+ *  It searches one move deeper at a time (iterative deepening, see
+ *  DeepeningSearch) with alpha-beta in negamax form, until the board is solved
+ *  or the time budget runs out, and then plays the best move found so far. Positions at the depth limit are
+ *  scored with MNKBoard's open-lines evaluation, and wins are noticed
+ *  incrementally by MNKBoard.
+ *
+ *  Positions are named by MNKBoard's Zobrist key, which play/undo keep up to
+ *  date with one XOR each. The key (with the side to move XORed in) indexes a
+ *  SearchTable of 2^TABLE_BITS entries, so a position reached by a
+ *  different move order is only searched once, and the best move it stored is
+ *  tried first the next time. The table is kept from move to move.
+ *
+ *  getBestMove searches on the calling thread. submit starts the same search on
+ *  an AIScheduler worker and returns a SearchHandle that shows the best move so
+ *  far and can stop or cancel the search. One engine runs one search at a time;
+ *  a second one waits for the first to end.
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public class MNKEngine extends DeepeningSearch implements AnytimeEngine
+{
+    private static final int TABLE_BITS = 18;
+
+    /**
+     * XORed into the board key when the computer is to move.
+     */
+    private static final long COMPUTER_TO_MOVE = 0x9E3779B97F4A7C15L;
+
+    private final MNKBoard board;
+    private final long budgetNanos;
+    private final boolean everyCell; // try every empty cell, not only those next to a stone
+    private final SearchTable table;
+    private final int[][] neighbours; // cells touching each cell
+    private final int[][] moveBuffers; // moves at each ply, so the search does not allocate
+    private final int[][] urgencyBuffers;
+
+    private int rootPlayer; // who is to move at the root: 1 for human, -1 for computer
+
+    /**
+     * Create a new engine.
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param k stones in a row needed to win
+     * @param budgetMillis how long each move may take
+     */
+    public MNKEngine(int rows, int cols, int k, long budgetMillis)
+    {
+        this(rows, cols, k, budgetMillis, false);
+    }
+
+    /**
+     * Create a new engine that can also search every empty cell, which makes
+     * searches to the end exact (see NegamaxEngine) but wider.
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param k stones in a row needed to win
+     * @param budgetMillis how long each move may take, 0 for no limit
+     * @param everyCell true to try every empty cell, false for only cells next to a stone
+     */
+    MNKEngine(int rows, int cols, int k, long budgetMillis, boolean everyCell)
+    {
+        board = new MNKBoard(rows, cols, k);
+        budgetNanos = budgetMillis * 1000000L;
+        this.everyCell = everyCell;
+        table = new SearchTable(TABLE_BITS);
+
+        int size = rows * cols;
+        neighbours = new int[size][];
+        for (int cell = 0; cell < size; cell++)
+        {
+            int r = cell / cols;
+            int c = cell % cols;
+            int[] near = new int[8];
+            int n = 0;
+            for (int dr = -1; dr <= 1; dr++)
+            {
+                for (int dc = -1; dc <= 1; dc++)
+                {
+                    int nr = r + dr;
+                    int nc = c + dc;
+                    if ((dr != 0 || dc != 0) && nr >= 0 && nr < rows && nc >= 0 && nc < cols)
+                    {
+                        near[n++] = nr * cols + nc;
+                    }
+                }
+            }
+            neighbours[cell] = Arrays.copyOf(near, n);
+        }
+        moveBuffers = new int[size + 1][size];
+        urgencyBuffers = new int[size + 1][size];
+    }
+
+    /**
+     * Returns the best move found within the time budget.
+     * @param brd current state of game
+     * @return {row, column} of the chosen move ({0, 0} if the board is full)
+     */
+    @Override
+    public int[] getBestMove(int[][] brd)
+    {
+        int move = run(brd, -1, budgetNanos, null);
+        int[] finalMove = {0, 0};
+        if (move >= 0)
+        {
+            finalMove[0] = move / board.cols;
+            finalMove[1] = move % board.cols;
+        }
+        return finalMove;
+    }
+
+    /**
+     * Starts a search in the background. With a budget of 0 it runs until the
+     * board is solved, stopped or cancelled.
+     * {@inheritDoc}
+     */
+    @Override
+    public SearchHandle submit(int[][] brd, long budgetMillis)
+    {
+        final int[][] position = new int[brd.length][];
+        for (int i = 0; i < brd.length; i++)
+        {
+            position[i] = brd[i].clone();
+        }
+        final long budget = budgetMillis * 1000000L;
+        final SearchHandle h = new SearchHandle(board.cols);
+        h.setFuture(AIScheduler.submit(() ->
+        {
+            if (!h.isCancelled())
+            {
+                run(position, -1, budget, h); // after an early stop() this returns the first move at once
+            }
+        }));
+        return h;
+    }
+
+    /**
+     * Returns the best move found within the time budget, for either player.
+     * @param brd current state of game, indexed [row][column]
+     * @param player who is to move: 1 for human, -1 for computer
+     * @return cell of the chosen move, or -1 if the game is over
+     */
+    public int getBestCell(int[][] brd, int player)
+    {
+        return run(brd, player, budgetNanos, null);
+    }
+
+    /**
+     * Searches a position to the end, with no time limit.
+     * @param brd current state of game, indexed [row][column]
+     * @param player who is to move: 1 for human, -1 for computer
+     * @return value for player: above 0 for a win, below 0 for a loss, 0 for a tie
+     */
+    synchronized int solve(int[][] brd, int player)
+    {
+        board.load(brd);
+        if (board.getWinner() != 0)
+        {
+            return board.getWinner() == player ? WIN : -WIN;
+        }
+        startClock(0);
+        int depth = board.size() - board.getMoveCount();
+        int v = negamax(depth, 0, -INFINITY, INFINITY, player);
+        completedDepth = depth;
+        return v;
+    }
+
+    /**
+     * Empties the transposition table.
+     */
+    public synchronized void clear()
+    {
+        table.clear();
+    }
+
+    /**
+     * Returns how many positions the last search visited.
+     * @return node count
+     */
+    public long getNodeCount()
+    {
+        return nodes;
+    }
+
+    /**
+     * Returns the deepest iteration the last search finished.
+     * @return depth in moves
+     */
+    public int getCompletedDepth()
+    {
+        return completedDepth;
+    }
+
+    /**
+     * Loads a position and searches it, one search at a time.
+     * @param brd position
+     * @param player who is to move: 1 for human, -1 for computer
+     * @param budget nanoseconds the search may take, 0 for no limit
+     * @param h handle to publish to and take stop requests from, or null
+     * @return cell of the best move, or -1 if the game is over
+     */
+    private synchronized int run(int[][] brd, int player, long budget, SearchHandle h)
+    {
+        handle = h;
+        try
+        {
+            board.load(brd);
+            startClock(budget);
+            int move = board.getWinner() != 0 ? -1 : search(player);
+            if (h != null)
+            {
+                h.finish(move, completedDepth, nodes);
+            }
+            return move;
+        }
+        finally
+        {
+            handle = null;
+            if (h != null)
+            {
+                h.finish(); // only does something if the search threw
+            }
+        }
+    }
+
+    /**
+     * Iterative deepening from the loaded position.
+     * @param player who is to move: 1 for human, -1 for computer
+     * @return cell of the best move, or -1 if the board is full
+     */
+    private int search(int player)
+    {
+        int n = generateMoves(0, -1);
+        if (n == 0)
+        {
+            return -1;
+        }
+        rootPlayer = player;
+        return deepen(moveBuffers[0], n, board.size() - board.getMoveCount());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    int searchRoot(int move, int depth, int alpha)
+    {
+        int value;
+        if (board.play(move, rootPlayer))
+        {
+            value = WIN - 1;
+        }
+        else
+        {
+            value = -negamax(depth - 1, 1, -INFINITY, -alpha, -rootPlayer);
+        }
+        board.undo(move);
+        return value;
+    }
+
+    /**
+     * Alpha-beta search in negamax form: values are from the point of view of the player to move.
+     * @param depth moves left before evaluating
+     * @param ply moves made since the root
+     * @param alpha lower end of the window
+     * @param beta upper end of the window
+     * @param player 1 for human, -1 for computer
+     * @return value of the position for player
+     */
+    private int negamax(int depth, int ply, int alpha, int beta, int player)
+    {
+        nodes++;
+        if (stopNow(nodes))
+        {
+            return 0;
+        }
+        if (board.isFull())
+        {
+            return 0; // tie
+        }
+        if (depth == 0)
+        {
+            return player == -1 ? board.getScore() : -board.getScore();
+        }
+
+        long key = player == -1 ? board.getKey() ^ COMPUTER_TO_MOVE : board.getKey();
+        long entry = table.probe(key);
+        if (SearchTable.cuts(entry, depth, ply, alpha, beta))
+        {
+            return SearchTable.value(entry, ply);
+        }
+
+        int alphaIn = alpha;
+        int[] moves = moveBuffers[ply];
+        int n = generateMoves(ply, SearchTable.move(entry));
+        int best = -INFINITY;
+        int bestMove = -1;
+        for (int i = 0; i < n; i++)
+        {
+            int move = moves[i];
+            int value;
+            if (board.play(move, player))
+            {
+                value = WIN - (ply + 1);
+            }
+            else
+            {
+                value = -negamax(depth - 1, ply + 1, -beta, -alpha, -player);
+            }
+            board.undo(move);
+
+            if (value > best)
+            {
+                best = value;
+                bestMove = move;
+                if (value > alpha)
+                {
+                    alpha = value;
+                    if (alpha >= beta)
+                    {
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (!outOfTime)
+        {
+            table.store(key, best, bestMove, depth, ply, alphaIn, beta);
+        }
+        return best;
+    }
+
+    /**
+     * Fills moveBuffers[ply] with the empty cells next to a stone (or every
+     * empty cell if everyCell is set): the transposition table's move first,
+     * then the most urgent. Otherwise, on an empty board the only move
+     * considered is the middle.
+     * @param ply which buffer to fill
+     * @param hashMove cell to try first, or -1
+     * @return number of moves
+     */
+    private int generateMoves(int ply, int hashMove)
+    {
+        int[] moves = moveBuffers[ply];
+        int[] urgency = urgencyBuffers[ply];
+        int n = 0;
+
+        if (board.getMoveCount() == 0 && !everyCell)
+        {
+            moves[0] = (board.rows / 2) * board.cols + board.cols / 2;
+            return 1;
+        }
+
+        for (int cell = 0; cell < board.size(); cell++)
+        {
+            if (board.get(cell) == 0 && (everyCell || touchesStone(cell)))
+            {
+                int u = cell == hashMove ? Integer.MAX_VALUE : board.urgency(cell);
+                int i = n++;
+                while (i > 0 && urgency[i - 1] < u) // insertion sort, highest urgency first
+                {
+                    moves[i] = moves[i - 1];
+                    urgency[i] = urgency[i - 1];
+                    i--;
+                }
+                moves[i] = cell;
+                urgency[i] = u;
+            }
+        }
+        return n;
+    }
+
+    private boolean touchesStone(int cell)
+    {
+        int[] near = neighbours[cell];
+        for (int i = 0; i < near.length; i++)
+        {
+            if (board.get(near[i]) != 0)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -12,11 +12,13 @@ public class MainMenu extends JFrame implements ActionListener
 {
     private JButton normal;
     private JButton unbeat;
+    private JButton bigger;
+    private JButton ultimate;
     private JLabel intro;
 
     /**
      * The main menu GUI is here.
-     *  There are two buttons for a normal and unbeatable level.
+     *  There are buttons for a normal and unbeatable level, for bigger boards and for Ultimate.
      */
     public MainMenu()
     {
@@ -29,23 +31,33 @@ public class MainMenu extends JFrame implements ActionListener
         normal = new JButton("Normal");
         normal.addActionListener(this);
         normal.setFont(new Font("Comic Sans", Font.PLAIN, 20));
-        normal.setBounds(150, 275, 300, 100);
+        normal.setBounds(150, 245, 300, 65);
         unbeat = new JButton("Unbeatable!");
         unbeat.addActionListener(this);
         unbeat.setFont(new Font("Comic Sans", Font.PLAIN, 20));
-        unbeat.setBounds(150, 400, 300, 100);
+        unbeat.setBounds(150, 320, 300, 65);
+        bigger = new JButton("Bigger Boards");
+        bigger.addActionListener(this);
+        bigger.setFont(new Font("Comic Sans", Font.PLAIN, 20));
+        bigger.setBounds(150, 395, 300, 65);
+        ultimate = new JButton("Ultimate");
+        ultimate.addActionListener(this);
+        ultimate.setFont(new Font("Comic Sans", Font.PLAIN, 20));
+        ultimate.setBounds(150, 470, 300, 65);
 
         intro = new JLabel("<html>Welcome to TicTacToe!<br><br>"
             + "You can choose a normal or unbeatable level to play against "
             + "the computer!<br><br>"
             + "You are \"X\" and the computer is \"O\"</html>");
         intro.setFont(new Font("Comic Sans", Font.PLAIN, 20));
-        intro.setBounds(120, 100, 400, 200);
+        intro.setBounds(120, 40, 400, 200);
 
         // adding components
         add(intro);
         add(normal);
         add(unbeat);
+        add(bigger);
+        add(ultimate);
     }
 
     /**
@@ -66,6 +78,43 @@ public class MainMenu extends JFrame implements ActionListener
             this.dispose();
             (new GameRunnerMM()).setVisible(true);
         }
+        else if (button == bigger)
+        {
+            int qubic = GameRunnerMNK.SIZES.length; // the last choice
+            String[] choices = new String[qubic + 1];
+            for (int i = 0; i < qubic; i++)
+            {
+                int size = GameRunnerMNK.SIZES[i][0];
+                choices[i] = size + "x" + size + " (" + GameRunnerMNK.SIZES[i][1] + " in a row)";
+            }
+            choices[qubic] = "4x4x4 (4 in a row)";
+            int choice = JOptionPane.showOptionDialog(this, "Pick a board", "Bigger Boards",
+                JOptionPane.DEFAULT_OPTION, JOptionPane.PLAIN_MESSAGE, null, choices, choices[0]);
+            if (choice < 0)
+            {
+                return;
+            }
+            if (choice == qubic)
+            {
+                this.dispose();
+                (new GameRunnerQubic()).setVisible(true);
+                return;
+            }
+            String[] engines = {"Alpha-beta", "Monte Carlo"};
+            int engine = JOptionPane.showOptionDialog(this, "Pick a computer player", "Bigger Boards",
+                JOptionPane.DEFAULT_OPTION, JOptionPane.PLAIN_MESSAGE, null, engines, engines[0]);
+            if (engine >= 0)
+            {
+                this.dispose();
+                (new GameRunnerMNK(GameRunnerMNK.SIZES[choice][0], GameRunnerMNK.SIZES[choice][1], engine == 1))
+                    .setVisible(true);
+            }
+        }
+        else if (button == ultimate)
+        {
+            this.dispose();
+            (new GameRunnerUltimate()).setVisible(true);
+        }
     }
 
     /****** the game starts below ******/
@@ -76,7 +125,9 @@ public class MainMenu extends JFrame implements ActionListener
      */
     public static void main(String[] args)
     {
+        EngineMetrics.start(0); // JMX only, e.g. for jconsole
         MainMenu m = new MainMenu();
         m.setVisible(true);
+        Warmup.start(); // after the menu is up, so it never delays it
     }
 }
@@ -0,0 +1,16 @@
+/**
+ *  Anything that can pick the computer's move on a square board.
+ *  The board holds 1 for human, -1 for computer and 0 for empty, and is not changed.
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public interface MoveEngine
+{
+    /**
+     * Picks the computer's next move.
+     * @param brd current state of game, indexed [row][column]
+     * @return {row, column} of the chosen move
+     */
+    int[] getBestMove(int[][] brd);
+}
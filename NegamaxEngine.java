@@ -0,0 +1,106 @@
+/**
+ *  AIMM-style answers from MNKEngine's negamax search, for the simulator and
+ *  for checking AIMM: value() searches a position to the end and gives the
+ *  same 10 / 0 / -10 as AIMM on a 3x3 board.
+ *
+ *  The engine underneath tries every empty cell instead of only those next to
+ *  a stone, so searches to the end are exact; its transposition table is kept
+ *  between calls.
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public class NegamaxEngine implements MoveEngine
+{
+    private final MNKEngine engine;
+
+    /**
+     * Create a new engine.
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param k stones in a row needed to win
+     * @param budgetMillis how long each move may take, 0 to always search to the end
+     */
+    public NegamaxEngine(int rows, int cols, int k, long budgetMillis)
+    {
+        engine = new MNKEngine(rows, cols, k, budgetMillis, true);
+    }
+
+    /**
+     * Returns the best move found within the time budget.
+     * {@inheritDoc}
+     */
+    @Override
+    public int[] getBestMove(int[][] brd)
+    {
+        return engine.getBestMove(brd);
+    }
+
+    /**
+     * Returns the best move found within the time budget.
+     * @param brd current state of game, indexed [row][column]
+     * @param player who is to move: 1 for human, -1 for computer
+     * @return cell of the chosen move, or -1 if the game is over
+     */
+    public int getBestCell(int[][] brd, int player)
+    {
+        return engine.getBestCell(brd, player);
+    }
+
+    /**
+     * Solves a 3x3 position given as bitboards, like AIMM.alphaBeta.
+     * The engine must have been made for a 3x3 board with k = 3.
+     * @param human human's squares
+     * @param computer computer's squares
+     * @param computerToMove true if it is the computer's turn
+     * @return 10 if the computer wins, -10 if the human wins, 0 for a tie
+     */
+    public int value(int human, int computer, boolean computerToMove)
+    {
+        int[][] brd = new int[3][3];
+        for (int i = 0; i < 9; i++)
+        {
+            brd[i / 3][i % 3] = (human >> i & 1) - (computer >> i & 1);
+        }
+        return value(brd, computerToMove);
+    }
+
+    /**
+     * Searches a position to the end, with no time limit.
+     * @param brd current state of game, indexed [row][column]
+     * @param computerToMove true if it is the computer's turn
+     * @return 10 if the computer wins, -10 if the human wins, 0 for a tie
+     */
+    public int value(int[][] brd, boolean computerToMove)
+    {
+        int v = engine.solve(brd, computerToMove ? -1 : 1);
+        int forComputer = computerToMove ? v : -v;
+        return forComputer > 0 ? 10 : forComputer < 0 ? -10 : 0;
+    }
+
+    /**
+     * Empties the transposition table.
+     */
+    public void clear()
+    {
+        engine.clear();
+    }
+
+    /**
+     * Returns how many positions the last search visited.
+     * @return node count
+     */
+    public long getNodeCount()
+    {
+        return engine.getNodeCount();
+    }
+
+    /**
+     * Returns the deepest iteration the last search finished.
+     * @return depth in moves
+     */
+    public int getCompletedDepth()
+    {
+        return engine.getCompletedDepth();
+    }
+}
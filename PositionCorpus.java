@@ -0,0 +1,148 @@
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ *  A fixed set of 3x3 positions shared by the benchmarks, so different engines
+ *  (and different versions of one engine) are always timed on the same boards.
+ *  Add new positions at the end so existing benchmark names keep their meaning.
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public final class PositionCorpus
+{
+    /**
+     * One board. Squares are numbered 1 - 9 like Square.
+     */
+    public static final class Position
+    {
+        public final String name;
+        public final int human; // bit (square - 1) set for each X
+        public final int computer; // bit (square - 1) set for each O
+        public final int lastHuman; // the human's last square, 0 if none
+
+        Position(String name, int[] humanSquares, int[] computerSquares)
+        {
+            this.name = name;
+            this.human = mask(humanSquares);
+            this.computer = mask(computerSquares);
+            this.lastHuman = humanSquares.length == 0 ? 0 : humanSquares[humanSquares.length - 1];
+        }
+
+        /**
+         * Returns the board the way GameRunnerMM stores it.
+         * @return new 3x3 array holding 1 for human, -1 for computer, 0 for empty
+         */
+        public int[][] toBoard2D()
+        {
+            int[][] board = new int[3][3];
+            for (int sq = 0; sq < 9; sq++)
+            {
+                board[sq / 3][sq % 3] = cell(sq);
+            }
+            return board;
+        }
+
+        /**
+         * Returns the board the way GameRunnerNormal stores it.
+         * @return new 9 element array holding 1 for human, -1 for computer, 0 for empty
+         */
+        public int[] toBoard1D()
+        {
+            int[] board = new int[9];
+            for (int sq = 0; sq < 9; sq++)
+            {
+                board[sq] = cell(sq);
+            }
+            return board;
+        }
+
+        /**
+         * Returns the position as a GameState, with the computer to move if
+         * the human has taken more squares.
+         * @return packed state
+         */
+        public int toState()
+        {
+            return GameState.of(human, computer, Integer.bitCount(human) > Integer.bitCount(computer));
+        }
+
+        /**
+         * Checks if the game at this position is still going.
+         * @return true if nobody has won and there are empty squares
+         */
+        public boolean isOngoing()
+        {
+            return !Bitboard.isWin(human) && !Bitboard.isWin(computer)
+                && Bitboard.empty(human, computer) != 0;
+        }
+
+        private int cell(int sq)
+        {
+            if ((human & (1 << sq)) != 0)
+            {
+                return 1;
+            }
+            return (computer & (1 << sq)) != 0 ? -1 : 0;
+        }
+
+        private static int mask(int[] squares)
+        {
+            int m = 0;
+            for (int sq : squares)
+            {
+                m |= 1 << (sq - 1);
+            }
+            return m;
+        }
+    }
+
+    /**
+     * Positions with the computer to move, from the opening to the end game.
+     */
+    public static final List<Position> ONGOING = Collections.unmodifiableList(Arrays.asList(
+        new Position("empty", new int[] {}, new int[] {}),
+        new Position("corner", new int[] {1}, new int[] {}),
+        new Position("centre", new int[] {5}, new int[] {}),
+        new Position("edge", new int[] {2}, new int[] {}),
+        new Position("opposite-corners", new int[] {1, 9}, new int[] {5}),
+        new Position("block", new int[] {1, 2}, new int[] {5}),
+        new Position("win-available", new int[] {1, 2, 9}, new int[] {5, 3}),
+        new Position("late", new int[] {2, 4, 9}, new int[] {1, 5}),
+        new Position("last-square", new int[] {1, 2, 6, 7}, new int[] {3, 4, 5, 9})
+    ));
+
+    /**
+     * Positions where the game has ended.
+     */
+    public static final List<Position> FINISHED = Collections.unmodifiableList(Arrays.asList(
+        new Position("human-won", new int[] {1, 2, 3}, new int[] {5, 9}),
+        new Position("computer-won", new int[] {1, 2, 6}, new int[] {3, 5, 7}),
+        new Position("tie", new int[] {1, 2, 6, 7, 8}, new int[] {3, 4, 5, 9})
+    ));
+
+    /**
+     * Every position, ongoing ones first.
+     */
+    public static final List<Position> ALL = concat(ONGOING, FINISHED);
+
+    private PositionCorpus()
+    {
+        // only constants
+    }
+
+    private static List<Position> concat(List<Position> a, List<Position> b)
+    {
+        Position[] all = new Position[a.size() + b.size()];
+        for (int i = 0; i < a.size(); i++)
+        {
+            all[i] = a.get(i);
+        }
+        for (int i = 0; i < b.size(); i++)
+        {
+            all[a.size() + i] = b.get(i);
+        }
+        return Collections.unmodifiableList(Arrays.asList(all));
+    }
+}
@@ -0,0 +1,266 @@
+import java.util.Arrays;
+
+/**
+ *  A 4x4x4 tic-tac-toe (Qubic) board: four layers of 4x4, and four in a row
+ *  in any straight line through the cube wins. Cell numbers are
+ *  layer * 16 + row * 4 + column, and each player's stones are one long with
+ *  bit (cell) set, like the 9-bit masks of Bitboard.
+ *
+ *  All 76 winning lines are worked out once into LINES, and CELL_LINES lists
+ *  the lines through each cell (7 for the corners and the 8 middle cells, 4
+ *  for the rest), so a move is checked against only the lines it touches.
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public class QubicBoard
+{
+    /**
+     * Number of cells.
+     */
+    public static final int CELLS = 64;
+
+    /**
+     * The 76 winning lines, as masks of four cells.
+     */
+    static final long[] LINES = buildLines();
+
+    /**
+     * CELL_LINES[cell] is the indexes into LINES of the lines through cell.
+     */
+    static final int[][] CELL_LINES = buildCellLines();
+
+    private long human;
+    private long computer;
+    private int moveCount;
+    private int winner; // 1 human, -1 computer, 0 nobody yet
+    private int winningLine = -1;
+
+    /**
+     * Puts a stone on an empty cell.
+     * @param cell layer * 16 + row * 4 + column
+     * @param player 1 for human, -1 for computer
+     * @return true if this move completes four in a row
+     */
+    public boolean play(int cell, int player)
+    {
+        long mine;
+        if (player == 1)
+        {
+            human |= 1L << cell;
+            mine = human;
+        }
+        else
+        {
+            computer |= 1L << cell;
+            mine = computer;
+        }
+        moveCount++;
+        int line = completedLine(mine, cell);
+        if (line >= 0 && winner == 0)
+        {
+            winner = player;
+            winningLine = line;
+        }
+        return line >= 0;
+    }
+
+    /**
+     * Takes back the stone on a cell. Moves must be undone in reverse order.
+     * @param cell layer * 16 + row * 4 + column
+     */
+    public void undo(int cell)
+    {
+        long bit = 1L << cell;
+        if (winningLine >= 0 && (LINES[winningLine] & bit) != 0)
+        {
+            winner = 0;
+            winningLine = -1;
+        }
+        human &= ~bit;
+        computer &= ~bit;
+        moveCount--;
+    }
+
+    /**
+     * Returns what is on a cell.
+     * @param cell layer * 16 + row * 4 + column
+     * @return 1 for human, -1 for computer, 0 for empty
+     */
+    public int get(int cell)
+    {
+        return (int) (human >>> cell & 1) - (int) (computer >>> cell & 1);
+    }
+
+    /**
+     * Returns the human's stones.
+     * @return bit (cell) set for each stone
+     */
+    public long getHuman()
+    {
+        return human;
+    }
+
+    /**
+     * Returns the computer's stones.
+     * @return bit (cell) set for each stone
+     */
+    public long getComputer()
+    {
+        return computer;
+    }
+
+    /**
+     * Returns the number of stones on the board.
+     * @return move count
+     */
+    public int getMoveCount()
+    {
+        return moveCount;
+    }
+
+    /**
+     * Checks if every cell is taken.
+     * @return true if the board is full
+     */
+    public boolean isFull()
+    {
+        return moveCount == CELLS;
+    }
+
+    /**
+     * Returns who has four in a row.
+     * @return 1 for human, -1 for computer, 0 if nobody has won
+     */
+    public int getWinner()
+    {
+        return winner;
+    }
+
+    /**
+     * Returns the cells of the winning line.
+     * @return the 4 winning cells, or null if nobody has won
+     */
+    public int[] getWinningCells()
+    {
+        if (winningLine < 0)
+        {
+            return null;
+        }
+        int[] cells = new int[4];
+        int n = 0;
+        for (long line = LINES[winningLine]; line != 0; line &= line - 1)
+        {
+            cells[n++] = Long.numberOfTrailingZeros(line);
+        }
+        return cells;
+    }
+
+    /**
+     * Finds a line through a cell that a player fills completely.
+     * @param mine the player's stones
+     * @param cell the cell just played
+     * @return index into LINES, or -1 if there is none
+     */
+    static int completedLine(long mine, int cell)
+    {
+        int[] through = CELL_LINES[cell];
+        for (int i = 0; i < through.length; i++)
+        {
+            long line = LINES[through[i]];
+            if ((mine & line) == line)
+            {
+                return through[i];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the empty cells that would complete a line for a player: one
+     * stone short of four, with none of the other player's.
+     * @param mine the player's stones
+     * @param theirs the other player's stones
+     * @return mask of winning cells
+     */
+    static long threats(long mine, long theirs)
+    {
+        long cells = 0;
+        for (int i = 0; i < LINES.length; i++)
+        {
+            long line = LINES[i];
+            if ((line & theirs) == 0 && Long.bitCount(line & mine) == 3)
+            {
+                cells |= line & ~mine;
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Lists every line of four cells in a straight line: 16 along each of the
+     * three axes, 24 face diagonals and 4 space diagonals.
+     * @return line masks
+     */
+    private static long[] buildLines()
+    {
+        long[] lines = new long[76];
+        int count = 0;
+        for (int dz = -1; dz <= 1; dz++)
+        {
+            for (int dy = -1; dy <= 1; dy++)
+            {
+                for (int dx = -1; dx <= 1; dx++)
+                {
+                    // one of each pair of opposite directions
+                    if (dz * 9 + dy * 3 + dx <= 0)
+                    {
+                        continue;
+                    }
+                    for (int start = 0; start < CELLS; start++)
+                    {
+                        int z = start >> 4;
+                        int y = start >> 2 & 3;
+                        int x = start & 3;
+                        int endZ = z + 3 * dz;
+                        int endY = y + 3 * dy;
+                        int endX = x + 3 * dx;
+                        if (endZ >= 0 && endZ < 4 && endY >= 0 && endY < 4 && endX >= 0 && endX < 4)
+                        {
+                            long line = 0;
+                            for (int i = 0; i < 4; i++)
+                            {
+                                line |= 1L << ((z + i * dz) * 16 + (y + i * dy) * 4 + x + i * dx);
+                            }
+                            lines[count++] = line;
+                        }
+                    }
+                }
+            }
+        }
+        if (count != lines.length)
+        {
+            throw new IllegalStateException(count + " lines instead of 76");
+        }
+        return lines;
+    }
+
+    private static int[][] buildCellLines()
+    {
+        int[][] cellLines = new int[CELLS][];
+        for (int cell = 0; cell < CELLS; cell++)
+        {
+            int n = 0;
+            int[] through = new int[7];
+            for (int i = 0; i < LINES.length; i++)
+            {
+                if ((LINES[i] >>> cell & 1) != 0)
+                {
+                    through[n++] = i;
+                }
+            }
+            cellLines[cell] = Arrays.copyOf(through, n);
+        }
+        return cellLines;
+    }
+}
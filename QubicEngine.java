@@ -0,0 +1,502 @@
+/**
+ *  Computer player for 4x4x4 tic-tac-toe (see QubicBoard). Positions are two
+ *  longs and every line test is a mask and a bit count, so nothing is summed
+ *  square by square and nothing is allocated while searching.
+ *
+ *  Each move goes through these steps, stopping at the first that decides it:
+ *  <br>1. win now if a line is one stone short;
+ *  <br>2. block if the human's line is one stone short;
+ *  <br>3. threat-space search: look for a forced win in which every computer
+ *  move makes three in a line, so the human's replies are all forced, until
+ *  a move makes two such lines at once (see findForcedWin);
+ *  <br>4. otherwise, iterative deepening alpha-beta over open lines (see
+ *  DeepeningSearch and SearchTable), where a side that must block has only
+ *  that move. Of the moves it likes, the first one after which the human has
+ *  no forced win is played.
+ *
+ *  getNodeCount, getThreatNodeCount, getCompletedDepth and getNodesPerSecond
+ *  describe the last search.
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public class QubicEngine extends DeepeningSearch
+{
+    private static final int MAX_PLY = QubicBoard.CELLS + 1;
+    private static final int MAX_THREATS = 16; // computer moves in a forced win, at most
+    private static final int SAFETY_SHARE = 5; // 1 / SAFETY_SHARE of the budget is kept for safeMove
+    private static final int TABLE_BITS = 18;
+
+    /**
+     * LINE_SCORE[n] is the worth of an open line holding n of one player's stones.
+     */
+    private static final int[] LINE_SCORE = {0, 1, 8, 64, 0};
+
+    private final long budgetNanos;
+    private final SearchTable table; // keyed by hash(mine, theirs)
+    private final int[][] moveBuffers = new int[MAX_PLY][QubicBoard.CELLS]; // so the search does not allocate
+    private final int[][] orderBuffers = new int[MAX_PLY][QubicBoard.CELLS];
+
+    private long budgetEnd; // when the whole move must be chosen; deadline is when the current step must stop
+    private long threatNodes;
+    private long searchNanos;
+    private long rootMine; // the position being searched, player to move
+    private long rootTheirs;
+    private long myThreats; // set by scan()
+    private long theirThreats;
+
+    /**
+     * Create a new engine.
+     * @param budgetMillis how long each move may take
+     */
+    public QubicEngine(long budgetMillis)
+    {
+        budgetNanos = budgetMillis * 1000000L;
+        table = new SearchTable(TABLE_BITS);
+    }
+
+    /**
+     * Picks a move within the time budget.
+     * @param mine stones of the player to move
+     * @param theirs the other player's stones
+     * @return cell of the chosen move, or -1 if the board is full
+     */
+    public int getBestMove(long mine, long theirs)
+    {
+        return run(mine, theirs, budgetNanos, null);
+    }
+
+    /**
+     * Starts a search for the computer's move in the background.
+     * @param board current position, computer to move; it is not kept
+     * @param budgetMillis how long the search may take
+     * @return handle whose moves are {layer, row * 4 + column}
+     */
+    public SearchHandle submit(QubicBoard board, long budgetMillis)
+    {
+        final long mine = board.getComputer();
+        final long theirs = board.getHuman();
+        final long budget = budgetMillis * 1000000L;
+        final SearchHandle h = new SearchHandle(16);
+        h.setFuture(AIScheduler.submit(() ->
+        {
+            if (!h.isCancelled())
+            {
+                run(mine, theirs, budget, h); // after an early stop() this returns a move at once
+            }
+        }));
+        return h;
+    }
+
+    /**
+     * Returns how many alpha-beta positions the last search visited.
+     * @return node count
+     */
+    public long getNodeCount()
+    {
+        return nodes;
+    }
+
+    /**
+     * Returns how many positions the last search's forced-win searches visited.
+     * @return node count
+     */
+    public long getThreatNodeCount()
+    {
+        return threatNodes;
+    }
+
+    /**
+     * Returns the deepest alpha-beta iteration the last search finished.
+     * @return depth in moves, 0 if the move was decided before alpha-beta
+     */
+    public int getCompletedDepth()
+    {
+        return completedDepth;
+    }
+
+    /**
+     * Returns the speed of the last search, both kinds of position counted.
+     * @return positions visited per second
+     */
+    public double getNodesPerSecond()
+    {
+        return searchNanos == 0 ? 0 : (nodes + threatNodes) * 1e9 / searchNanos;
+    }
+
+    /**
+     * Empties the transposition table.
+     */
+    public synchronized void clear()
+    {
+        table.clear();
+    }
+
+    /**
+     * Searches one position, one search at a time.
+     * @param mine stones of the player to move
+     * @param theirs the other player's stones
+     * @param budget nanoseconds the search may take
+     * @param h handle to publish to and take stop requests from, or null
+     * @return cell of the chosen move, or -1 if the board is full
+     */
+    private synchronized int run(long mine, long theirs, long budget, SearchHandle h)
+    {
+        handle = h;
+        try
+        {
+            long start = System.nanoTime();
+            budgetEnd = budget > 0 ? start + budget : Long.MAX_VALUE;
+            startClock(budget - budget / SAFETY_SHARE);
+            threatNodes = 0;
+            int move = search(mine, theirs);
+            searchNanos = System.nanoTime() - start;
+            if (h != null)
+            {
+                h.finish(move, completedDepth, nodes + threatNodes);
+            }
+            return move;
+        }
+        finally
+        {
+            handle = null;
+            if (h != null)
+            {
+                h.finish(); // only does something if the search threw
+            }
+        }
+    }
+
+    /**
+     * Goes through the steps in the class comment.
+     * @param mine stones of the player to move
+     * @param theirs the other player's stones
+     * @return cell of the chosen move, or -1 if the board is full
+     */
+    private int search(long mine, long theirs)
+    {
+        long empty = ~(mine | theirs);
+        if (empty == 0)
+        {
+            return -1;
+        }
+        long wins = QubicBoard.threats(mine, theirs);
+        if (wins != 0)
+        {
+            return Long.numberOfTrailingZeros(wins);
+        }
+        long blocks = QubicBoard.threats(theirs, mine);
+        if (blocks != 0)
+        {
+            return Long.numberOfTrailingZeros(blocks); // if there are two, the game is lost anyway
+        }
+        int forced = findForcedWin(mine, theirs, MAX_THREATS);
+        if (forced >= 0)
+        {
+            return forced;
+        }
+
+        int[] moves = moveBuffers[0];
+        int n = generateMoves(mine, theirs, 0, -1);
+        rootMine = mine;
+        rootTheirs = theirs;
+        int best = deepen(moves, n, Long.bitCount(empty));
+        return safeMove(mine, theirs, moves, n, best);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    int searchRoot(int move, int depth, int alpha)
+    {
+        return -negamax(rootTheirs, rootMine | 1L << move, depth - 1, 1, -INFINITY, -alpha);
+    }
+
+    /**
+     * Counts the forced-win searches' positions too.
+     * {@inheritDoc}
+     */
+    @Override
+    long reportedNodes()
+    {
+        return nodes + threatNodes;
+    }
+
+    /**
+     * Checks the best moves in order and returns the first one that leaves the
+     * other player no forced win, using the part of the budget alpha-beta left.
+     * @param mine stones of the player to move
+     * @param theirs the other player's stones
+     * @param moves the root moves, best first
+     * @param n number of moves
+     * @param best alpha-beta's choice, kept if no move is proven safe in time
+     * @return cell to play
+     */
+    private int safeMove(long mine, long theirs, int[] moves, int n, int best)
+    {
+        if (handle != null && handle.isStopRequested())
+        {
+            return best;
+        }
+        outOfTime = false;
+        deadline = budgetEnd;
+        for (int i = 0; i < n; i++)
+        {
+            boolean lost = findForcedWin(theirs, mine | 1L << moves[i], MAX_THREATS / 2) >= 0;
+            if (outOfTime)
+            {
+                break;
+            }
+            if (!lost)
+            {
+                return moves[i];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Threat-space search. The attacker only plays moves that make three in an
+     * open line, so the defender's reply is forced; the attacker wins when one
+     * move makes two such lines with different empty cells. If the defender has
+     * three in a line of their own, the attacker must block it, and only
+     * carries on if the block is also a threat.
+     * @param attacker attacker's stones, attacker to move
+     * @param defender defender's stones
+     * @param depth attacker moves left
+     * @return the attacker's first move of a forced win, or -1 if none was found
+     */
+    private int findForcedWin(long attacker, long defender, int depth)
+    {
+        threatNodes++;
+        if (stopNow(threatNodes) || depth == 0)
+        {
+            return -1;
+        }
+        long wins = QubicBoard.threats(attacker, defender);
+        if (wins != 0)
+        {
+            return Long.numberOfTrailingZeros(wins);
+        }
+        long mustBlock = QubicBoard.threats(defender, attacker);
+        if (Long.bitCount(mustBlock) > 1)
+        {
+            return -1;
+        }
+
+        long candidates = 0;
+        long[] lines = QubicBoard.LINES;
+        for (int i = 0; i < lines.length; i++)
+        {
+            long line = lines[i];
+            if ((line & defender) == 0 && Long.bitCount(line & attacker) == 2)
+            {
+                candidates |= line & ~attacker;
+            }
+        }
+        if (mustBlock != 0)
+        {
+            candidates &= mustBlock;
+        }
+
+        for (; candidates != 0; candidates &= candidates - 1)
+        {
+            int move = Long.numberOfTrailingZeros(candidates);
+            long next = attacker | 1L << move;
+            long threats = QubicBoard.threats(next, defender);
+            if (Long.bitCount(threats) > 1)
+            {
+                return move; // the defender can block only one
+            }
+            if (findForcedWin(next, defender | threats, depth - 1) >= 0)
+            {
+                return move;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Alpha-beta search in negamax form: values are from the point of view of the player to move.
+     * @param mine stones of the player to move
+     * @param theirs stones of the player who just moved
+     * @param depth moves left before evaluating
+     * @param ply moves made since the root
+     * @param alpha lower end of the window
+     * @param beta upper end of the window
+     * @return value of the position for the player to move
+     */
+    private int negamax(long mine, long theirs, int depth, int ply, int alpha, int beta)
+    {
+        nodes++;
+        if (stopNow(nodes))
+        {
+            return 0;
+        }
+        int score = scan(mine, theirs);
+        if (myThreats != 0)
+        {
+            return WIN - (ply + 1); // wins with the next move
+        }
+        if ((mine | theirs) == -1L)
+        {
+            return 0; // tie
+        }
+        long mustBlock = theirThreats;
+        if (Long.bitCount(mustBlock) > 1)
+        {
+            return -(WIN - (ply + 2)); // can only block one
+        }
+        if (mustBlock != 0)
+        {
+            // a forced reply does not use up depth
+            return -negamax(theirs, mine | mustBlock, depth, ply + 1, -beta, -alpha);
+        }
+        if (depth == 0)
+        {
+            return score;
+        }
+
+        long key = hash(mine, theirs);
+        long entry = table.probe(key);
+        if (SearchTable.cuts(entry, depth, ply, alpha, beta))
+        {
+            return SearchTable.value(entry, ply);
+        }
+
+        int alphaIn = alpha;
+        int[] moves = moveBuffers[ply];
+        int n = generateMoves(mine, theirs, ply, SearchTable.move(entry));
+        int best = -INFINITY;
+        int bestMove = -1;
+        for (int i = 0; i < n; i++)
+        {
+            int move = moves[i];
+            int value = -negamax(theirs, mine | 1L << move, depth - 1, ply + 1, -beta, -alpha);
+            if (value > best)
+            {
+                best = value;
+                bestMove = move;
+                if (value > alpha)
+                {
+                    alpha = value;
+                    if (alpha >= beta)
+                    {
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (!outOfTime)
+        {
+            table.store(key, best, bestMove, depth, ply, alphaIn, beta);
+        }
+        return best;
+    }
+
+    /**
+     * One pass over the 76 lines: finds both players' threats (into myThreats
+     * and theirThreats) and scores the position by open lines, where every line
+     * only one player has stones in is worth more the fuller it is.
+     * @param mine stones of the player to move
+     * @param theirs the other player's stones
+     * @return score, positive when the player to move is better off
+     */
+    private int scan(long mine, long theirs)
+    {
+        int score = 0;
+        long own = 0;
+        long other = 0;
+        long[] lines = QubicBoard.LINES;
+        for (int i = 0; i < lines.length; i++)
+        {
+            long line = lines[i];
+            if ((line & theirs) == 0)
+            {
+                int count = Long.bitCount(line & mine);
+                score += LINE_SCORE[count];
+                if (count == 3)
+                {
+                    own |= line & ~mine;
+                }
+            }
+            else if ((line & mine) == 0)
+            {
+                int count = Long.bitCount(line & theirs);
+                score -= LINE_SCORE[count];
+                if (count == 3)
+                {
+                    other |= line & ~theirs;
+                }
+            }
+        }
+        myThreats = own;
+        theirThreats = other;
+        return score;
+    }
+
+    /**
+     * Fills moveBuffers[ply] with the empty cells: the transposition table's
+     * move first, then by how much the open lines through them are worth to
+     * either player.
+     * @param mine stones of the player to move
+     * @param theirs the other player's stones
+     * @param ply which buffer to fill
+     * @param hashMove cell to try first, or -1
+     * @return number of moves
+     */
+    private int generateMoves(long mine, long theirs, int ply, int hashMove)
+    {
+        int[] moves = moveBuffers[ply];
+        int[] order = orderBuffers[ply];
+        int n = 0;
+        for (long empty = ~(mine | theirs); empty != 0; empty &= empty - 1)
+        {
+            int cell = Long.numberOfTrailingZeros(empty);
+            int u;
+            if (cell == hashMove)
+            {
+                u = Integer.MAX_VALUE;
+            }
+            else
+            {
+                u = 0;
+                int[] through = QubicBoard.CELL_LINES[cell];
+                for (int j = 0; j < through.length; j++)
+                {
+                    long line = QubicBoard.LINES[through[j]];
+                    if ((line & theirs) == 0)
+                    {
+                        u += LINE_SCORE[Long.bitCount(line & mine)] + 1;
+                    }
+                    if ((line & mine) == 0)
+                    {
+                        u += LINE_SCORE[Long.bitCount(line & theirs)] + 1;
+                    }
+                }
+            }
+            int i = n++;
+            while (i > 0 && order[i - 1] < u) // insertion sort, highest first
+            {
+                moves[i] = moves[i - 1];
+                order[i] = order[i - 1];
+                i--;
+            }
+            moves[i] = cell;
+            order[i] = u;
+        }
+        return n;
+    }
+
+    /**
+     * Mixes a position into its table key (the bits of 64-bit multiplies); the
+     * top bits pick the slot.
+     */
+    private static long hash(long mine, long theirs)
+    {
+        long h = mine * 0x9E3779B97F4A7C15L ^ Long.rotateLeft(theirs * 0xC2B2AE3D27D4EB4FL, 31);
+        return h ^ (h >>> 29);
+    }
+}
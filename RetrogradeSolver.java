@@ -0,0 +1,271 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ *  Strongly solves a small m,n,k game (3x4 or 4x4 with k = 3, say): the value
+ *  of every position the game can reach, with the human moving first, goes
+ *  into a RetrogradeTable, which can be written to a file and memory-mapped.
+ *
+ *  The solver works backwards from the full board, one level (number of
+ *  stones) at a time. A position whose last mover has k in a row is a LOSS
+ *  for the player to move; otherwise it is a WIN if some move leads to a LOSS
+ *  for the other player, a DRAW if the best move leads to a DRAW (or the board
+ *  is full), and a LOSS if every move leads to a WIN. Each level only reads
+ *  the level after it, which is finished, so a level is split into blocks of
+ *  BLOCK positions that the worker threads solve at the same time. Blocks
+ *  start on a byte boundary, so no two threads ever write the same byte.
+ *
+ *  Values live in one direct (off-heap) ByteBuffer at 2 bits per position:
+ *  4x4 has about 10 million positions and needs 2.5 MB, 4x5 has 741 million
+ *  and needs 185 MB, and the format goes up to about 8 billion positions (2 GB).
+ *
+ *  <br>Usage: java RetrogradeSolver rows cols k [file] [threads]
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public class RetrogradeSolver
+{
+    private static final int BLOCK = 1 << 16; // positions per task, a multiple of 4
+
+    private RetrogradeSolver()
+    {
+        // only static helpers
+    }
+
+    /**
+     * Solves every position of a game.
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param k stones in a row needed to win
+     * @param threads worker threads
+     * @return the solved table, held in off-heap memory
+     * @throws IllegalArgumentException if the board is too big
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public static RetrogradeTable solve(int rows, int cols, int k, int threads) throws InterruptedException
+    {
+        int cells = rows * cols;
+        if (cells > RetrogradeTable.MAX_CELLS || k < 1 || (k > rows && k > cols))
+        {
+            throw new IllegalArgumentException(rows + "x" + cols + " k = " + k + " can not be solved");
+        }
+        long bytes = RetrogradeTable.bytesFor(RetrogradeTable.size(cells));
+        if (bytes > Integer.MAX_VALUE)
+        {
+            throw new IllegalArgumentException(rows + "x" + cols + " needs " + bytes + " bytes, more than 2 GB");
+        }
+        final RetrogradeTable table = new RetrogradeTable(rows, cols, k, ByteBuffer.allocateDirect((int) bytes));
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try
+        {
+            for (int n = cells; n >= 0; n--)
+            {
+                final int level = n;
+                long start = table.levelStart(n);
+                long end = table.levelStart(n + 1);
+                List<Future<?>> blocks = new ArrayList<Future<?>>();
+                // the first block ends on a multiple of 4, so later blocks start on a whole byte
+                long from = start;
+                while (from < end)
+                {
+                    final long blockStart = from;
+                    final long blockEnd = Math.min(end, (from & ~3L) + BLOCK);
+                    blocks.add(pool.submit(() -> solveBlock(table, level, blockStart, blockEnd)));
+                    from = blockEnd;
+                }
+                for (Future<?> f : blocks)
+                {
+                    f.get();
+                }
+            }
+        }
+        catch (ExecutionException e)
+        {
+            throw new IllegalStateException("a solver thread failed", e.getCause());
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+        return table;
+    }
+
+    /**
+     * Writes a solved table to a file laid out as described in RetrogradeTable.
+     * @param table solved table
+     * @param file where to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void export(RetrogradeTable table, Path file) throws IOException
+    {
+        ByteBuffer values = table.values().duplicate();
+        values.clear();
+        ByteBuffer header = ByteBuffer.allocate(RetrogradeTable.HEADER_BYTES);
+        header.putInt(RetrogradeTable.MAGIC);
+        header.putInt(RetrogradeTable.VERSION);
+        header.putInt(table.rows);
+        header.putInt(table.cols);
+        header.putInt(table.k);
+        header.putInt(RetrogradeTable.checksum(values.duplicate()));
+        header.putLong(table.size());
+        header.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            while (header.hasRemaining())
+            {
+                channel.write(header);
+            }
+            while (values.hasRemaining())
+            {
+                channel.write(values);
+            }
+        }
+    }
+
+    /**
+     * Solves positions [from, to) of one level. from is the level start or a
+     * multiple of 4, and to is the level end or a multiple of 4.
+     * @param table table being filled
+     * @param n stones in this level
+     * @param from first index
+     * @param to index after the last
+     */
+    private static void solveBlock(RetrogradeTable table, int n, long from, long to)
+    {
+        int cells = table.rows * table.cols;
+        int humans = (n + 1) / 2;
+        long perOccupied = RetrogradeTable.BINOMIAL[n][humans];
+        long levelStart = table.levelStart(n);
+        boolean humanToMove = n % 2 == 0;
+        ByteBuffer values = table.values();
+        int[] occupiedCells = new int[n];
+
+        int packed = 0;
+        for (long index = from; index < to; index++)
+        {
+            long r = index - levelStart;
+            int occupied = RetrogradeTable.unrank(r / perOccupied, n, cells);
+            int humanPicks = RetrogradeTable.unrank(r % perOccupied, humans, n);
+            int j = 0;
+            for (int rest = occupied; rest != 0; rest &= rest - 1)
+            {
+                occupiedCells[j++] = rest & -rest;
+            }
+            int human = 0;
+            for (int rest = humanPicks; rest != 0; rest &= rest - 1)
+            {
+                human |= occupiedCells[Integer.numberOfTrailingZeros(rest)];
+            }
+            int computer = occupied & ~human;
+
+            int v = solvePosition(table, human, computer, humanToMove, n == cells);
+            int shift = (int) (index & 3) * 2;
+            packed |= v << shift;
+            if ((index & 3) == 3 || index == to - 1)
+            {
+                int at = (int) (index >>> 2);
+                int own = mask(index & ~3L, from, index);
+                if (own != 0xFF)
+                {
+                    // a byte shared with the level before or after, which no other thread is writing
+                    packed |= values.get(at) & ~own;
+                }
+                values.put(at, (byte) packed);
+                packed = 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the bits of a byte that hold the positions from max(first, from) to last.
+     */
+    private static int mask(long first, long from, long last)
+    {
+        int m = 0;
+        for (long i = Math.max(first, from); i <= last; i++)
+        {
+            m |= 3 << ((int) (i & 3) * 2);
+        }
+        return m;
+    }
+
+    /**
+     * Works out one position's value from the level after it.
+     * @param table table being filled
+     * @param human human's cells
+     * @param computer computer's cells
+     * @param humanToMove true if it is the human's turn
+     * @param full true if no cell is empty
+     * @return WIN, LOSS, DRAW or UNREACHABLE for the player to move
+     */
+    private static int solvePosition(RetrogradeTable table, int human, int computer,
+        boolean humanToMove, boolean full)
+    {
+        int mover = humanToMove ? human : computer;
+        int lastMover = humanToMove ? computer : human;
+        if (table.isWon(mover))
+        {
+            return RetrogradeTable.UNREACHABLE; // the game ended before this
+        }
+        if (table.isWon(lastMover))
+        {
+            return RetrogradeTable.LOSS;
+        }
+        if (full)
+        {
+            return RetrogradeTable.DRAW;
+        }
+
+        boolean draw = false;
+        int empty = ~(human | computer) & ((1 << (table.rows * table.cols)) - 1);
+        for (int rest = empty; rest != 0; rest &= rest - 1)
+        {
+            int bit = rest & -rest;
+            int child = humanToMove ? table.value(human | bit, computer) : table.value(human, computer | bit);
+            if (child == RetrogradeTable.LOSS)
+            {
+                return RetrogradeTable.WIN;
+            }
+            draw |= child == RetrogradeTable.DRAW;
+        }
+        return draw ? RetrogradeTable.DRAW : RetrogradeTable.LOSS;
+    }
+
+    /**
+     * Main method
+     * @param args rows cols k [file] [threads]
+     * @throws IOException if the file cannot be written
+     * @throws InterruptedException if interrupted while solving
+     */
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        int rows = Integer.parseInt(args[0]);
+        int cols = Integer.parseInt(args[1]);
+        int k = Integer.parseInt(args[2]);
+        Path file = Paths.get(args.length > 3 ? args[3] : rows + "x" + cols + "k" + k + ".mnk");
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        RetrogradeTable table = solve(rows, cols, k, threads);
+        long solved = System.nanoTime();
+        export(table, file);
+        String[] names = {"unreachable", "first player wins", "second player wins", "draw"};
+        System.out.printf("%dx%d k=%d: %d positions solved in %d ms on %d threads, written to %s in %d ms%n",
+            rows, cols, k, table.size(), (solved - start) / 1000000, threads, file,
+            (System.nanoTime() - solved) / 1000000);
+        System.out.println("empty board: " + names[table.value(0, 0)]);
+    }
+}
@@ -0,0 +1,367 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ *  The perfect-play value of every position of one m,n,k game, 2 bits per
+ *  position, as worked out by RetrogradeSolver. Loaded tables are
+ *  memory-mapped, so a lookup is one byte read plus ranking the position.
+ *
+ *  Positions are those the game can reach with the human moving first, so a
+ *  position with n stones has (n + 1) / 2 human stones and n / 2 computer
+ *  stones and it is the human's turn when n is even. They are numbered level
+ *  by level: all positions with 0 stones, then 1, and so on. Within a level,
+ *  index = rank of the occupied cells among all n-cell sets * C(n, humans)
+ *  + rank of which of those cells are the human's, where a set of cells
+ *  b1 &lt; b2 &lt; ... is ranked C(b1, 1) + C(b2, 2) + ... (colex order).
+ *  This numbering is dense: every index is a different board.
+ *
+ *  <br>File layout (big-endian header):
+ *  <br>int MAGIC, int VERSION, int rows, int cols, int k, int CRC32 of the values,
+ *  <br>long number of positions, then the values: position i is bits
+ *  (i % 4) * 2 and up of byte i / 4, holding WIN, LOSS or DRAW for the player
+ *  to move, or UNREACHABLE.
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public class RetrogradeTable
+{
+    public static final int MAGIC = 0x4D4E4B52; // "MNKR"
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 32;
+
+    /**
+     * The player to move already has k in a row, so the game can not get here.
+     */
+    public static final int UNREACHABLE = 0;
+    public static final int WIN = 1;
+    public static final int LOSS = 2;
+    public static final int DRAW = 3;
+
+    /**
+     * Most cells a table can have (cells are bits of an int).
+     */
+    public static final int MAX_CELLS = 30;
+
+    /**
+     * BINOMIAL[n][r] is n choose r.
+     */
+    static final long[][] BINOMIAL = buildBinomials();
+
+    public final int rows;
+    public final int cols;
+    public final int k;
+
+    private final int cells;
+    private final long[] levelStart; // index of the first position with n stones; levelStart[cells + 1] is the total
+    private final int[] windows; // masks of every k in a row
+    private final ByteBuffer values;
+
+    /**
+     * Create a table over a buffer of values.
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param k stones in a row needed to win
+     * @param values size(rows * cols) / 4 bytes, rounded up; position 0 is at index 0
+     */
+    RetrogradeTable(int rows, int cols, int k, ByteBuffer values)
+    {
+        this.rows = rows;
+        this.cols = cols;
+        this.k = k;
+        cells = rows * cols;
+        levelStart = levelStarts(cells);
+        int[][] windowCells = MNKBoard.buildWindows(rows, cols, k);
+        windows = new int[windowCells.length];
+        for (int w = 0; w < windowCells.length; w++)
+        {
+            for (int cell : windowCells[w])
+            {
+                windows[w] |= 1 << cell;
+            }
+        }
+        this.values = values;
+    }
+
+    /**
+     * Memory-maps a table file and checks its header and checksum.
+     * @param file file written by RetrogradeSolver
+     * @return the table, or null if the file is missing or does not check out
+     */
+    public static RetrogradeTable load(Path file)
+    {
+        if (!Files.isRegularFile(file))
+        {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            if (channel.size() < HEADER_BYTES)
+            {
+                return null;
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int rows = map.getInt(8);
+            int cols = map.getInt(12);
+            int k = map.getInt(16);
+            if (map.getInt(0) != MAGIC || map.getInt(4) != VERSION || rows < 1 || cols < 1
+                || rows * cols > MAX_CELLS || k < 1 || (k > rows && k > cols)
+                || map.getLong(24) != size(rows * cols)
+                || channel.size() != HEADER_BYTES + bytesFor(map.getLong(24)))
+            {
+                return null;
+            }
+
+            ByteBuffer body = map.duplicate();
+            body.position(HEADER_BYTES);
+            ByteBuffer slice = body.slice();
+            if (map.getInt(20) != checksum(slice.duplicate()))
+            {
+                return null;
+            }
+            return new RetrogradeTable(rows, cols, k, slice);
+        }
+        catch (IOException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Returns how many positions a table for this many cells holds.
+     * @param cells rows * cols
+     * @return number of positions
+     */
+    public static long size(int cells)
+    {
+        return levelStarts(cells)[cells + 1];
+    }
+
+    /**
+     * Returns the number of positions in this table.
+     * @return number of positions
+     */
+    public long size()
+    {
+        return levelStart[cells + 1];
+    }
+
+    /**
+     * Returns the value of a position with perfect play. Whose turn it is
+     * follows from the number of stones.
+     * @param human human's cells (bit = row * cols + column)
+     * @param computer computer's cells
+     * @return WIN, LOSS or DRAW for the player to move, or UNREACHABLE
+     * @throws IllegalArgumentException if the stone counts can not happen with the human moving first
+     */
+    public int value(int human, int computer)
+    {
+        return get(index(human, computer));
+    }
+
+    /**
+     * Returns a move that keeps the best value for the player to move.
+     * @param human human's cells
+     * @param computer computer's cells
+     * @return cell of the move, or -1 if the game is over
+     */
+    public int bestMove(int human, int computer)
+    {
+        int v = value(human, computer);
+        int n = Integer.bitCount(human | computer);
+        if (v == UNREACHABLE || v == LOSS && isWon(n % 2 == 0 ? computer : human) || n == cells)
+        {
+            return -1; // over, or every move loses equally
+        }
+        boolean humanToMove = n % 2 == 0;
+        int fallback = -1;
+        for (int cell = 0; cell < cells; cell++)
+        {
+            int bit = 1 << cell;
+            if (((human | computer) & bit) != 0)
+            {
+                continue;
+            }
+            int child = humanToMove ? value(human | bit, computer) : value(human, computer | bit);
+            if ((v == WIN && child == LOSS) || (v == DRAW && child == DRAW))
+            {
+                return cell;
+            }
+            if (fallback < 0)
+            {
+                fallback = cell;
+            }
+        }
+        return fallback;
+    }
+
+    /**
+     * Returns the index of a position.
+     * @param human human's cells
+     * @param computer computer's cells
+     * @return index into the values
+     * @throws IllegalArgumentException if the stone counts can not happen with the human moving first
+     */
+    public long index(int human, int computer)
+    {
+        int occupied = human | computer;
+        int n = Integer.bitCount(occupied);
+        int humans = Integer.bitCount(human);
+        if ((human & computer) != 0 || humans != (n + 1) / 2 || (occupied >>> cells) != 0)
+        {
+            throw new IllegalArgumentException("not a position of this game");
+        }
+        long occupiedRank = rank(occupied);
+        long humanRank = 0;
+        int i = 0;
+        int j = 0;
+        for (int rest = occupied; rest != 0; rest &= rest - 1)
+        {
+            int bit = rest & -rest;
+            if ((human & bit) != 0)
+            {
+                humanRank += BINOMIAL[j][++i];
+            }
+            j++;
+        }
+        return levelStart[n] + occupiedRank * BINOMIAL[n][humans] + humanRank;
+    }
+
+    /**
+     * Returns the index of the first position with n stones.
+     * @param n stones, 0 to cells + 1
+     * @return index
+     */
+    long levelStart(int n)
+    {
+        return levelStart[n];
+    }
+
+    /**
+     * Returns the 2-bit value at an index.
+     * @param index position index
+     * @return WIN, LOSS, DRAW or UNREACHABLE
+     */
+    int get(long index)
+    {
+        return values.get((int) (index >>> 2)) >>> ((int) (index & 3) * 2) & 3;
+    }
+
+    /**
+     * Checks if a set of cells holds k in a row.
+     * @param mask one player's cells
+     * @return true if it is a win
+     */
+    boolean isWon(int mask)
+    {
+        for (int i = 0; i < windows.length; i++)
+        {
+            if ((mask & windows[i]) == windows[i])
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the buffer holding the values.
+     * @return buffer whose byte 0 holds positions 0 - 3
+     */
+    ByteBuffer values()
+    {
+        return values;
+    }
+
+    /**
+     * Colex rank of a set of cells among the sets of the same size.
+     * @param set cells
+     * @return rank
+     */
+    static long rank(int set)
+    {
+        long r = 0;
+        int i = 0;
+        for (int rest = set; rest != 0; rest &= rest - 1)
+        {
+            r += BINOMIAL[Integer.numberOfTrailingZeros(rest)][++i];
+        }
+        return r;
+    }
+
+    /**
+     * The set of a given size with a given colex rank.
+     * @param r rank
+     * @param size number of cells in the set
+     * @param cells cells to choose from
+     * @return the set
+     */
+    static int unrank(long r, int size, int cells)
+    {
+        int set = 0;
+        int p = cells - 1;
+        for (int i = size; i > 0; i--)
+        {
+            while (BINOMIAL[p][i] > r)
+            {
+                p--;
+            }
+            set |= 1 << p;
+            r -= BINOMIAL[p][i];
+            p--;
+        }
+        return set;
+    }
+
+    /**
+     * Number of bytes for a number of 2-bit values.
+     * @param positions number of values
+     * @return bytes
+     */
+    static long bytesFor(long positions)
+    {
+        return (positions + 3) / 4;
+    }
+
+    /**
+     * CRC32 of the remaining bytes in a buffer.
+     * @param values buffer positioned at the first value
+     * @return checksum, truncated to an int
+     */
+    static int checksum(ByteBuffer values)
+    {
+        CRC32 crc = new CRC32();
+        crc.update(values);
+        return (int) crc.getValue();
+    }
+
+    private static long[] levelStarts(int cells)
+    {
+        long[] starts = new long[cells + 2];
+        for (int n = 0; n <= cells; n++)
+        {
+            starts[n + 1] = starts[n] + BINOMIAL[cells][n] * BINOMIAL[n][(n + 1) / 2];
+        }
+        return starts;
+    }
+
+    private static long[][] buildBinomials()
+    {
+        long[][] table = new long[MAX_CELLS + 1][MAX_CELLS + 2];
+        for (int n = 0; n <= MAX_CELLS; n++)
+        {
+            table[n][0] = 1;
+            for (int r = 1; r <= n; r++)
+            {
+                table[n][r] = table[n - 1][r - 1] + table[n - 1][r];
+            }
+        }
+        return table;
+    }
+}
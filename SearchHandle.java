@@ -0,0 +1,252 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ *  A search running in the background, from MNKEngine.submit. While it runs,
+ *  getBestMove() is the best move found so far and gets better as the search
+ *  goes deeper. The search ends when its time budget runs out or the board is
+ *  solved, when stop() asks for the answer now, or when cancel() throws it away.
+ *
+ *  Listeners run on the search thread, so a window should hand them on to the
+ *  Event Dispatch Thread (SwingUtilities.invokeLater) before touching Swing.
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public final class SearchHandle
+{
+    private final int cols; // to turn cells into {row, column}
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private final List<Consumer<SearchHandle>> progressListeners = new ArrayList<Consumer<SearchHandle>>();
+    private final List<Consumer<SearchHandle>> doneListeners = new ArrayList<Consumer<SearchHandle>>();
+    private volatile int bestCell = -1;
+    private volatile int depth;
+    private volatile long nodes;
+    private volatile boolean stopRequested;
+    private volatile boolean cancelled;
+    private boolean done; // guarded by this
+    private Future<?> future; // guarded by this
+
+    /**
+     * Create a handle for a search that has not started yet.
+     * @param cols number of columns on the board being searched
+     */
+    SearchHandle(int cols)
+    {
+        this.cols = cols;
+    }
+
+    /**
+     * Returns the best move found so far.
+     * @return {row, column}, or null if no move has been found yet or the board is full
+     */
+    public int[] getBestMove()
+    {
+        int cell = bestCell;
+        return cell < 0 ? null : new int[] {cell / cols, cell % cols};
+    }
+
+    /**
+     * Returns the deepest iteration finished so far.
+     * @return depth in moves
+     */
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    /**
+     * Returns how many positions had been visited at the last update.
+     * @return node count
+     */
+    public long getNodeCount()
+    {
+        return nodes;
+    }
+
+    /**
+     * Checks if the search has ended, for any reason.
+     * @return true if done or cancelled
+     */
+    public synchronized boolean isDone()
+    {
+        return done;
+    }
+
+    /**
+     * Checks if cancel() was called before the search ended.
+     * @return true if cancelled
+     */
+    public boolean isCancelled()
+    {
+        return cancelled;
+    }
+
+    /**
+     * Ends the search as soon as possible and keeps the best move so far as its answer.
+     * Done listeners are called as usual.
+     */
+    public void stop()
+    {
+        stopRequested = true;
+    }
+
+    /**
+     * Ends the search as soon as possible and throws its answer away: done
+     * listeners are not called, await() throws CancellationException, and a search
+     * that has not started yet never starts. Does nothing if the search already ended.
+     */
+    public void cancel()
+    {
+        Future<?> f;
+        synchronized (this)
+        {
+            if (done)
+            {
+                return;
+            }
+            cancelled = true;
+            stopRequested = true;
+            done = true;
+            f = future;
+        }
+        if (f != null)
+        {
+            f.cancel(false); // a running search notices stopRequested within a few microseconds
+        }
+        finished.countDown();
+    }
+
+    /**
+     * Waits for the search to end.
+     * @return the final {row, column}, or null if the board was full
+     * @throws InterruptedException if the waiting thread is interrupted
+     * @throws CancellationException if the search was cancelled
+     */
+    public int[] await() throws InterruptedException
+    {
+        finished.await();
+        if (cancelled)
+        {
+            throw new CancellationException();
+        }
+        return getBestMove();
+    }
+
+    /**
+     * Calls listener every time the best move changes or an iteration finishes.
+     * @param listener receives this handle, on the search thread
+     */
+    public synchronized void onProgress(Consumer<SearchHandle> listener)
+    {
+        progressListeners.add(listener);
+    }
+
+    /**
+     * Calls listener once when the search ends without being cancelled,
+     * straight away (on this thread) if it already has.
+     * @param listener receives this handle, on the search thread
+     */
+    public void whenDone(Consumer<SearchHandle> listener)
+    {
+        synchronized (this)
+        {
+            if (!done)
+            {
+                doneListeners.add(listener);
+                return;
+            }
+            if (cancelled)
+            {
+                return;
+            }
+        }
+        listener.accept(this);
+    }
+
+    /**
+     * Checks if the search should give up now. Called by the engine.
+     * @return true after stop() or cancel()
+     */
+    boolean isStopRequested()
+    {
+        return stopRequested;
+    }
+
+    /**
+     * Keeps the task running the search, so cancel() can remove it before it starts.
+     * @param f the task
+     */
+    synchronized void setFuture(Future<?> f)
+    {
+        future = f;
+    }
+
+    /**
+     * Publishes a better move or a deeper finished iteration. Called by the engine.
+     * @param cell best cell so far
+     * @param completedDepth deepest iteration finished
+     * @param nodeCount positions visited so far
+     */
+    void update(int cell, int completedDepth, long nodeCount)
+    {
+        bestCell = cell;
+        depth = completedDepth;
+        nodes = nodeCount;
+        List<Consumer<SearchHandle>> listeners;
+        synchronized (this)
+        {
+            if (done)
+            {
+                return;
+            }
+            listeners = new ArrayList<Consumer<SearchHandle>>(progressListeners);
+        }
+        for (Consumer<SearchHandle> listener : listeners)
+        {
+            listener.accept(this);
+        }
+    }
+
+    /**
+     * Ends a search that failed with the best move it had published, so
+     * listeners and await() are not left waiting. Does nothing if the search
+     * already ended. Called by the engine.
+     */
+    void finish()
+    {
+        finish(bestCell, depth, nodes);
+    }
+
+    /**
+     * Ends the search with its final answer. Called by the engine.
+     * @param cell chosen cell, or -1 if the board is full
+     * @param completedDepth deepest iteration finished
+     * @param nodeCount positions visited
+     */
+    void finish(int cell, int completedDepth, long nodeCount)
+    {
+        List<Consumer<SearchHandle>> listeners;
+        synchronized (this)
+        {
+            if (done)
+            {
+                return; // cancelled
+            }
+            bestCell = cell;
+            depth = completedDepth;
+            nodes = nodeCount;
+            done = true;
+            listeners = new ArrayList<Consumer<SearchHandle>>(doneListeners);
+        }
+        finished.countDown();
+        for (Consumer<SearchHandle> listener : listeners)
+        {
+            listener.accept(this);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+import java.util.Arrays;
+
+/**
+ *  The transposition table of the alpha-beta engines (MNKEngine, UltimateEngine
+ *  and QubicEngine). Each slot holds a position's 64-bit key and one long:
+ *  <br>value &lt;&lt; 32 | (best move + 1) &lt;&lt; 16 | depth &lt;&lt; 2 | bound
+ *  <br>where bound says if the value is EXACT or only a LOWER_BOUND or
+ *  UPPER_BOUND, and 0 means the slot is empty. A new entry always replaces
+ *  the old one.
+ *
+ *  Wins and losses are stored as distance from the stored position rather
+ *  than from the root, so an entry is right wherever the position turns up
+ *  again.
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+final class SearchTable
+{
+    private static final int EXACT = 1;
+    private static final int LOWER_BOUND = 2;
+    private static final int UPPER_BOUND = 3;
+
+    private static final int MATE_RANGE = 1000; // values this close to WIN are wins or losses
+
+    private final int bits;
+    private final long[] keys; // full key of the position in each slot
+    private final long[] entries;
+
+    /**
+     * Create an empty table.
+     * @param bits the table has 2^bits slots
+     */
+    SearchTable(int bits)
+    {
+        this.bits = bits;
+        keys = new long[1 << bits];
+        entries = new long[1 << bits];
+    }
+
+    /**
+     * Looks a position up.
+     * @param key the position's key; its top bits pick the slot
+     * @return the entry, or 0 if the position is not stored
+     */
+    long probe(long key)
+    {
+        int slot = (int) (key >>> (64 - bits));
+        long entry = entries[slot];
+        return entry != 0 && keys[slot] == key ? entry : 0;
+    }
+
+    /**
+     * Stores a searched position.
+     * @param key the position's key
+     * @param value what the search returned
+     * @param move best move found, or -1
+     * @param depth depth the position was searched to
+     * @param ply moves from the root to the position
+     * @param alpha lower end of the window the search started with
+     * @param beta upper end of the window
+     */
+    void store(long key, int value, int move, int depth, int ply, int alpha, int beta)
+    {
+        int bound = value <= alpha ? UPPER_BOUND : value >= beta ? LOWER_BOUND : EXACT;
+        int slot = (int) (key >>> (64 - bits));
+        keys[slot] = key;
+        entries[slot] = (long) toTable(value, ply) << 32 | (long) (move + 1) << 16
+            | (long) depth << 2 | bound;
+    }
+
+    /**
+     * Empties the table.
+     */
+    void clear()
+    {
+        Arrays.fill(keys, 0);
+        Arrays.fill(entries, 0);
+    }
+
+    /**
+     * Checks if an entry settles a search without searching.
+     * @param entry from probe
+     * @param depth depth still to search
+     * @param ply moves from the root
+     * @param alpha lower end of the window
+     * @param beta upper end of the window
+     * @return true if value(entry, ply) can be returned straight away
+     */
+    static boolean cuts(long entry, int depth, int ply, int alpha, int beta)
+    {
+        if (entry == 0 || ((int) entry >>> 2 & 0x3FFF) < depth)
+        {
+            return false;
+        }
+        int bound = (int) entry & 3;
+        int stored = value(entry, ply);
+        return bound == EXACT
+            || (bound == LOWER_BOUND && stored >= beta)
+            || (bound == UPPER_BOUND && stored <= alpha);
+    }
+
+    /**
+     * Reads the value out of an entry.
+     * @param entry from probe
+     * @param ply moves from the root
+     * @return value, with wins and losses counted from the root again
+     */
+    static int value(long entry, int ply)
+    {
+        int value = (int) (entry >> 32);
+        if (value > DeepeningSearch.WIN - MATE_RANGE)
+        {
+            return value - ply;
+        }
+        else if (value < -(DeepeningSearch.WIN - MATE_RANGE))
+        {
+            return value + ply;
+        }
+        return value;
+    }
+
+    /**
+     * Reads the best move out of an entry.
+     * @param entry from probe
+     * @return the move, or -1 for an empty entry
+     */
+    static int move(long entry)
+    {
+        return (int) (entry >>> 16 & 0xFFFF) - 1;
+    }
+
+    private static int toTable(int value, int ply)
+    {
+        if (value > DeepeningSearch.WIN - MATE_RANGE)
+        {
+            return value + ply;
+        }
+        else if (value < -(DeepeningSearch.WIN - MATE_RANGE))
+        {
+            return value - ply;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,390 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ *  Plays lots of 3x3 games between two computer players without any windows,
+ *  to check how engine changes affect results and speed.
+ *
+ *  <br>Usage: java Simulator [games] [threads] [playerA] [playerB]
+ *  <br>Players: ai (the Normal level), aimm (the Unbeatable level), mcts (MCTSEngine
+ *  with MCTS_PLAYOUTS playouts a move), negamax (NegamaxEngine), random.
+ *  <br>Defaults: 100000 games, one thread per core, ai vs aimm.
+ *
+ *  Player A moves first in even games and second in odd games. Results are
+ *  counted from A's side. Moving onto a taken square loses the game and is
+ *  also counted as an illegal move.
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public class Simulator
+{
+    /**
+     * Playouts per move for the mcts player.
+     */
+    public static final int MCTS_PLAYOUTS = 2000;
+
+    /**
+     * One computer player. Squares are bit indexes (square number - 1).
+     */
+    public interface Agent
+    {
+        /**
+         * Called before every game.
+         */
+        void newGame();
+
+        /**
+         * Picks a move.
+         * @param mine this player's squares
+         * @param theirs the other player's squares
+         * @param lastMove square the other player just took, or -1 if this is the first move
+         * @return square to take
+         */
+        int move(int mine, int theirs, int lastMove);
+    }
+
+    /**
+     * Totals for a batch of games. Each worker fills its own and they are merged at the end.
+     */
+    public static class Results
+    {
+        public long winsA;
+        public long winsB;
+        public long draws;
+        public long illegalA;
+        public long illegalB;
+        public final LatencyHistogram latencyA = new LatencyHistogram();
+        public final LatencyHistogram latencyB = new LatencyHistogram();
+
+        /**
+         * Adds another batch to this one.
+         * @param other batch to add
+         */
+        public void merge(Results other)
+        {
+            winsA += other.winsA;
+            winsB += other.winsB;
+            draws += other.draws;
+            illegalA += other.illegalA;
+            illegalB += other.illegalB;
+            latencyA.merge(other.latencyA);
+            latencyB.merge(other.latencyB);
+        }
+
+        /**
+         * Returns the number of games played.
+         * @return games
+         */
+        public long games()
+        {
+            return winsA + winsB + draws;
+        }
+    }
+
+    private Simulator()
+    {
+        // only static helpers
+    }
+
+    /**
+     * Makes a fresh player. Players are not thread safe, so each worker makes its own.
+     * @param name ai, aimm, mcts, negamax or random
+     * @param seed seed for any randomness
+     * @return the player
+     */
+    public static Agent createAgent(String name, long seed)
+    {
+        if (name.equals("ai"))
+        {
+            return new NormalAgent();
+        }
+        else if (name.equals("aimm"))
+        {
+            return new UnbeatableAgent();
+        }
+        else if (name.equals("mcts"))
+        {
+            return new MonteCarloAgent();
+        }
+        else if (name.equals("negamax"))
+        {
+            return new NegamaxAgent();
+        }
+        else if (name.equals("random"))
+        {
+            return new RandomAgent(seed);
+        }
+        throw new IllegalArgumentException("unknown player: " + name);
+    }
+
+    /**
+     * Plays one game. The first player takes the human's side of rules.
+     * @param rules rules to play on; reset before the game starts
+     * @param first player who moves first
+     * @param second player who moves second
+     * @param latencyFirst where to record the first player's move times
+     * @param latencySecond where to record the second player's move times
+     * @return 1 if first wins, -1 if second wins, 0 for a tie; 2 or -2 if first/second
+     *      lost by an illegal move
+     */
+    public static int playGame(GameRules rules, Agent first, Agent second,
+        LatencyHistogram latencyFirst, LatencyHistogram latencySecond)
+    {
+        rules.reset();
+        first.newGame();
+        second.newGame();
+        int lastMove = -1;
+        while (rules.result() == GameRules.CONTINUE)
+        {
+            boolean firstMoves = rules.getPlayerToMove() == 1;
+            long start = System.nanoTime();
+            int move = firstMoves
+                ? first.move(rules.getHuman(), rules.getComputer(), lastMove)
+                : second.move(rules.getComputer(), rules.getHuman(), lastMove);
+            (firstMoves ? latencyFirst : latencySecond).record(System.nanoTime() - start);
+
+            if (move < 0 || move > 8 || rules.get(move) != 0)
+            {
+                return firstMoves ? -2 : 2;
+            }
+            rules.play(move, firstMoves ? 1 : -1);
+            lastMove = move;
+        }
+        return GameRules.winner(rules.result());
+    }
+
+    /**
+     * Plays many games on several threads.
+     * @param games number of games
+     * @param threads number of worker threads
+     * @param nameA player A
+     * @param nameB player B
+     * @return merged results
+     * @throws Exception if a worker fails
+     */
+    public static Results run(long games, int threads, String nameA, String nameB) throws Exception
+    {
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        try
+        {
+            List<Future<Results>> parts = new ArrayList<Future<Results>>();
+            for (int t = 0; t < threads; t++)
+            {
+                final long share = games / threads + (t < games % threads ? 1 : 0);
+                final long seed = t;
+                parts.add(workers.submit(() -> runBatch(share, nameA, nameB, seed)));
+            }
+            Results total = new Results();
+            for (Future<Results> part : parts)
+            {
+                total.merge(part.get());
+            }
+            return total;
+        }
+        finally
+        {
+            workers.shutdown();
+        }
+    }
+
+    private static Results runBatch(long games, String nameA, String nameB, long seed)
+    {
+        Agent a = createAgent(nameA, seed * 2);
+        Agent b = createAgent(nameB, seed * 2 + 1);
+        Results results = new Results();
+        GameRules rules = new GameRules();
+        for (long g = 0; g < games; g++)
+        {
+            boolean aFirst = (g & 1) == 0;
+            int outcome = aFirst
+                ? playGame(rules, a, b, results.latencyA, results.latencyB)
+                : -playGame(rules, b, a, results.latencyB, results.latencyA);
+            if (outcome > 0)
+            {
+                results.winsA++;
+                if (outcome == 2)
+                {
+                    results.illegalB++;
+                }
+            }
+            else if (outcome < 0)
+            {
+                results.winsB++;
+                if (outcome == -2)
+                {
+                    results.illegalA++;
+                }
+            }
+            else
+            {
+                results.draws++;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Main method
+     * @param args [games] [threads] [playerA] [playerB]
+     * @throws Exception if a worker fails
+     */
+    public static void main(String[] args) throws Exception
+    {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 100000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        String nameA = args.length > 2 ? args[2] : "ai";
+        String nameB = args.length > 3 ? args[3] : "aimm";
+
+        long start = System.nanoTime();
+        Results r = run(games, threads, nameA, nameB);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long n = r.games();
+        System.out.printf("%s vs %s: %d games on %d threads in %.2f s (%.0f games/s)%n",
+            nameA, nameB, n, threads, seconds, n / seconds);
+        System.out.printf("  %s wins %.2f%%, draws %.2f%%, %s wins %.2f%%%n",
+            nameA, 100.0 * r.winsA / n, 100.0 * r.draws / n, nameB, 100.0 * r.winsB / n);
+        System.out.printf("  illegal moves: %s %d, %s %d%n", nameA, r.illegalA, nameB, r.illegalB);
+        System.out.println("  " + nameA + " move latency: " + r.latencyA.summary());
+        System.out.println("  " + nameB + " move latency: " + r.latencyB.summary());
+    }
+
+    /**
+     * The Normal level. AI remembers the game's move history, so it gets a
+     * fresh AI every game and is told each of the other player's moves.
+     */
+    private static class NormalAgent implements Agent
+    {
+        private AI ai;
+
+        @Override
+        public void newGame()
+        {
+            ai = new AI();
+        }
+
+        @Override
+        public int move(int mine, int theirs, int lastMove)
+        {
+            // AI sees the other player as the human
+            return ai.chooseMove(GameState.of(theirs, mine, true), lastMove + 1) - 1;
+        }
+    }
+
+    /**
+     * The Unbeatable level, searching with alpha-beta and a transposition
+     * table that is kept for all of this worker's games.
+     */
+    private static class UnbeatableAgent implements Agent
+    {
+        private final AIMM ai;
+
+        UnbeatableAgent()
+        {
+            ai = new AIMM(null);
+            ai.setAlphaBeta(true);
+            ai.setTranspositionTable(new TranspositionTable());
+        }
+
+        @Override
+        public void newGame()
+        {
+            // nothing to reset
+        }
+
+        @Override
+        public int move(int mine, int theirs, int lastMove)
+        {
+            return ai.getBestMove(theirs, mine);
+        }
+    }
+
+    /**
+     * MCTSEngine on one thread (the Simulator already runs a game per core) with a
+     * fixed number of playouts, so results do not depend on the machine's speed.
+     * The tree is reused from one move to the next within a game.
+     */
+    private static class MonteCarloAgent implements Agent
+    {
+        private final MCTSEngine engine;
+
+        MonteCarloAgent()
+        {
+            engine = new MCTSEngine(3, 3, 3, 0, 1);
+            engine.setPlayoutLimit(MCTS_PLAYOUTS);
+        }
+
+        @Override
+        public void newGame()
+        {
+            // a new game's empty board never matches the old tree, so it starts afresh
+        }
+
+        @Override
+        public int move(int mine, int theirs, int lastMove)
+        {
+            return engine.getBestCell(theirs, mine);
+        }
+    }
+
+    /**
+     * NegamaxEngine searching every move to the end. Its transposition table is
+     * kept for all of this worker's games.
+     */
+    private static class NegamaxAgent implements Agent
+    {
+        private final NegamaxEngine engine = new NegamaxEngine(3, 3, 3, 0);
+        private final int[][] brd = new int[3][3];
+
+        @Override
+        public void newGame()
+        {
+            // nothing to reset
+        }
+
+        @Override
+        public int move(int mine, int theirs, int lastMove)
+        {
+            for (int i = 0; i < 9; i++)
+            {
+                brd[i / 3][i % 3] = (theirs >> i & 1) - (mine >> i & 1);
+            }
+            return engine.getBestCell(brd, -1);
+        }
+    }
+
+    /**
+     * Picks any empty square.
+     */
+    private static class RandomAgent implements Agent
+    {
+        private final SplittableRandom random;
+
+        RandomAgent(long seed)
+        {
+            random = new SplittableRandom(seed);
+        }
+
+        @Override
+        public void newGame()
+        {
+            // nothing to reset
+        }
+
+        @Override
+        public int move(int mine, int theirs, int lastMove)
+        {
+            int empty = Bitboard.empty(mine, theirs);
+            for (int skip = random.nextInt(Integer.bitCount(empty)); skip > 0; skip--)
+            {
+                empty &= empty - 1;
+            }
+            return Integer.numberOfTrailingZeros(empty);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ *  Read-only view of the perfect-play file written by TablebaseGenerator.
+ *  The file is memory-mapped, so a lookup is a single byte read.
+ *
+ *  <br>File layout (big-endian):
+ *  <br>int MAGIC, int VERSION, int entry count, int CRC32 of the entries,
+ *  <br>then one byte per entry.
+ *
+ *  <br>Entry i = code * 2 + (1 if the computer is to move, 0 if the human is), where
+ *  code is the board in base 3 (0 empty, 1 human, 2 computer, square 1 is the lowest digit).
+ *  The low 4 bits of an entry are the best square index (0 - 8), or NO_MOVE if the game is over;
+ *  bits 4 - 5 are the value with perfect play: 0 tie, 1 computer win, 2 human win.
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public class Tablebase
+{
+    public static final String DEFAULT_FILE = "tictactoe.tb";
+
+    public static final int MAGIC = 0x54544254; // "TTBT"
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 16;
+    public static final int ENTRIES = 19683 * 2; // 3^9 boards, 2 sides to move
+
+    public static final int NO_MOVE = 15;
+
+    /**
+     * BASE3[mask] is the sum of 3^i over the set bits i, so a board's code is
+     * BASE3[human] + 2 * BASE3[computer].
+     */
+    private static final int[] BASE3 = buildBase3();
+
+    private static Tablebase defaultTable;
+    private static boolean defaultLoaded;
+
+    private final ByteBuffer entries;
+
+    private Tablebase(ByteBuffer entries)
+    {
+        this.entries = entries;
+    }
+
+    /**
+     * Returns the table in DEFAULT_FILE, loading it the first time.
+     * @return the shared table, or null if the file is missing or damaged
+     */
+    public static synchronized Tablebase getDefault()
+    {
+        if (!defaultLoaded)
+        {
+            defaultTable = load(Paths.get(DEFAULT_FILE));
+            defaultLoaded = true;
+        }
+        return defaultTable;
+    }
+
+    /**
+     * Memory-maps a table file and checks its header and checksum.
+     * @param file file written by TablebaseGenerator
+     * @return the table, or null if the file is missing or does not check out
+     */
+    public static Tablebase load(Path file)
+    {
+        if (!Files.isRegularFile(file))
+        {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            if (channel.size() != HEADER_BYTES + ENTRIES)
+            {
+                return null;
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (map.getInt(0) != MAGIC || map.getInt(4) != VERSION || map.getInt(8) != ENTRIES)
+            {
+                return null;
+            }
+
+            ByteBuffer body = map.duplicate();
+            body.position(HEADER_BYTES);
+            ByteBuffer slice = body.slice();
+            if (map.getInt(12) != checksum(slice.duplicate()))
+            {
+                return null;
+            }
+            return new Tablebase(slice);
+        }
+        catch (IOException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the perfect-play move for the side to move.
+     * @param human human's squares
+     * @param computer computer's squares
+     * @param computerToMove true if it is the computer's turn
+     * @return square index (square number - 1), or -1 if the game is over
+     */
+    public int bestMove(int human, int computer, boolean computerToMove)
+    {
+        int move = entry(human, computer, computerToMove) & 0xF;
+        return move == NO_MOVE ? -1 : move;
+    }
+
+    /**
+     * Returns the value of a position with perfect play, using AIMM's scale.
+     * @param human human's squares
+     * @param computer computer's squares
+     * @param computerToMove true if it is the computer's turn
+     * @return 10 for computer win, -10 for human win, 0 for tie
+     */
+    public int value(int human, int computer, boolean computerToMove)
+    {
+        return decodeValue(entry(human, computer, computerToMove) >>> 4);
+    }
+
+    /**
+     * Returns the entry index of a position.
+     * @param human human's squares
+     * @param computer computer's squares
+     * @param computerToMove true if it is the computer's turn
+     * @return index into the entries
+     */
+    public static int index(int human, int computer, boolean computerToMove)
+    {
+        int code = BASE3[human] + 2 * BASE3[computer];
+        return computerToMove ? code * 2 + 1 : code * 2;
+    }
+
+    /**
+     * Packs a move and value into one entry.
+     * @param move square index, or -1 if the game is over
+     * @param value 10, 0 or -10
+     * @return entry byte
+     */
+    static byte encode(int move, int value)
+    {
+        int v = value > 0 ? 1 : (value < 0 ? 2 : 0);
+        return (byte) ((v << 4) | (move < 0 ? NO_MOVE : move));
+    }
+
+    /**
+     * CRC32 of the remaining bytes in a buffer.
+     * @param entries buffer positioned at the first entry
+     * @return checksum, truncated to an int
+     */
+    static int checksum(ByteBuffer entries)
+    {
+        CRC32 crc = new CRC32();
+        crc.update(entries);
+        return (int) crc.getValue();
+    }
+
+    private int entry(int human, int computer, boolean computerToMove)
+    {
+        return entries.get(index(human, computer, computerToMove));
+    }
+
+    private static int decodeValue(int v)
+    {
+        if (v == 1)
+        {
+            return 10;
+        }
+        else if (v == 2)
+        {
+            return -10;
+        }
+        return 0;
+    }
+
+    private static int[] buildBase3()
+    {
+        int[] table = new int[512];
+        for (int mask = 0; mask < 512; mask++)
+        {
+            int code = 0;
+            for (int sq = 8; sq >= 0; sq--)
+            {
+                code = code * 3 + ((mask >>> sq) & 1);
+            }
+            table[mask] = code;
+        }
+        return table;
+    }
+}
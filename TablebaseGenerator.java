@@ -0,0 +1,141 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ *  Solves every 3x3 position once and writes the Tablebase file.
+ *  Each of the 3^9 boards is solved for both sides to move with AIMM's
+ *  alpha-beta search, so the stored computer moves are the same ones the
+ *  unbeatable level would find by searching.
+ *
+ *  <br>Usage: java TablebaseGenerator [file]  (default tictactoe.tb)
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public class TablebaseGenerator
+{
+    private TablebaseGenerator()
+    {
+        // only static helpers
+    }
+
+    /**
+     * Solves every position.
+     * @return one entry per position, laid out as described in Tablebase
+     */
+    public static byte[] generate()
+    {
+        AIMM ai = new AIMM(null);
+        ai.setAlphaBeta(true);
+        ai.setTranspositionTable(new TranspositionTable());
+
+        int[] positions = new int[19683];
+        for (int code = 0; code < positions.length; code++)
+        {
+            int human = 0;
+            int computer = 0;
+            int rest = code;
+            for (int sq = 0; sq < 9; sq++)
+            {
+                if (rest % 3 == 1)
+                {
+                    human |= 1 << sq;
+                }
+                else if (rest % 3 == 2)
+                {
+                    computer |= 1 << sq;
+                }
+                rest /= 3;
+            }
+            positions[code] = BatchEvaluator.pack(human, computer);
+        }
+        // finished boards are sorted out in one pass, so only games still going are searched
+        int[] results = new int[positions.length];
+        BatchEvaluator.classify(positions, results);
+
+        byte[] entries = new byte[Tablebase.ENTRIES];
+        for (int code = 0; code < positions.length; code++)
+        {
+            if (results[code] != BatchEvaluator.ONGOING)
+            {
+                int score = results[code] == BatchEvaluator.HUMAN_WINS ? -10
+                    : results[code] == BatchEvaluator.COMPUTER_WINS ? 10 : 0;
+                entries[code * 2] = Tablebase.encode(-1, score); // game is already over
+                entries[code * 2 + 1] = entries[code * 2];
+                continue;
+            }
+            int human = GameState.human(positions[code]);
+            int computer = GameState.computer(positions[code]);
+            entries[code * 2] = solve(ai, human, computer, false);
+            entries[code * 2 + 1] = solve(ai, human, computer, true);
+        }
+        return entries;
+    }
+
+    /**
+     * Writes a complete table file.
+     * @param file where to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path file) throws IOException
+    {
+        byte[] entries = generate();
+        ByteBuffer out = ByteBuffer.allocate(Tablebase.HEADER_BYTES + entries.length);
+        out.putInt(Tablebase.MAGIC);
+        out.putInt(Tablebase.VERSION);
+        out.putInt(entries.length);
+        out.putInt(Tablebase.checksum(ByteBuffer.wrap(entries)));
+        out.put(entries);
+        Files.write(file, out.array());
+    }
+
+    /**
+     * Finds the value and best move of a position whose game is still going.
+     * @return encoded entry
+     */
+    private static byte solve(AIMM ai, int human, int computer, boolean computerToMove)
+    {
+        if (computerToMove)
+        {
+            int move = ai.getBestMove(human, computer);
+            return Tablebase.encode(move, ai.alphaBeta(human, computer | (1 << move),
+                Integer.MIN_VALUE, Integer.MAX_VALUE, false));
+        }
+
+        // the human's best reply: lowest value, first in AIMM's move order on ties
+        int empty = Bitboard.empty(human, computer);
+        int minValue = Integer.MAX_VALUE;
+        int finalMove = -1;
+        for (int i = 0; i < AIMM.MOVE_ORDER.length; i++)
+        {
+            int bit = AIMM.MOVE_ORDER[i];
+            if ((empty & bit) != 0)
+            {
+                int v = ai.alphaBeta(human | bit, computer, Integer.MIN_VALUE, Integer.MAX_VALUE, true);
+                if (v < minValue)
+                {
+                    minValue = v;
+                    finalMove = Integer.numberOfTrailingZeros(bit);
+                }
+            }
+        }
+        return Tablebase.encode(finalMove, minValue);
+    }
+
+    /**
+     * Main method
+     * @param args optional output file
+     * @throws IOException if the file cannot be written
+     */
+    public static void main(String[] args) throws IOException
+    {
+        Path file = Paths.get(args.length > 0 ? args[0] : Tablebase.DEFAULT_FILE);
+        long start = System.nanoTime();
+        write(file);
+        System.out.printf("wrote %d positions to %s in %d ms%n", Tablebase.ENTRIES, file,
+            (System.nanoTime() - start) / 1000000);
+    }
+}
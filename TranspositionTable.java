@@ -0,0 +1,182 @@
+import java.util.Arrays;
+
+/**
+ *  Remembers values AIMM has already worked out, so the same position is not
+ *  searched twice. A position and its 7 rotations/reflections all have the same
+ *  value, so they share one entry: the key is the smallest encoding among the 8.
+ *
+ *  Every possible key gets its own byte, so there are no collisions and no
+ *  replacement. An entry keeps a value code and whether the value is exact or
+ *  only a lower/upper bound (alpha-beta searches often only prove a bound).
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public class TranspositionTable
+{
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int UPPER_BOUND = 3;
+
+    /**
+     * SYMMETRIES[s * 512 + mask] is mask after symmetry s (identity, 3 rotations, 4 reflections).
+     */
+    private static final short[] SYMMETRIES = buildSymmetries();
+
+    private final byte[] entries; // 0 for empty, otherwise (bound << 2) | (value / 10 + 1)
+    private long hits;
+    private long misses;
+
+    /**
+     * Create a new, empty table.
+     */
+    public TranspositionTable()
+    {
+        entries = new byte[1 << 19]; // 9 bits per player + side to move
+    }
+
+    /**
+     * Create a new table holding the same entries as another, with the counters at zero.
+     * @param other table to copy; it must not be changed while it is copied
+     */
+    public TranspositionTable(TranspositionTable other)
+    {
+        entries = other.entries.clone();
+    }
+
+    /**
+     * Returns the key shared by a position and all of its symmetric copies.
+     * @param human human's squares
+     * @param computer computer's squares
+     * @param computerToMove true if it is the computer's turn
+     * @return canonical key (19 bits)
+     */
+    public static int key(int human, int computer, boolean computerToMove)
+    {
+        int best = human | (computer << 9);
+        for (int s = 512; s < SYMMETRIES.length; s += 512)
+        {
+            int code = SYMMETRIES[s + human] | (SYMMETRIES[s + computer] << 9);
+            if (code < best)
+            {
+                best = code;
+            }
+        }
+        return computerToMove ? best | (1 << 18) : best;
+    }
+
+    /**
+     * Looks up a key and counts the hit or miss.
+     * @param key key from key()
+     * @return 0 if nothing is stored, otherwise an entry to read with value() and bound()
+     */
+    public int probe(int key)
+    {
+        int entry = entries[key];
+        if (entry == 0)
+        {
+            misses++;
+        }
+        else
+        {
+            hits++;
+        }
+        return entry;
+    }
+
+    /**
+     * Stores a searched value.
+     * @param key key from key()
+     * @param value -10, 0 or 10
+     * @param bound EXACT, LOWER_BOUND or UPPER_BOUND
+     */
+    public void store(int key, int value, int bound)
+    {
+        entries[key] = (byte) ((bound << 2) | (value / 10 + 1));
+    }
+
+    /**
+     * Returns the value held in an entry.
+     * @param entry non-zero result of probe()
+     * @return -10, 0 or 10
+     */
+    public static int value(int entry)
+    {
+        return ((entry & 3) - 1) * 10;
+    }
+
+    /**
+     * Returns what kind of value an entry holds.
+     * @param entry non-zero result of probe()
+     * @return EXACT, LOWER_BOUND or UPPER_BOUND
+     */
+    public static int bound(int entry)
+    {
+        return entry >>> 2;
+    }
+
+    /**
+     * Returns how many probes found an entry.
+     * @return hit count
+     */
+    public long getHits()
+    {
+        return hits;
+    }
+
+    /**
+     * Returns how many probes found nothing.
+     * @return miss count
+     */
+    public long getMisses()
+    {
+        return misses;
+    }
+
+    /**
+     * Forgets every entry and resets the counters.
+     */
+    public void clear()
+    {
+        Arrays.fill(entries, (byte) 0);
+        hits = 0;
+        misses = 0;
+    }
+
+    /**
+     * Precomputes where every square goes under the 8 symmetries of the board.
+     * @return table of transformed masks
+     */
+    private static short[] buildSymmetries()
+    {
+        short[] table = new short[8 * 512];
+        for (int s = 0; s < 8; s++)
+        {
+            for (int mask = 0; mask < 512; mask++)
+            {
+                int moved = 0;
+                for (int sq = 0; sq < 9; sq++)
+                {
+                    if ((mask & (1 << sq)) != 0)
+                    {
+                        int r = sq / 3;
+                        int c = sq % 3;
+                        for (int turn = 0; turn < (s & 3); turn++) // rotate clockwise
+                        {
+                            int oldR = r;
+                            r = c;
+                            c = 2 - oldR;
+                        }
+                        if (s >= 4) // then mirror left to right
+                        {
+                            c = 2 - c;
+                        }
+                        moved |= 1 << (r * 3 + c);
+                    }
+                }
+                table[s * 512 + mask] = (short) moved;
+            }
+        }
+        return table;
+    }
+}
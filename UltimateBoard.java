@@ -0,0 +1,356 @@
+import java.util.SplittableRandom;
+
+/**
+ *  An Ultimate tic-tac-toe position: nine small 3x3 boards laid out like the
+ *  squares of a big one. Playing on square s of a small board sends the other
+ *  player to small board s, unless that board is already won or full, in
+ *  which case they may play on any open board. Winning a small board claims
+ *  that square of the big board, and three claimed squares in a row win.
+ *
+ *  The whole state is nine ints, one per small board, holding a Bitboard pair
+ *  (human bits 0 - 8, computer bits 9 - 17), plus the board the next move must
+ *  go to. Which small boards are won or full is kept as three 9-bit masks so
+ *  the big board is a Bitboard pair too. A move is a number from 0 to 80:
+ *  board * 9 + square, where both count like the 3x3 squares (number - 1).
+ *
+ *  play/undo change one small board and keep a 64-bit Zobrist key of the
+ *  whole state (stones, the board constraint and the side to move) up to date
+ *  with a few XORs. The human always moves first.
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public class UltimateBoard
+{
+    /**
+     * Number of moves on a full board.
+     */
+    public static final int CELLS = 81;
+
+    /**
+     * The next move may go to any open board.
+     */
+    public static final int ANY_BOARD = -1;
+
+    private static final int COMPUTER_SHIFT = 9;
+
+    /**
+     * WIN[mask] is true if the 9-bit mask holds a line.
+     */
+    private static final boolean[] WIN = buildWins();
+
+    private static final long[] HUMAN_KEYS = new long[CELLS];
+    private static final long[] COMPUTER_KEYS = new long[CELLS];
+    private static final long[] NEXT_KEYS = new long[10]; // for ANY_BOARD and boards 0 - 8
+    private static final long COMPUTER_TO_MOVE;
+
+    static
+    {
+        SplittableRandom random = new SplittableRandom(0x5DEECE66DL);
+        for (int i = 0; i < CELLS; i++)
+        {
+            HUMAN_KEYS[i] = random.nextLong();
+            COMPUTER_KEYS[i] = random.nextLong();
+        }
+        for (int i = 0; i < NEXT_KEYS.length; i++)
+        {
+            NEXT_KEYS[i] = random.nextLong();
+        }
+        COMPUTER_TO_MOVE = random.nextLong();
+    }
+
+    private final int[] boards = new int[9]; // human | computer << 9 for each small board
+    private final int[] nextHistory = new int[CELLS + 1]; // next before each move, for undo
+    private int humanWon; // big-board squares claimed by the human
+    private int computerWon;
+    private int drawn; // small boards that are full with nobody's line
+    private int next = ANY_BOARD;
+    private int player = 1; // 1 human, -1 computer
+    private int moveCount;
+    private long key = NEXT_KEYS[0];
+
+    /**
+     * Create a new, empty position with the human to move.
+     */
+    public UltimateBoard()
+    {
+        // fields start empty
+    }
+
+    /**
+     * Create a copy of another position, moves to undo included.
+     * @param other position to copy
+     */
+    public UltimateBoard(UltimateBoard other)
+    {
+        System.arraycopy(other.boards, 0, boards, 0, 9);
+        System.arraycopy(other.nextHistory, 0, nextHistory, 0, other.moveCount);
+        humanWon = other.humanWon;
+        computerWon = other.computerWon;
+        drawn = other.drawn;
+        next = other.next;
+        player = other.player;
+        moveCount = other.moveCount;
+        key = other.key;
+    }
+
+    /**
+     * Lists the legal moves. There are none once the game is over.
+     * @param moves array of at least CELLS entries to fill
+     * @return number of moves written
+     */
+    public int generateMoves(int[] moves)
+    {
+        if (isWon())
+        {
+            return 0;
+        }
+        int n = 0;
+        if (next != ANY_BOARD)
+        {
+            n = addMoves(moves, n, next);
+        }
+        else
+        {
+            for (int open = ~(humanWon | computerWon | drawn) & Bitboard.FULL; open != 0; open &= open - 1)
+            {
+                n = addMoves(moves, n, Integer.numberOfTrailingZeros(open));
+            }
+        }
+        return n;
+    }
+
+    private int addMoves(int[] moves, int n, int b)
+    {
+        int pair = boards[b];
+        int base = b * 9;
+        for (int empty = ~(pair | pair >>> COMPUTER_SHIFT) & Bitboard.FULL; empty != 0; empty &= empty - 1)
+        {
+            moves[n++] = base + Integer.numberOfTrailingZeros(empty);
+        }
+        return n;
+    }
+
+    /**
+     * Checks if a move is legal now.
+     * @param move board * 9 + square
+     * @return true if the player to move may play it
+     */
+    public boolean isLegal(int move)
+    {
+        if (move < 0 || move >= CELLS || isWon())
+        {
+            return false;
+        }
+        int b = move / 9;
+        int pair = boards[b];
+        boolean taken = ((pair | pair >>> COMPUTER_SHIFT) >> (move % 9) & 1) != 0;
+        boolean open = ((humanWon | computerWon | drawn) >> b & 1) == 0;
+        return !taken && open && (next == ANY_BOARD || next == b);
+    }
+
+    /**
+     * Plays a legal move for the player to move.
+     * @param move board * 9 + square
+     */
+    public void play(int move)
+    {
+        int b = move / 9;
+        int square = move - b * 9;
+        nextHistory[moveCount++] = next;
+        key ^= NEXT_KEYS[next + 1] ^ COMPUTER_TO_MOVE;
+
+        int pair;
+        if (player == 1)
+        {
+            pair = boards[b] | 1 << square;
+            key ^= HUMAN_KEYS[move];
+            if (WIN[pair & Bitboard.FULL])
+            {
+                humanWon |= 1 << b;
+            }
+        }
+        else
+        {
+            pair = boards[b] | 1 << (square + COMPUTER_SHIFT);
+            key ^= COMPUTER_KEYS[move];
+            if (WIN[pair >>> COMPUTER_SHIFT])
+            {
+                computerWon |= 1 << b;
+            }
+        }
+        boards[b] = pair;
+        if (((pair | pair >>> COMPUTER_SHIFT) & Bitboard.FULL) == Bitboard.FULL && ((humanWon | computerWon) >> b & 1) == 0)
+        {
+            drawn |= 1 << b;
+        }
+
+        next = ((humanWon | computerWon | drawn) >> square & 1) == 0 ? square : ANY_BOARD;
+        key ^= NEXT_KEYS[next + 1];
+        player = -player;
+    }
+
+    /**
+     * Takes back the last move.
+     * @param move the move play() was given
+     */
+    public void undo(int move)
+    {
+        int b = move / 9;
+        player = -player;
+        key ^= NEXT_KEYS[next + 1] ^ COMPUTER_TO_MOVE;
+        next = nextHistory[--moveCount];
+        key ^= NEXT_KEYS[next + 1];
+
+        if (player == 1)
+        {
+            boards[b] &= ~(1 << (move - b * 9));
+            key ^= HUMAN_KEYS[move];
+        }
+        else
+        {
+            boards[b] &= ~(1 << (move - b * 9 + COMPUTER_SHIFT));
+            key ^= COMPUTER_KEYS[move];
+        }
+        int open = ~(1 << b); // a board that could be played on was neither won nor full
+        humanWon &= open;
+        computerWon &= open;
+        drawn &= open;
+    }
+
+    /**
+     * Returns who has three small boards in a row.
+     * @return 1 for human, -1 for computer, 0 if nobody has won
+     */
+    public int getWinner()
+    {
+        if (WIN[humanWon])
+        {
+            return 1;
+        }
+        else if (WIN[computerWon])
+        {
+            return -1;
+        }
+        return 0;
+    }
+
+    private boolean isWon()
+    {
+        return WIN[humanWon] || WIN[computerWon];
+    }
+
+    /**
+     * Checks if the game has ended: a win, or every small board is won or full.
+     * @return true if there are no more moves
+     */
+    public boolean isOver()
+    {
+        return isWon() || (humanWon | computerWon | drawn) == Bitboard.FULL;
+    }
+
+    /**
+     * Returns what is on a square of a small board.
+     * @param move board * 9 + square
+     * @return 1 for human, -1 for computer, 0 for empty
+     */
+    public int get(int move)
+    {
+        int pair = boards[move / 9];
+        int bit = move % 9;
+        return (pair >> bit & 1) - (pair >> (bit + COMPUTER_SHIFT) & 1);
+    }
+
+    /**
+     * Returns one small board as a Bitboard pair.
+     * @param b board number, 0 - 8
+     * @return human bits 0 - 8, computer bits 9 - 17
+     */
+    public int getBoard(int b)
+    {
+        return boards[b];
+    }
+
+    /**
+     * Returns the big-board squares the human has claimed.
+     * @return 9-bit mask
+     */
+    public int getHumanWon()
+    {
+        return humanWon;
+    }
+
+    /**
+     * Returns the big-board squares the computer has claimed.
+     * @return 9-bit mask
+     */
+    public int getComputerWon()
+    {
+        return computerWon;
+    }
+
+    /**
+     * Returns the small boards that filled up with no line.
+     * @return 9-bit mask
+     */
+    public int getDrawn()
+    {
+        return drawn;
+    }
+
+    /**
+     * Returns where the next move must go.
+     * @return board number, or ANY_BOARD
+     */
+    public int getNextBoard()
+    {
+        return next;
+    }
+
+    /**
+     * Returns whose turn it is.
+     * @return 1 for human, -1 for computer
+     */
+    public int getPlayerToMove()
+    {
+        return player;
+    }
+
+    /**
+     * Returns the number of moves played.
+     * @return move count
+     */
+    public int getMoveCount()
+    {
+        return moveCount;
+    }
+
+    /**
+     * Returns the Zobrist key of the whole state, side to move included.
+     * @return 64-bit position key
+     */
+    public long getKey()
+    {
+        return key;
+    }
+
+    /**
+     * Checks if a 9-bit mask holds a line.
+     * @param mask one player's squares
+     * @return true if it is a win
+     */
+    static boolean isWin(int mask)
+    {
+        return WIN[mask];
+    }
+
+    private static boolean[] buildWins()
+    {
+        boolean[] wins = new boolean[512];
+        for (int mask = 0; mask < 512; mask++)
+        {
+            wins[mask] = Bitboard.isWin(mask);
+        }
+        return wins;
+    }
+}
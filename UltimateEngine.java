@@ -0,0 +1,363 @@
+/**
+ *  Computer player for Ultimate tic-tac-toe (see UltimateBoard).
+ *
+ *  The same search as MNKEngine: iterative deepening (see DeepeningSearch)
+ *  with alpha-beta in negamax form and a SearchTable indexed by the board's
+ *  Zobrist key, whose stored move is tried first. Positions at the depth limit are scored
+ *  with the OPEN_LINES table, once over the big board and once over every small
+ *  board still being played, so a leaf costs about twenty array reads. Nothing
+ *  is allocated while searching.
+ *
+ *  getBestMove searches on the calling thread; submit runs the same search on
+ *  an AIScheduler worker and returns a SearchHandle whose moves are
+ *  {board, square}. One engine runs one search at a time.
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public class UltimateEngine extends DeepeningSearch
+{
+    private static final int MAX_PLY = UltimateBoard.CELLS + 1;
+    private static final int TABLE_BITS = 20;
+
+    private static final int BIG_LINE_WEIGHT = 60; // an open-lines point on the big board
+    private static final int CLAIMED_WEIGHT = 25; // a claimed small board, times its SQUARE_WEIGHT
+    private static final int FREE_MOVE_BONUS = 8; // for the player to move when they may go anywhere
+
+    /**
+     * How much a square of the big board is worth: the middle is in 4 lines,
+     * corners in 3 and edges in 2.
+     */
+    private static final int[] SQUARE_WEIGHT = {3, 2, 3, 2, 4, 2, 3, 2, 3};
+
+    /**
+     * OPEN_LINES[mine | blocked << 9] scores the lines one player can still
+     * complete: 1 for a line holding one of their squares, 4 for two. Lines
+     * through a blocked square are dead.
+     */
+    private static final short[] OPEN_LINES = buildOpenLines();
+
+    private final long budgetNanos;
+    private final SearchTable table;
+    private final int[][] moveBuffers = new int[MAX_PLY][UltimateBoard.CELLS]; // so the search does not allocate
+    private final int[][] orderBuffers = new int[MAX_PLY][UltimateBoard.CELLS];
+
+    private UltimateBoard board;
+    private long searchNanos;
+
+    /**
+     * Create a new engine.
+     * @param budgetMillis how long each move may take, 0 for no limit
+     */
+    public UltimateEngine(long budgetMillis)
+    {
+        budgetNanos = budgetMillis * 1000000L;
+        table = new SearchTable(TABLE_BITS);
+    }
+
+    /**
+     * Returns the best move found within the time budget, for whichever player is to move.
+     * @param position current position; it is not changed
+     * @return board * 9 + square, or -1 if the game is over
+     */
+    public int getBestMove(UltimateBoard position)
+    {
+        return run(position, budgetNanos, null);
+    }
+
+    /**
+     * Starts a search in the background. With a budget of 0 it runs until the
+     * game is solved, stopped or cancelled.
+     * @param position current position; it is copied, so it may change afterwards
+     * @param budgetMillis how long the search may take
+     * @return handle whose moves are {board, square}
+     */
+    public SearchHandle submit(UltimateBoard position, long budgetMillis)
+    {
+        final UltimateBoard copy = new UltimateBoard(position);
+        final long budget = budgetMillis * 1000000L;
+        final SearchHandle h = new SearchHandle(9);
+        h.setFuture(AIScheduler.submit(() ->
+        {
+            if (!h.isCancelled())
+            {
+                run(copy, budget, h); // after an early stop() this returns the first move at once
+            }
+        }));
+        return h;
+    }
+
+    /**
+     * Returns how many positions the last search visited.
+     * @return node count
+     */
+    public long getNodeCount()
+    {
+        return nodes;
+    }
+
+    /**
+     * Returns the deepest iteration the last search finished.
+     * @return depth in moves
+     */
+    public int getCompletedDepth()
+    {
+        return completedDepth;
+    }
+
+    /**
+     * Returns the speed of the last search.
+     * @return positions visited per second
+     */
+    public double getNodesPerSecond()
+    {
+        return searchNanos == 0 ? 0 : nodes * 1e9 / searchNanos;
+    }
+
+    /**
+     * Empties the transposition table.
+     */
+    public synchronized void clear()
+    {
+        table.clear();
+    }
+
+    /**
+     * Searches a copy of a position, one search at a time.
+     * @param position position to search
+     * @param budget nanoseconds the search may take, 0 for no limit
+     * @param h handle to publish to and take stop requests from, or null
+     * @return the best move, or -1 if the game is over
+     */
+    private synchronized int run(UltimateBoard position, long budget, SearchHandle h)
+    {
+        handle = h;
+        try
+        {
+            board = new UltimateBoard(position);
+            long start = System.nanoTime();
+            startClock(budget);
+            int move = search();
+            searchNanos = System.nanoTime() - start;
+            if (h != null)
+            {
+                h.finish(move, completedDepth, nodes);
+            }
+            return move;
+        }
+        finally
+        {
+            handle = null;
+            board = null;
+            if (h != null)
+            {
+                h.finish(); // only does something if the search threw
+            }
+        }
+    }
+
+    /**
+     * Iterative deepening from the copied position.
+     * @return the best move, or -1 if the game is over
+     */
+    private int search()
+    {
+        int n = generateMoves(0, -1);
+        if (n == 0)
+        {
+            return -1;
+        }
+        return deepen(moveBuffers[0], n, UltimateBoard.CELLS - board.getMoveCount());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    int searchRoot(int move, int depth, int alpha)
+    {
+        board.play(move);
+        int value = -negamax(depth - 1, 1, -INFINITY, -alpha);
+        board.undo(move);
+        return value;
+    }
+
+    /**
+     * Alpha-beta search in negamax form: values are from the point of view of the player to move.
+     * @param depth moves left before evaluating
+     * @param ply moves made since the root
+     * @param alpha lower end of the window
+     * @param beta upper end of the window
+     * @return value of the position for the player to move
+     */
+    private int negamax(int depth, int ply, int alpha, int beta)
+    {
+        nodes++;
+        if (stopNow(nodes))
+        {
+            return 0;
+        }
+        if (board.getWinner() != 0)
+        {
+            return -(WIN - ply); // the player who just moved has won
+        }
+        if (board.isOver())
+        {
+            return 0; // tie
+        }
+        if (depth == 0)
+        {
+            int score = evaluate();
+            return board.getPlayerToMove() == -1 ? score : -score;
+        }
+
+        long key = board.getKey();
+        long entry = table.probe(key);
+        if (SearchTable.cuts(entry, depth, ply, alpha, beta))
+        {
+            return SearchTable.value(entry, ply);
+        }
+
+        int alphaIn = alpha;
+        int[] moves = moveBuffers[ply];
+        int n = generateMoves(ply, SearchTable.move(entry));
+        int best = -INFINITY;
+        int bestMove = -1;
+        for (int i = 0; i < n; i++)
+        {
+            int move = moves[i];
+            board.play(move);
+            int value = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            board.undo(move);
+
+            if (value > best)
+            {
+                best = value;
+                bestMove = move;
+                if (value > alpha)
+                {
+                    alpha = value;
+                    if (alpha >= beta)
+                    {
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (!outOfTime)
+        {
+            table.store(key, best, bestMove, depth, ply, alphaIn, beta);
+        }
+        return best;
+    }
+
+    /**
+     * Scores the position for the computer: open lines on the big board,
+     * claimed small boards, and open lines inside the small boards still in play.
+     * @return score, positive when the computer is better off
+     */
+    private int evaluate()
+    {
+        int humanWon = board.getHumanWon();
+        int computerWon = board.getComputerWon();
+        int drawn = board.getDrawn();
+        int score = BIG_LINE_WEIGHT * (OPEN_LINES[computerWon | (humanWon | drawn) << 9]
+            - OPEN_LINES[humanWon | (computerWon | drawn) << 9]);
+
+        int closed = humanWon | computerWon | drawn;
+        for (int b = 0; b < 9; b++)
+        {
+            if ((closed >> b & 1) == 0)
+            {
+                int pair = board.getBoard(b);
+                int human = pair & Bitboard.FULL;
+                int computer = pair >>> 9;
+                score += SQUARE_WEIGHT[b] * (OPEN_LINES[computer | human << 9] - OPEN_LINES[human | computer << 9]);
+            }
+            else if ((humanWon >> b & 1) != 0)
+            {
+                score -= CLAIMED_WEIGHT * SQUARE_WEIGHT[b];
+            }
+            else if ((computerWon >> b & 1) != 0)
+            {
+                score += CLAIMED_WEIGHT * SQUARE_WEIGHT[b];
+            }
+        }
+
+        if (board.getNextBoard() == UltimateBoard.ANY_BOARD)
+        {
+            score += board.getPlayerToMove() == -1 ? FREE_MOVE_BONUS : -FREE_MOVE_BONUS;
+        }
+        return score;
+    }
+
+    /**
+     * Fills moveBuffers[ply] with the legal moves: the transposition table's
+     * move first, then moves that claim a small board, then moves that do not
+     * give the other player a free choice of board.
+     * @param ply which buffer to fill
+     * @param hashMove move to try first, or -1
+     * @return number of moves
+     */
+    private int generateMoves(int ply, int hashMove)
+    {
+        int[] moves = moveBuffers[ply];
+        int[] order = orderBuffers[ply];
+        int n = board.generateMoves(moves);
+        int player = board.getPlayerToMove();
+        int closed = board.getHumanWon() | board.getComputerWon() | board.getDrawn();
+        for (int i = 0; i < n; i++)
+        {
+            int move = moves[i];
+            int b = move / 9;
+            int square = move - b * 9;
+            int pair = board.getBoard(b);
+            int mine = player == 1 ? pair & Bitboard.FULL : pair >>> 9;
+            int u;
+            if (move == hashMove)
+            {
+                u = 3;
+            }
+            else if (UltimateBoard.isWin(mine | 1 << square))
+            {
+                u = 2;
+            }
+            else
+            {
+                u = (closed >> square & 1) == 0 ? 1 : 0;
+            }
+            int j = i;
+            while (j > 0 && order[j - 1] < u) // insertion sort, best first
+            {
+                moves[j] = moves[j - 1];
+                order[j] = order[j - 1];
+                j--;
+            }
+            moves[j] = move;
+            order[j] = u;
+        }
+        return n;
+    }
+
+    private static short[] buildOpenLines()
+    {
+        short[] table = new short[1 << 18];
+        for (int index = 0; index < table.length; index++)
+        {
+            int mine = index & Bitboard.FULL;
+            int blocked = index >>> 9;
+            int total = 0;
+            for (int line : Bitboard.WIN_MASKS)
+            {
+                if ((line & blocked) == 0)
+                {
+                    int count = Integer.bitCount(line & mine);
+                    total += count == 1 ? 1 : count == 2 ? 4 : 0;
+                }
+            }
+            table[index] = (short) total;
+        }
+        return table;
+    }
+}
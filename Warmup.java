@@ -0,0 +1,159 @@
+/**
+ *  Gets the 3x3 engines ready while the main menu is on screen, so the first
+ *  move of a game is as quick as the ones after it.
+ *
+ *  One low-priority daemon thread opens the tablebase and journal files, builds
+ *  the Normal AI's tables, and solves every position an Unbeatable game can
+ *  reach (the human moves first) into a TranspositionTable that each new game
+ *  starts from. Then it plays a few hundred games with both engines so the JIT
+ *  compiles their hot paths before the human clicks. Its moves are recorded
+ *  in a scratch EngineMetrics, not in NORMAL or UNBEATABLE.
+ *
+ *  @author gracejiang
+ *  @version Oct 18, 2026
+ */
+public final class Warmup
+{
+    private static final int JIT_ROUNDS = 40; // times the warm-up games are replayed to trigger compilation
+
+    /**
+     * Where warm-up moves are recorded, so they stay out of the real totals.
+     */
+    private static final EngineMetrics SCRATCH = new EngineMetrics("Warmup");
+
+    private static Thread thread; // null until start()
+    private static volatile TranspositionTable openingTable; // null until the openings are solved
+
+    private Warmup()
+    {
+        // only static helpers
+    }
+
+    /**
+     * Starts the warm-up thread. Calling this again does nothing.
+     */
+    public static synchronized void start()
+    {
+        if (thread != null)
+        {
+            return;
+        }
+        thread = new Thread(Warmup::run, "warmup");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Returns a table for a new Unbeatable game: a copy of the solved openings
+     * if the warm-up has got that far, otherwise an empty table.
+     * @return a table only the caller uses
+     */
+    public static TranspositionTable newTranspositionTable()
+    {
+        TranspositionTable solved = openingTable;
+        return solved == null ? new TranspositionTable() : new TranspositionTable(solved);
+    }
+
+    /**
+     * Waits for the warm-up thread to finish.
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public static void await() throws InterruptedException
+    {
+        Thread t;
+        synchronized (Warmup.class)
+        {
+            t = thread;
+        }
+        if (t != null)
+        {
+            t.join();
+        }
+    }
+
+    private static void run()
+    {
+        // files the game windows would otherwise open on their first move
+        Tablebase.getDefault();
+        GameJournal.getDefault();
+
+        TranspositionTable table = new TranspositionTable();
+        AIMM solver = unbeatable(table);
+        playUnbeatable(solver, GameState.start(false));
+        openingTable = table;
+
+        for (int round = 0; round < JIT_ROUNDS; round++)
+        {
+            playUnbeatable(unbeatable(new TranspositionTable()), GameState.start(false));
+            for (int first = 0; first < 9; first++)
+            {
+                playNormal(first);
+            }
+            Thread.yield();
+        }
+    }
+
+    private static AIMM unbeatable(TranspositionTable table)
+    {
+        AIMM ai = new AIMM(null);
+        ai.setAlphaBeta(true);
+        ai.setTranspositionTable(table);
+        ai.setMetrics(SCRATCH);
+        return ai;
+    }
+
+    /**
+     * Tries every human move from a position, with the engine's reply to each,
+     * until every game has ended.
+     * @param ai the engine
+     * @param state a position with the human to move
+     */
+    private static void playUnbeatable(AIMM ai, int state)
+    {
+        for (int moves = GameState.legalMoves(state); moves != 0; moves &= moves - 1)
+        {
+            int afterHuman = GameState.apply(state, Integer.numberOfTrailingZeros(moves));
+            if (!GameState.isOver(afterHuman))
+            {
+                int afterComputer = GameState.apply(afterHuman, ai.chooseMove(afterHuman) - 1);
+                if (!GameState.isOver(afterComputer))
+                {
+                    playUnbeatable(ai, afterComputer);
+                }
+            }
+        }
+    }
+
+    /**
+     * Plays one Normal game where the human opens on a square and then takes the
+     * lowest free square each turn.
+     * @param first the human's first square index
+     */
+    private static void playNormal(int first)
+    {
+        AI ai = new AI();
+        ai.setMetrics(SCRATCH);
+        int state = GameState.start(false);
+        int square = first;
+        while (true)
+        {
+            state = GameState.apply(state, square);
+            if (GameState.isOver(state))
+            {
+                return;
+            }
+            int reply = ai.chooseMove(state, square + 1) - 1;
+            if (GameState.get(state, reply) != 0)
+            {
+                state = GameState.remove(state, reply); // AI.chooseMove can write over a taken square
+            }
+            state = GameState.apply(state, reply);
+            if (GameState.isOver(state))
+            {
+                return;
+            }
+            square = Integer.numberOfTrailingZeros(GameState.legalMoves(state));
+        }
+    }
+}